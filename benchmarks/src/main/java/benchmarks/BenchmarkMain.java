@@ -0,0 +1,38 @@
+package benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * ベンチマークの起動クラス
+ * JMHの通常のオプションに加えて、指定がない場合は次の設定で実行する
+ * ・GCプロファイラ(1回あたりの割り当てバイト数 gc.alloc.rate.norm を出力する)
+ * ・結果をJSONで target/jmh-result.json に出力する(ビルド間の比較用)
+ *
+ * 実行方法) 親ディレクトリで mvn install を実行した後、このディレクトリで
+ *   mvn -B package && java -jar target/benchmarks.jar [JMHのオプション 例: Converter -f 1]
+ */
+public class BenchmarkMain {
+
+    private static final String DEFAULT_RESULT = "target/jmh-result.json";
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cmd);
+        if (cmd.getProfilers().isEmpty()) {
+            options.addProfiler(GCProfiler.class);
+        }
+        if (!cmd.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!cmd.getResult().hasValue()) {
+            options.result(DEFAULT_RESULT);
+        }
+        new Runner(options.build()).run();
+    }
+
+}
@@ -0,0 +1,82 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import actions.views.EmployeeConverter;
+import actions.views.EmployeeView;
+import actions.views.ReportConverter;
+import actions.views.ReportView;
+import models.Employee;
+import models.Report;
+
+/**
+ * DTOモデル⇔Viewモデルの変換(一覧画面の表示ごとに1ページ分実行される)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ConverterBenchmark {
+
+    /**
+     * 1ページの件数(JpaConst.ROW_PER_PAGE と同じ値を既定にする)
+     */
+    @Param({ "15" })
+    int pageSize;
+
+    private Employee employee;
+    private EmployeeView employeeView;
+    private Report report;
+    private ReportView reportView;
+    private List<Report> page;
+
+    @Setup
+    public void setup() {
+        employee = Fixtures.employee(1);
+        employeeView = EmployeeConverter.toView(employee);
+        report = Fixtures.report(1, employee);
+        reportView = ReportConverter.toView(report);
+        page = Fixtures.reportPage(pageSize);
+    }
+
+    @Benchmark
+    public EmployeeView employeeToView() {
+        return EmployeeConverter.toView(employee);
+    }
+
+    @Benchmark
+    public Employee employeeToModel() {
+        return EmployeeConverter.toModel(employeeView);
+    }
+
+    @Benchmark
+    public ReportView reportToView() {
+        return ReportConverter.toView(report);
+    }
+
+    @Benchmark
+    public Report reportToModel() {
+        return ReportConverter.toModel(reportView);
+    }
+
+    @Benchmark
+    public List<ReportView> reportToViewList() {
+        return ReportConverter.toViewList(page);
+    }
+
+}
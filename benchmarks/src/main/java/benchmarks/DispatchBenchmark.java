@@ -0,0 +1,100 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import actions.ActionBase;
+import constants.ForwardConst;
+
+/**
+ * ActionBase.invoke によるcommandのメソッド呼び出し(全リクエストで実行される)
+ * 各メソッドは何もしないため、リフレクションによる呼び出し自体のコストを計測する
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DispatchBenchmark {
+
+    @Param({ "index", "show", "update" })
+    String command;
+
+    private StubAction action;
+
+    @Setup
+    public void setup() {
+        //パラメータのcommandだけを返すリクエスト(それ以外のメソッドは呼ばれない)
+        HttpServletRequest request = (HttpServletRequest) Proxy.newProxyInstance(
+                HttpServletRequest.class.getClassLoader(),
+                new Class<?>[] { HttpServletRequest.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("getParameter")
+                            && ForwardConst.CMD.getValue().equals(args[0])) {
+                        return command;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        action = new StubAction();
+        action.init(null, request, null);
+    }
+
+    @Benchmark
+    public void invoke(Blackhole bh) throws ServletException, IOException {
+        action.process();
+        bh.consume(action.calls);
+    }
+
+    /**
+     * 比較用: リフレクションを使わずに直接呼び出す
+     */
+    @Benchmark
+    public void direct(Blackhole bh) {
+        action.index();
+        bh.consume(action.calls);
+    }
+
+    /**
+     * commandに対応するメソッドだけを持つAction
+     */
+    public static class StubAction extends ActionBase {
+
+        int calls;
+
+        @Override
+        public void process() throws ServletException, IOException {
+            invoke();
+        }
+
+        public void index() {
+            calls++;
+        }
+
+        public void show() {
+            calls++;
+        }
+
+        public void update() {
+            calls++;
+        }
+    }
+
+}
@@ -0,0 +1,82 @@
+package benchmarks;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import actions.views.EmployeeView;
+import actions.views.ReportView;
+import models.Employee;
+import models.Report;
+import models.ReportContent;
+
+/**
+ * ベンチマークで使う試験データ
+ * (コンストラクタの引数の並びに依存しないよう、setterで作成する)
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    static Employee employee(int id) {
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 9, 0, 0);
+        Employee e = new Employee();
+        e.setId(id);
+        e.setCode(String.format("E%06d", id));
+        e.setName("従業員" + id);
+        e.setPassword("0123456789ABCDEF0123456789ABCDEF0123456789ABCDEF0123456789ABCDEF");
+        e.setAdminFlag(0);
+        e.setCreatedAt(now);
+        e.setUpdatedAt(now);
+        e.setDeleteFlag(0);
+        return e;
+    }
+
+    static Report report(int id, Employee employee) {
+        LocalDateTime at = LocalDateTime.of(2024, 1, 1, 18, 0, 30);
+        Report r = new Report();
+        r.setId(id);
+        r.setEmployee(employee);
+        r.setReportDate(LocalDate.of(2024, 1, 1));
+        r.setTitle("2024-01-01 の日報");
+        r.setContent(ReportContent.ofText("本日の作業内容\n・午前: 定例会議、進捗確認\n・午後: 資料作成、レビュー対応\n"));
+        r.setCreatedAt(at);
+        r.setUpdatedAt(at);
+        return r;
+    }
+
+    /**
+     * 一覧画面1ページ分の日報(作成者は5人)
+     */
+    static List<Report> reportPage(int size) {
+        List<Report> list = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            list.add(report(i + 1, employee(i % 5 + 1)));
+        }
+        return list;
+    }
+
+    static EmployeeView employeeView(int id) {
+        EmployeeView ev = new EmployeeView();
+        ev.setId(id);
+        ev.setCode(String.format("E%06d", id));
+        ev.setName("従業員" + id);
+        ev.setPassword("password");
+        ev.setAdminFlag(0);
+        ev.setDeleteFlag(0);
+        return ev;
+    }
+
+    static ReportView reportView(int id) {
+        ReportView rv = new ReportView();
+        rv.setId(id);
+        rv.setEmployee(employeeView(1));
+        rv.setReportDate(LocalDate.of(2024, 1, 1));
+        rv.setTitle("2024-01-01 の日報");
+        rv.setContent("本日の作業内容\n・午前: 定例会議、進捗確認\n・午後: 資料作成、レビュー対応\n");
+        return rv;
+    }
+
+}
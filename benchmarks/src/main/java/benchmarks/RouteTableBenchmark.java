@@ -0,0 +1,55 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import filters.RouteTable;
+
+/**
+ * LoginFilterでのルートの分類(全リクエストで実行される)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RouteTableBenchmark {
+
+    /**
+     * サーブレットパス|action|command
+     */
+    @Param({ "/|Report|index", "/|Auth|showLogin", "/|Employee|show", "/css/style.css||" })
+    String route;
+
+    private RouteTable routes;
+    private String path;
+    private String action;
+    private String command;
+
+    @Setup
+    public void setup() {
+        routes = new RouteTable();
+        String[] parts = route.split("\\|", -1);
+        path = parts[0];
+        action = parts[1].isEmpty() ? null : parts[1];
+        command = parts[2].isEmpty() ? null : parts[2];
+    }
+
+    @Benchmark
+    public RouteTable.Access classify() {
+        return routes.classify(path, action, command);
+    }
+
+}
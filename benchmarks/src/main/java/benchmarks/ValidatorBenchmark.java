@@ -0,0 +1,72 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import actions.views.EmployeeView;
+import actions.views.ReportView;
+import models.validators.EmployeeValidator;
+import models.validators.ReportValidator;
+
+/**
+ * 入力値のバリデーション
+ * 社員番号の重複チェックはDBへの問い合わせになるため対象外とする(JVM内の処理のみ計測する)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ValidatorBenchmark {
+
+    private ReportView validReport;
+    private ReportView invalidReport;
+    private EmployeeView validEmployee;
+    private EmployeeView invalidEmployee;
+
+    @Setup
+    public void setup() {
+        validReport = Fixtures.reportView(1);
+        invalidReport = Fixtures.reportView(2);
+        invalidReport.setTitle("");
+        invalidReport.setContent("");
+        validEmployee = Fixtures.employeeView(1);
+        invalidEmployee = Fixtures.employeeView(2);
+        invalidEmployee.setCode("");
+        invalidEmployee.setName("");
+        invalidEmployee.setPassword("");
+    }
+
+    @Benchmark
+    public List<String> reportValid() {
+        return ReportValidator.validate(validReport);
+    }
+
+    @Benchmark
+    public List<String> reportInvalid() {
+        return ReportValidator.validate(invalidReport);
+    }
+
+    @Benchmark
+    public List<String> employeeValid() {
+        return EmployeeValidator.validate(null, validEmployee, false, true);
+    }
+
+    @Benchmark
+    public List<String> employeeInvalid() {
+        return EmployeeValidator.validate(null, invalidEmployee, false, true);
+    }
+
+}
@@ -0,0 +1,159 @@
+package loadtest;
+
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 1人の利用者の操作を繰り返すクラス
+ * ログイン → トップ → 日報一覧(1〜pagesページ) → 日報詳細 → いいね(登録済みなら解除) を1回の流れとし、
+ * 流れごとにCookieを捨てて新しくログインする
+ */
+class Journey implements Runnable {
+
+    private static final Pattern TOKEN = Pattern.compile("name=\"_token\" value=\"([^\"]*)\"");
+    private static final Pattern LIKE_FORM = Pattern.compile(
+            "<form method=\"post\" name=\"form1\" action=\"([^\"]*command=like(?:Create|Destroy)[^\"]*)\"");
+
+    private final Options options;
+    private final Seeder seeder;
+    private final String base;
+    private final int employeeId;
+    private final long measureFrom;
+    private final long measureUntil;
+    private final Random random;
+    private final Zipf zipf;
+
+    /**
+     * 計測結果
+     */
+    final Recorder recorder = new Recorder();
+
+    private HttpClient client;
+
+    /**
+     * コンストラクタ
+     * @param options 設定値
+     * @param seeder 投入した試験データ
+     * @param base アプリのURL(末尾は/)
+     * @param employeeId ログインする従業員のid
+     * @param measureFrom 計測開始時刻(System.nanoTime)
+     * @param measureUntil 計測終了時刻(System.nanoTime) この時刻を過ぎたら終了する
+     */
+    Journey(Options options, Seeder seeder, String base, int employeeId, long measureFrom, long measureUntil) {
+        this.options = options;
+        this.seeder = seeder;
+        this.base = base;
+        this.employeeId = employeeId;
+        this.measureFrom = measureFrom;
+        this.measureUntil = measureUntil;
+        this.random = new Random(options.seed + employeeId);
+        this.zipf = new Zipf(seeder.reportCount(), options.zipf);
+    }
+
+    @Override
+    public void run() {
+        while (System.nanoTime() < measureUntil) {
+            try {
+                iteration();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                //接続エラー等は流れ全体の失敗として記録し、次の流れに進む
+                recorder.record("journey", 0, false);
+            }
+        }
+    }
+
+    private void iteration() throws Exception {
+        client = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        //ログイン
+        String page = get(null, "?action=Auth&command=showLogin");
+        //ログイン画面に戻された場合(パスワード入力欄がある場合)は失敗
+        page = send("login", form("?action=Auth&command=login",
+                "code=" + Seeder.code(employeeId)
+                        + "&password=" + Seeder.PASSWORD
+                        + "&_token=" + token(page)),
+                "name=\"password\"");
+        if (page == null) {
+            return;
+        }
+
+        //トップ
+        get("top", "?action=Top&command=index");
+
+        //日報一覧
+        for (int p = 1; p <= options.pages; p++) {
+            get("reports_index", "?action=Report&command=index&page=" + p);
+        }
+
+        //日報詳細(人気のある日報ほど開かれやすい)
+        int reportId = seeder.reportId(zipf.next(random));
+        page = get("report_show", "?action=Report&command=show&id=" + reportId);
+
+        //いいね(自分の日報の場合はフォームがないので何もしない)
+        if (page != null) {
+            Matcher m = LIKE_FORM.matcher(page);
+            if (m.find()) {
+                post("like", m.group(1).replace("&amp;", "&"), "id=" + reportId + "&_token=" + token(page));
+            }
+        }
+    }
+
+    private String get(String step, String path) throws Exception {
+        return send(step, HttpRequest.newBuilder(URI.create(base + path)).GET(), null);
+    }
+
+    private String post(String step, String path, String form) throws Exception {
+        return send(step, form(path, form), null);
+    }
+
+    private HttpRequest.Builder form(String path, String form) {
+        return HttpRequest.newBuilder(URI.create(base + path))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form));
+    }
+
+    /**
+     * リクエストを送信し、計測期間内であれば応答時間を記録する
+     * @param step ステップ名(nullの場合は記録しない)
+     * @param failMarker レスポンスに含まれていたら失敗とする文字列(nullの場合は確認しない)
+     * @return レスポンスボディ 失敗した場合null
+     */
+    private String send(String step, HttpRequest.Builder request, String failMarker) throws Exception {
+        long start = System.nanoTime();
+        HttpResponse<String> res = client.send(request.timeout(Duration.ofSeconds(30)).build(),
+                HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        long end = System.nanoTime();
+        //JSPの途中で例外が発生した場合もステータスは200になるため、最後まで出力されたかどうかも確認する
+        boolean ok = res.statusCode() == 200 && res.body().contains("</html>")
+                && (failMarker == null || !res.body().contains(failMarker));
+        if (step != null && start >= measureFrom && end <= measureUntil) {
+            recorder.record(step, end - start, ok);
+        }
+        return ok ? res.body() : null;
+    }
+
+    private static String token(String page) {
+        if (page == null) {
+            return "";
+        }
+        Matcher m = TOKEN.matcher(page);
+        return m.find() ? URLEncoder.encode(m.group(1), StandardCharsets.UTF_8) : "";
+    }
+
+}
@@ -0,0 +1,137 @@
+package loadtest;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.startup.Tomcat;
+import org.h2.tools.Server;
+
+/**
+ * 負荷試験の起動クラス
+ * 1. H2(MySQL互換モード)をTCPサーバーとして起動し、アプリの接続先をシステムプロパティで切り替える
+ * 2. 組み込みTomcatでアプリを起動し、ログイン画面を表示してテーブルを作成させる
+ * 3. 試験データを投入する
+ * 4. 利用者数分のスレッドで操作を繰り返し、ウォームアップ後の一定時間の結果をJSONで出力する
+ *
+ * 実行方法) 親ディレクトリで mvn package を実行した後、このディレクトリで
+ *   mvn -B compile exec:java -Dexec.args="--employees=200 --reports=30 --users=32 --duration=60"
+ * 指定できる項目は Options を参照
+ */
+public class LoadTest {
+
+    private static final String CONTEXT_PATH = "/daily_report_system";
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        File webapp = options.webapp.toFile().getAbsoluteFile();
+        if (!new File(webapp, "WEB-INF").isDirectory()) {
+            throw new IllegalStateException(webapp + " is not an exploded webapp; run mvn package in the project root first");
+        }
+
+        //DB(アプリのクラスローダーからも同じDBを参照できるようにTCPで接続する)
+        Server db = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        String jdbcUrl = "jdbc:h2:tcp://localhost:" + db.getPort() + "/mem:drs;MODE=MySQL;DB_CLOSE_DELAY=-1";
+        configureDatabase("drs.jpa.", jdbcUrl);
+        System.setProperty("drs.jpa.javax.persistence.schema-generation.database.action", "drop-and-create");
+        if (options.replica) {
+            //レプリカへの振り分けを確認するため、同じDBをレプリカとしても参照する
+            System.setProperty("drs.replica.enabled", "true");
+            configureDatabase("drs.replica.jpa.", jdbcUrl);
+        }
+
+        //アプリ
+        Tomcat tomcat = new Tomcat();
+        tomcat.setBaseDir(new File("target", "tomcat").getAbsolutePath());
+        tomcat.setPort(0);
+        tomcat.getConnector();
+        Context context = tomcat.addWebapp(CONTEXT_PATH, webapp.getPath());
+        //exec:javaで起動した場合もTomcat・H2のクラスをアプリから参照できるようにする
+        context.setParentClassLoader(LoadTest.class.getClassLoader());
+        tomcat.start();
+        String base = "http://localhost:" + tomcat.getConnector().getLocalPort() + CONTEXT_PATH + "/";
+
+        try {
+            //ログイン画面を表示するとEntityManagerFactoryが作成され、テーブルが作成される
+            HttpResponse<String> res = HttpClient.newHttpClient().send(
+                    HttpRequest.newBuilder(URI.create(base + "?action=Auth&command=showLogin")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (res.statusCode() != 200) {
+                throw new IllegalStateException("application did not start: HTTP " + res.statusCode());
+            }
+
+            Seeder seeder = new Seeder(options, jdbcUrl);
+            long seedStart = System.nanoTime();
+            seeder.seed((String) context.getServletContext().getAttribute("pepper"));
+            System.err.printf("seeded %d employees, %d reports in %d ms%n", options.employees, seeder.reportCount(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - seedStart));
+
+            Recorder total = run(options, seeder, base);
+            String json = "{\n"
+                    + "  \"employees\": " + options.employees + ",\n"
+                    + "  \"reports_per_employee\": " + options.reports + ",\n"
+                    + "  \"likes_per_employee\": " + options.likes + ",\n"
+                    + "  \"users\": " + options.users + ",\n"
+                    + "  \"duration_s\": " + options.duration + ",\n"
+                    + "  \"replica\": " + options.replica + ",\n"
+                    + total.toJson(options.duration) + "\n"
+                    + "}\n";
+            if (options.out.getParent() != null) {
+                Files.createDirectories(options.out.getParent());
+            }
+            Files.write(options.out, json.getBytes(StandardCharsets.UTF_8));
+            System.out.print(json);
+        } finally {
+            tomcat.stop();
+            tomcat.destroy();
+            db.stop();
+        }
+    }
+
+    /**
+     * 利用者数分のスレッドで操作を繰り返し、結果をまとめる
+     */
+    private static Recorder run(Options options, Seeder seeder, String base) throws InterruptedException {
+        long now = System.nanoTime();
+        long measureFrom = now + TimeUnit.SECONDS.toNanos(options.warmup);
+        long measureUntil = measureFrom + TimeUnit.SECONDS.toNanos(options.duration);
+
+        List<Journey> journeys = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < options.users; i++) {
+            //利用者ごとに別の従業員でログインする(管理者のid=1は使わない)
+            Journey j = new Journey(options, seeder, base, 2 + i % (options.employees - 1), measureFrom, measureUntil);
+            Thread t = new Thread(j, "user-" + i);
+            journeys.add(j);
+            threads.add(t);
+            t.start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        Recorder total = new Recorder();
+        for (Journey j : journeys) {
+            total.merge(j.recorder);
+        }
+        return total;
+    }
+
+    private static void configureDatabase(String prefix, String jdbcUrl) {
+        System.setProperty(prefix + "javax.persistence.jdbc.driver", "org.h2.Driver");
+        System.setProperty(prefix + "javax.persistence.jdbc.url", jdbcUrl);
+        System.setProperty(prefix + "javax.persistence.jdbc.user", "sa");
+        System.setProperty(prefix + "javax.persistence.jdbc.password", "");
+        System.setProperty(prefix + "hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        System.setProperty(prefix + "hibernate.show_sql", "false");
+    }
+
+}
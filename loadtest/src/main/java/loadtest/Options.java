@@ -0,0 +1,66 @@
+package loadtest;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * 負荷試験の設定値
+ * コマンドライン引数 --名前=値 で指定する(未指定の項目は初期値)
+ */
+public class Options {
+
+    //試験データ
+    int employees = 100; //従業員数
+    int reports = 20; //従業員1人あたりの日報数
+    int likes = 10; //従業員1人あたりのいいね数(人気のある日報に偏らせる)
+    double zipf = 1.1; //いいね・閲覧する日報の偏り(Zipf分布の指数)
+    long seed = 42; //乱数の種(同じ値なら同じデータ・同じ操作順になる)
+
+    //負荷
+    int users = 16; //並行して操作する利用者数
+    int pages = 3; //一覧画面で何ページ目まで表示するか
+    int warmup = 10; //計測から除外する最初の秒数
+    int duration = 30; //計測する秒数
+
+    //その他
+    boolean replica = false; //レプリカへの振り分けを有効にする(同じDBを参照する)
+    Path webapp = Paths.get("..", "target", "daily_report_system"); //起動するアプリ(展開済みのWAR)
+    Path out = Paths.get("target", "loadtest-result.json"); //結果の出力先
+
+    /**
+     * コマンドライン引数から作成する
+     * @param args コマンドライン引数
+     * @return 設定値
+     */
+    static Options parse(String[] args) {
+        Options o = new Options();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("unknown argument: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            String name = eq < 0 ? arg.substring(2) : arg.substring(2, eq);
+            String value = eq < 0 ? "true" : arg.substring(eq + 1);
+            switch (name) {
+            case "employees": o.employees = Integer.parseInt(value); break;
+            case "reports": o.reports = Integer.parseInt(value); break;
+            case "likes": o.likes = Integer.parseInt(value); break;
+            case "zipf": o.zipf = Double.parseDouble(value); break;
+            case "seed": o.seed = Long.parseLong(value); break;
+            case "users": o.users = Integer.parseInt(value); break;
+            case "pages": o.pages = Integer.parseInt(value); break;
+            case "warmup": o.warmup = Integer.parseInt(value); break;
+            case "duration": o.duration = Integer.parseInt(value); break;
+            case "replica": o.replica = Boolean.parseBoolean(value); break;
+            case "webapp": o.webapp = Paths.get(value); break;
+            case "out": o.out = Paths.get(value); break;
+            default: throw new IllegalArgumentException("unknown option: --" + name);
+            }
+        }
+        if (o.employees < 2 || o.reports < 1) {
+            throw new IllegalArgumentException("--employees must be at least 2 and --reports at least 1");
+        }
+        return o;
+    }
+
+}
@@ -0,0 +1,113 @@
+package loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 操作(ステップ)ごとの応答時間とエラー件数を記録するクラス
+ * 利用者(スレッド)ごとに1つ持ち、計測終了後に merge でまとめる
+ */
+class Recorder {
+
+    /**
+     * ステップ名→応答時間(ナノ秒)
+     */
+    private final Map<String, Samples> steps = new LinkedHashMap<>();
+
+    /**
+     * 応答時間を記録する
+     * @param step ステップ名
+     * @param nanos 応答時間(ナノ秒)
+     * @param ok 成功したかどうか
+     */
+    void record(String step, long nanos, boolean ok) {
+        Samples s = steps.computeIfAbsent(step, k -> new Samples());
+        if (ok) {
+            s.add(nanos);
+        } else {
+            s.errors++;
+        }
+    }
+
+    /**
+     * 他の記録を取り込む
+     * @param other 他の記録
+     */
+    void merge(Recorder other) {
+        for (Map.Entry<String, Samples> e : other.steps.entrySet()) {
+            Samples s = steps.computeIfAbsent(e.getKey(), k -> new Samples());
+            for (int i = 0; i < e.getValue().count; i++) {
+                s.add(e.getValue().values[i]);
+            }
+            s.errors += e.getValue().errors;
+        }
+    }
+
+    /**
+     * 記録をJSONにする
+     * @param seconds 計測時間(秒)
+     * @return JSON文字列
+     */
+    String toJson(double seconds) {
+        long total = 0;
+        long errors = 0;
+        StringBuilder sb = new StringBuilder();
+        sb.append("  \"steps\": {\n");
+        boolean first = true;
+        for (Map.Entry<String, Samples> e : steps.entrySet()) {
+            Samples s = e.getValue();
+            long[] sorted = Arrays.copyOf(s.values, s.count);
+            Arrays.sort(sorted);
+            total += s.count;
+            errors += s.errors;
+            if (!first) {
+                sb.append(",\n");
+            }
+            first = false;
+            sb.append("    \"").append(e.getKey()).append("\": {")
+                    .append("\"count\": ").append(s.count)
+                    .append(", \"errors\": ").append(s.errors)
+                    .append(", \"throughput\": ").append(round(s.count / seconds))
+                    .append(", \"p50_ms\": ").append(millis(sorted, 0.50))
+                    .append(", \"p90_ms\": ").append(millis(sorted, 0.90))
+                    .append(", \"p99_ms\": ").append(millis(sorted, 0.99))
+                    .append(", \"max_ms\": ").append(millis(sorted, 1.0))
+                    .append("}");
+        }
+        sb.append("\n  }");
+        return "  \"requests\": " + total + ",\n"
+                + "  \"errors\": " + errors + ",\n"
+                + "  \"throughput\": " + round(total / seconds) + ",\n"
+                + sb;
+    }
+
+    private static double millis(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int i = (int) Math.ceil(quantile * sorted.length) - 1;
+        return round(sorted[Math.max(0, i)] / 1_000_000.0);
+    }
+
+    private static double round(double d) {
+        return Math.round(d * 100) / 100.0;
+    }
+
+    /**
+     * 応答時間の配列(必要に応じて拡張する)
+     */
+    private static class Samples {
+        long[] values = new long[1024];
+        int count;
+        long errors;
+
+        void add(long v) {
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = v;
+        }
+    }
+
+}
@@ -0,0 +1,204 @@
+package loadtest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * 試験データをJDBCで直接投入するクラス
+ * テーブルはアプリ起動時にHibernateが作成したものを使う(列名はJpaConstの定義に合わせる)
+ */
+class Seeder {
+
+    /**
+     * 全従業員共通のパスワード
+     */
+    static final String PASSWORD = "loadtest";
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String CONTENT = "本日の作業内容\n・午前: 定例会議、進捗確認\n・午後: 資料作成、レビュー対応\n"
+            + "所感: 予定どおり進んでいる。明日は残りの課題に着手する。\n";
+
+    private final Options options;
+    private final String jdbcUrl;
+
+    /**
+     * 日報の人気順位→日報id(順位が高い日報を特定の従業員に偏らせないため並べ替える)
+     */
+    private int[] reportByRank;
+
+    /**
+     * 投入したいいねの件数
+     */
+    private int likeCount;
+
+    Seeder(Options options, String jdbcUrl) {
+        this.options = options;
+        this.jdbcUrl = jdbcUrl;
+    }
+
+    /**
+     * 従業員・日報・いいねを投入する
+     * @param pepper アプリのpepper文字列(パスワードのハッシュ化に使う)
+     * @throws SQLException
+     */
+    void seed(String pepper) throws SQLException {
+        Random random = new Random(options.seed);
+        try (Connection con = DriverManager.getConnection(jdbcUrl, "sa", "")) {
+            con.setAutoCommit(false);
+            insertEmployees(con, pepper);
+            insertReports(con, random);
+            insertLikes(con, random);
+            //以降アプリから登録するデータのidが重複しないように採番を進める
+            try (Statement st = con.createStatement()) {
+                st.execute("ALTER TABLE employees ALTER COLUMN id RESTART WITH " + (options.employees + 1));
+                st.execute("ALTER TABLE reports ALTER COLUMN id RESTART WITH " + (reportCount() + 1));
+                st.execute("ALTER TABLE likes ALTER COLUMN id RESTART WITH " + (likeCount + 1));
+            }
+            con.commit();
+        }
+    }
+
+    /**
+     * 社員番号
+     * @param employeeId 従業員id(1始まり)
+     * @return 社員番号
+     */
+    static String code(int employeeId) {
+        return String.format("E%06d", employeeId);
+    }
+
+    /**
+     * 人気順位に該当する日報のid
+     * @param rank 順位
+     * @return 日報id
+     */
+    int reportId(int rank) {
+        return reportByRank[rank];
+    }
+
+    /**
+     * 投入した日報の件数
+     * @return 件数
+     */
+    int reportCount() {
+        return options.employees * options.reports;
+    }
+
+    private void insertEmployees(Connection con, String pepper) throws SQLException {
+        String hash = hash(PASSWORD + pepper);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try (PreparedStatement ps = con.prepareStatement(
+                "INSERT INTO employees (id, code, name, password, admin_flag, created_at, updated_at, delete_flag, version)"
+                        + " VALUES (?, ?, ?, ?, ?, ?, ?, 0, 0)")) {
+            for (int id = 1; id <= options.employees; id++) {
+                ps.setInt(1, id);
+                ps.setString(2, code(id));
+                ps.setString(3, "従業員" + id);
+                ps.setString(4, hash);
+                ps.setInt(5, id == 1 ? 1 : 0);
+                ps.setTimestamp(6, now);
+                ps.setTimestamp(7, now);
+                add(ps, id);
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private void insertReports(Connection con, Random random) throws SQLException {
+        LocalDate today = LocalDate.now();
+        int count = reportCount();
+        try (PreparedStatement ps = con.prepareStatement(
+                "INSERT INTO reports (id, employee_id, report_date, title, content, created_at, updated_at, version)"
+                        + " VALUES (?, ?, ?, ?, ?, ?, ?, 0)")) {
+            for (int id = 1; id <= count; id++) {
+                LocalDate date = today.minusDays(random.nextInt(365));
+                //秒が0だとLocalDateTime#toStringで秒が省略され画面の日時の書式と合わなくなるため、1〜59秒にする
+                Timestamp at = Timestamp.valueOf(date.atTime(18, random.nextInt(60), 1 + random.nextInt(59)));
+                ps.setInt(1, id);
+                ps.setInt(2, (id - 1) % options.employees + 1);
+                ps.setObject(3, date);
+                ps.setString(4, date + " の日報");
+                //圧縮を導入する前の形式(UTF-8のバイト列そのまま)で投入する
+                ps.setBytes(5, CONTENT.repeat(1 + random.nextInt(4)).getBytes(StandardCharsets.UTF_8));
+                ps.setTimestamp(6, at);
+                ps.setTimestamp(7, at);
+                add(ps, id);
+            }
+            ps.executeBatch();
+        }
+
+        //人気順位→日報idの並べ替え(Fisher-Yates)
+        reportByRank = new int[count];
+        for (int i = 0; i < count; i++) {
+            reportByRank[i] = i + 1;
+        }
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = reportByRank[i];
+            reportByRank[i] = reportByRank[j];
+            reportByRank[j] = t;
+        }
+    }
+
+    private void insertLikes(Connection con, Random random) throws SQLException {
+        Zipf zipf = new Zipf(reportCount(), options.zipf);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try (PreparedStatement ps = con.prepareStatement(
+                "INSERT INTO likes (id, employee_id, report_id, created_at) VALUES (?, ?, ?, ?)")) {
+            for (int emp = 1; emp <= options.employees; emp++) {
+                Set<Integer> liked = new HashSet<>();
+                int want = Math.min(options.likes, reportCount() - options.reports);
+                for (int attempt = 0; liked.size() < want && attempt < want * 20; attempt++) {
+                    int reportId = reportId(zipf.next(random));
+                    //自分の日報にはいいねしない
+                    if ((reportId - 1) % options.employees + 1 == emp || !liked.add(reportId)) {
+                        continue;
+                    }
+                    ps.setInt(1, ++likeCount);
+                    ps.setInt(2, emp);
+                    ps.setInt(3, reportId);
+                    ps.setTimestamp(4, now);
+                    add(ps, likeCount);
+                }
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private static void add(PreparedStatement ps, int n) throws SQLException {
+        ps.addBatch();
+        if (n % BATCH_SIZE == 0) {
+            ps.executeBatch();
+        }
+    }
+
+    /**
+     * アプリ(EncryptUtil)と同じ方法でハッシュ化する
+     */
+    private static String hash(String s) {
+        try {
+            byte[] bytes = MessageDigest.getInstance("SHA-256").digest(s.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder();
+            for (byte b : bytes) {
+                sb.append(String.format("%02X", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
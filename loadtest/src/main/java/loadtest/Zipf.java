@@ -0,0 +1,41 @@
+package loadtest;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Zipf分布に従って 0 〜 n-1 の順位を返すクラス
+ * 順位 k の出現確率は 1/(k+1)^s に比例する(少数の日報にいいね・閲覧が集中する状況を再現する)
+ */
+class Zipf {
+
+    private final double[] cdf;
+
+    /**
+     * コンストラクタ
+     * @param n 要素数
+     * @param s 指数(大きいほど上位に集中する)
+     */
+    Zipf(int n, double s) {
+        cdf = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1.0 / Math.pow(k + 1, s);
+            cdf[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cdf[k] /= sum;
+        }
+    }
+
+    /**
+     * 順位を1つ取り出す
+     * @param random 乱数
+     * @return 順位(0が最も出やすい)
+     */
+    int next(Random random) {
+        int i = Arrays.binarySearch(cdf, random.nextDouble());
+        return Math.min(i < 0 ? -i - 1 : i, cdf.length - 1);
+    }
+
+}
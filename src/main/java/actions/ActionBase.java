@@ -3,17 +3,32 @@ package actions;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.RequestDispatcher;
 import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
 
+import actions.views.EmployeeView;
 import constants.AttributeConst;
 import constants.ForwardConst;
 import constants.PropertyConst;
+import filters.CompressionFilter;
+import utils.ReadConsistency;
+import utils.StatelessSession;
+import utils.TopPageCache;
 
 /**
  *
@@ -27,6 +42,11 @@ public abstract class ActionBase {
     protected HttpServletRequest request; // Webブラウザ→JavaServletにHttpリクエストを渡す用
     protected HttpServletResponse response; // ↑のリクエストに対してレスポンス渡すよう
 
+    /**
+     * runAsyncで実行中の処理(それ以外の場合null)
+     */
+    private volatile AsyncTask asyncTask;
+
     /**
      * 初期化処理
      * サーブレットコンテキスト、リクエスト、レスポンスをクラスフィールドに設定
@@ -63,7 +83,7 @@ public abstract class ActionBase {
         try {
 
             //パラメータからcommandを取得（URLのcommand=の右辺）
-            String command = request.getParameter(ForwardConst.CMD.getValue());
+            String command = getCommand();
 
             //commandに該当するメソッドを実行する
             //（例；action=Employee command=show の場合、EmployeeActionクラスのshow()メソッドを実行する）
@@ -76,12 +96,29 @@ public abstract class ActionBase {
             //発生した例外をコンソールに表示
             e.printStackTrace();
             //commandの値が不正で実行できない場合エラー画面を呼び出し
-            forward(ForwardConst.FW_ERR_UNKNOWN);
+            commandNotFound();
 
         }
 
     }
 
+    /**
+     * 実行するメソッドの名前を取得する
+     * @return パラメータのcommandの値
+     */
+    protected String getCommand() {
+        return request.getParameter(ForwardConst.CMD.getValue());
+    }
+
+    /**
+     * commandに該当するメソッドがない場合の処理(エラー画面を表示する)
+     * @throws ServletException
+     * @throws IOException
+     */
+    protected void commandNotFound() throws ServletException, IOException {
+        forward(ForwardConst.FW_ERR_UNKNOWN);
+    }
+
     /**
      * 指定されたjspの呼び出しを行う
      * @param target 遷移先jsp画面のファイル名（拡張子を含まない）
@@ -128,7 +165,17 @@ public abstract class ActionBase {
         //パラメータからtokenの値を取得
         String _token = getRequestParam(AttributeConst.TOKEN);
 
-        if(_token == null || !(_token.equals(getTokenId()))) {
+        boolean valid;
+        StatelessSession stateless = getStatelessSession();
+        if (stateless.isEnabled()) {
+            //ステートレスモードの場合は署名と紐づけ先(ログイン中の従業員など)を検証する
+            valid = stateless.verifyCsrf(_token, getCsrfSubject(false), now());
+        } else {
+            HttpSession session = request.getSession(false);
+            valid = _token != null && session != null && _token.equals(session.getId());
+        }
+
+        if(!valid) {
             //tokenが設定されていないまたはセッションIDと一致しない場合はエラー画面を表示
             forward(ForwardConst.FW_ERR_UNKNOWN);
 
@@ -139,14 +186,126 @@ public abstract class ActionBase {
 
     }
     /**
-     * セッションIDを取得する
-     * @return セッションID
+     * CSRF対策用トークンを取得する
+     * @return セッションID(ステートレスモードの場合は署名付きトークン)
      */
 
     protected String getTokenId() {
+        StatelessSession stateless = getStatelessSession();
+        if (stateless.isEnabled()) {
+            return stateless.issueCsrf(getCsrfSubject(true), now());
+        }
         return request.getSession().getId(); //Webサーバが割り当てるID（乱数で生成される）をServletでgetしてセッションIDとして登録
     }
 
+    /**
+     * ステートレスモードでCSRF対策トークンを紐づける対象を取得する
+     * ログイン中は従業員id、未ログインの場合はCookieに設定した乱数
+     * @param create Cookieに乱数がない場合に作成するかどうか
+     * @return 紐づける対象 ない場合null
+     */
+    private String getCsrfSubject(boolean create) {
+        EmployeeView ev = getLoginEmployee();
+        if (ev != null) {
+            return "e" + ev.getId();
+        }
+        String nonce = StatelessSession.getCookie(request, AttributeConst.COOKIE_CSRF.getValue());
+        if (nonce == null && create) {
+            nonce = getStatelessSession().newNonce();
+            StatelessSession.setCookie(request, response, AttributeConst.COOKIE_CSRF.getValue(), nonce, -1);
+        }
+        return nonce == null ? null : "n" + nonce;
+    }
+
+    /**
+     * ログイン中の従業員を取得する(LoginFilterでリクエストスコープに設定されている)
+     * @return ログイン中の従業員 未ログインの場合null
+     */
+    protected EmployeeView getLoginEmployee() {
+        return (EmployeeView) request.getAttribute(AttributeConst.LOGIN_EMP.getValue());
+    }
+
+    /**
+     * ログインした従業員を保持する(セッション、ステートレスモードの場合は署名付きCookie)
+     * @param ev ログインした従業員
+     */
+    protected void putLoginEmployee(EmployeeView ev) {
+        //パスワード(ハッシュ値)は保持しない
+        ev.setPassword(null);
+
+        StatelessSession stateless = getStatelessSession();
+        if (stateless.isEnabled()) {
+            StatelessSession.setCookie(request, response, AttributeConst.COOKIE_LOGIN.getValue(),
+                    stateless.issueLogin(ev, now()), stateless.getTtl());
+        } else {
+            //セッション固定攻撃対策としてセッションIDを変更する
+            request.getSession().setAttribute(AttributeConst.LOGIN_EMP.getValue(), ev);
+            request.changeSessionId();
+        }
+    }
+
+    /**
+     * ログイン中の従業員の情報を破棄する
+     */
+    protected void removeLoginEmployee() {
+        if (getStatelessSession().isEnabled()) {
+            StatelessSession.setCookie(request, response, AttributeConst.COOKIE_LOGIN.getValue(), null, 0);
+        } else {
+            removeSessionScope(AttributeConst.LOGIN_EMP);
+        }
+    }
+
+    /**
+     * フラッシュメッセージを設定する(セッション、ステートレスモードの場合はCookie)
+     * @param message メッセージ
+     */
+    protected void putFlush(String message) {
+        if (getStatelessSession().isEnabled()) {
+            StatelessSession.setCookie(request, response, AttributeConst.COOKIE_FLUSH.getValue(),
+                    URLEncoder.encode(message, StandardCharsets.UTF_8), -1);
+        } else {
+            putSessionScope(AttributeConst.FLUSH, message);
+        }
+    }
+
+    /**
+     * フラッシュメッセージが設定されている場合はリクエストスコープに移し替え、設定元からは削除する
+     */
+    protected void moveFlushToRequest() {
+        String flush;
+        if (getStatelessSession().isEnabled()) {
+            String cookie = StatelessSession.getCookie(request, AttributeConst.COOKIE_FLUSH.getValue());
+            flush = cookie == null ? null : URLDecoder.decode(cookie, StandardCharsets.UTF_8);
+            if (flush != null) {
+                StatelessSession.setCookie(request, response, AttributeConst.COOKIE_FLUSH.getValue(), null, 0);
+            }
+        } else {
+            flush = getSessionScope(AttributeConst.FLUSH);
+            if (flush != null) {
+                removeSessionScope(AttributeConst.FLUSH);
+            }
+        }
+        if (flush != null) {
+            putRequestScope(AttributeConst.FLUSH, flush);
+        }
+    }
+
+    /**
+     * ステートレスモードの処理を行うインスタンスを取得する(LoginFilterの初期化時に作成される)
+     * @return StatelessSessionのインスタンス
+     */
+    protected StatelessSession getStatelessSession() {
+        return getContextScope(PropertyConst.STATELESS_SESSION);
+    }
+
+    /**
+     * 現在時刻(エポック秒)を取得する
+     * @return 現在時刻
+     */
+    private static long now() {
+        return System.currentTimeMillis() / 1000;
+    }
+
     /**
      * リクエストから表示を要求されているページ数を取得し、返却する
      * @return 要求されているページ数(要求がない場合は1)
@@ -160,6 +319,14 @@ public abstract class ActionBase {
         return page;
     }
 
+    /**
+     * リクエストから、日報の一覧で最近の期間より前の日報(以前の日報)の表示を要求されているかどうかを取得する
+     * @return true: 以前の日報を表示する false: 最近の日報を表示する(要求がない場合)
+     */
+    protected boolean isOlderRequested() {
+        return "1".equals(request.getParameter(AttributeConst.OLDER.getValue()));
+    }
+
     /**
      * 文字列を数値に変換する
      * @param strNumber 変換前文字列
@@ -200,6 +367,16 @@ public abstract class ActionBase {
         return request.getParameter(key.getValue());
     }
 
+    /**
+     * リクエストパラメータから、同じ名前のパラメータの値をすべて取得する
+     * @param key パラメータ名
+     * @return パラメータの値の配列 パラメータがない場合は空の配列
+     */
+    protected String[] getRequestParams(AttributeConst key) {
+        String[] values = request.getParameterValues(key.getValue());
+        return values == null ? new String[0] : values;
+    }
+
     /**
      * リクエストスコープにパラメータを設定する
      * @param key パラメータ名
@@ -217,7 +394,9 @@ public abstract class ActionBase {
      */
     @SuppressWarnings("unchecked")
     protected <R> R getSessionScope(AttributeConst key) {
-        return (R) request.getSession().getAttribute(key.getValue());
+        //セッションがない場合は作成せずにnullを返す
+        HttpSession session = request.getSession(false);
+        return session == null ? null : (R) session.getAttribute(key.getValue());
     }
 
     /**
@@ -234,7 +413,10 @@ public abstract class ActionBase {
      * @param key パラメータ名
      */
     protected void removeSessionScope(AttributeConst key) {
-        request.getSession().removeAttribute(key.getValue());
+        HttpSession session = request.getSession(false);
+        if (session != null) {
+            session.removeAttribute(key.getValue());
+        }
     }
 
     /**
@@ -246,4 +428,180 @@ public abstract class ActionBase {
     protected <R> R getContextScope(PropertyConst key) {
         return (R) context.getAttribute(key.getValue());
     }
-    }
\ No newline at end of file
+
+    /**
+     * 従業員のトップページのキャッシュを削除する(従業員の日報の一覧の内容が変わった場合に呼び出す)
+     * @param employeeId 従業員id
+     */
+    protected void invalidateTopPage(int employeeId) {
+        TopPageCache cache = getContextScope(PropertyConst.TOP_PAGE_CACHE);
+        if (cache != null) {
+            cache.invalidate(employeeId);
+        }
+    }
+
+    /**
+     * runAsyncで実行する処理
+     */
+    @FunctionalInterface
+    protected interface AsyncWork {
+        void run() throws ServletException, IOException;
+    }
+
+    /**
+     * 時間のかかる処理(エクスポート等)を専用のスレッドプールで実行し、コンテナのスレッドを解放する
+     * ・処理はこのActionインスタンスのまま別スレッドで実行されるため、request・response・ログイン中の従業員情報等はそのまま使える
+     *   (process()で作成したサービスは呼び出し元に戻った時点で閉じられるため、処理の中で作成して閉じること)
+     * ・timeoutを超えた場合は503を返し、クライアントが切断した場合はそのまま終了する
+     *   どちらの場合も処理中のスレッドに割り込みをかけるため、繰り返し処理では isAsyncCancelled() を確認すること
+     * ・スレッドプールがない場合(AsyncExecutorListenerが未登録)や、仮想スレッドモードで既に非同期処理中の場合はそのまま実行する
+     * @param timeout 時間制限(ミリ秒)
+     * @param work 処理
+     * @throws ServletException
+     * @throws IOException
+     */
+    protected void runAsync(long timeout, AsyncWork work) throws ServletException, IOException {
+        ExecutorService executor = getContextScope(PropertyConst.ASYNC_EXECUTOR);
+        if (executor == null || request.isAsyncStarted() || !request.isAsyncSupported()) {
+            work.run();
+            return;
+        }
+
+        AsyncContext async = request.startAsync();
+        async.setTimeout(timeout);
+        AsyncTask task = new AsyncTask(async, work);
+        async.addListener(task);
+        asyncTask = task;
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            //スレッドプールが埋まっている(または停止中)場合は、待たせずに503を返す
+            task.complete(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        }
+    }
+
+    /**
+     * runAsyncで実行中の処理が、時間切れ・クライアントの切断により中止されたかどうか
+     * @return true: 中止された(以降はレスポンスに書き込まないこと) false: 継続してよい
+     */
+    protected boolean isAsyncCancelled() {
+        AsyncTask task = asyncTask;
+        return task != null && task.cancelled.get();
+    }
+
+    /**
+     * runAsyncの処理を実行し、非同期処理の完了・時間切れ・エラーを扱うクラス
+     * 非同期処理の完了(AsyncContext.complete)は、処理の終了と時間切れ等のうち先に起きた側で1回だけ行う
+     */
+    private class AsyncTask implements Runnable, AsyncListener {
+
+        private final AsyncContext async;
+        private final AsyncWork work;
+
+        //呼び出し元のリクエストのクライアントが最後に書き込んだ時刻(処理の中で作成するサービスに渡す)
+        private final ReadConsistency consistency = ReadConsistency.current();
+
+        //時間切れ・クライアントの切断により中止されたかどうか
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        //非同期処理を完了したかどうか
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        /**
+         * 処理を実行中のスレッド(中止時の割り込み先)
+         */
+        private Thread runner;
+
+        AsyncTask(AsyncContext async, AsyncWork work) {
+            this.async = async;
+            this.work = work;
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (cancelled.get()) {
+                    //実行待ちの間に中止された
+                    return;
+                }
+                runner = Thread.currentThread();
+            }
+            int status = 0;
+            ReadConsistency.bind(consistency);
+            try {
+                work.run();
+            } catch (Exception e) {
+                if (!cancelled.get()) {
+                    context.log("async action failed: " + request.getQueryString(), e);
+                    status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+                }
+            } finally {
+                ReadConsistency.bind(null);
+                synchronized (this) {
+                    runner = null;
+                    //中止時の割り込みを、スレッドプールの次の処理に持ち越さない
+                    Thread.interrupted();
+                }
+                if (status == 0 && !cancelled.get()) {
+                    //complete()の後はレスポンスに書き込めることが保証されないため、圧縮を書き込んだスレッドで終了してから完了する
+                    //(中止された場合は既に完了しているため書き込まない)
+                    try {
+                        CompressionFilter.finish(response);
+                    } catch (IOException | IllegalStateException e) {
+                        //クライアントが切断済み
+                    }
+                }
+                complete(status);
+            }
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            cancel();
+            complete(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            //クライアントの切断等(レスポンスは返せないため終了するだけ)
+            cancel();
+            complete(0);
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+
+        /**
+         * 処理を中止し、実行中のスレッドに割り込みをかける
+         */
+        private synchronized void cancel() {
+            cancelled.set(true);
+            if (runner != null) {
+                runner.interrupt();
+            }
+        }
+
+        /**
+         * 非同期処理を完了する(2回目以降は何もしない)
+         * @param status エラーの場合のステータスコード(0の場合はそのまま完了する)
+         */
+        private void complete(int status) {
+            if (!completed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                if (status != 0 && !response.isCommitted()) {
+                    response.sendError(status);
+                }
+            } catch (IOException | IllegalStateException e) {
+                //クライアントが切断済み
+            } finally {
+                async.complete();
+            }
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package actions;
+
+import java.io.IOException;
+import java.util.EnumSet;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
+
+import actions.views.EmployeeView;
+import actions.views.ReportView;
+import constants.AttributeConst;
+import constants.JpaConst;
+import filters.RouteTable;
+import services.EmployeeService;
+import services.ReportService;
+import utils.JsonWriter;
+
+/**
+ * JSON APIの処理を行うActionクラス
+ * /api/コマンド名 のURLで呼び出す(ログイン・権限のチェックは画面と同じくLoginFilterで行う)
+ *   /api/reports?employee=従業員id&cursor=カーソル&limit=件数&fields=項目名,...  日報の一覧(idの降順)
+ *   /api/report?id=日報id&fields=項目名,...  日報の詳細
+ *   /api/employee?id=従業員id または ?code=社員番号  従業員(管理者のみ)
+ *   /api/likes?id=日報id  いいねの件数と、ログイン中の従業員がいいね済みかどうか
+ * 一覧の next_cursor を cursor に指定すると続きを取得できる(続きがない場合はnull)
+ */
+public class ApiAction extends ActionBase {
+
+    /**
+     * 一覧の1回あたりの件数の初期値・上限
+     */
+    private static final int DEFAULT_LIMIT = JpaConst.ROW_PER_PAGE;
+    private static final int MAX_LIMIT = 100;
+
+    /**
+     * 日報の項目(fieldsで指定する名前)
+     */
+    private enum ReportField {
+        ID("id"),
+        EMPLOYEE_ID("employee_id"),
+        EMPLOYEE_NAME("employee_name"),
+        REPORT_DATE("report_date"),
+        TITLE("title"),
+        CONTENT("content"),
+        CREATED_AT("created_at"),
+        UPDATED_AT("updated_at");
+
+        private final String text;
+
+        private ReportField(String text) {
+            this.text = text;
+        }
+
+        private void write(JsonWriter w, ReportView rv) {
+            w.name(text);
+            switch (this) {
+            case ID:
+                w.value(rv.getId());
+                break;
+            case EMPLOYEE_ID:
+                w.value(rv.getEmployee().getId());
+                break;
+            case EMPLOYEE_NAME:
+                w.value(rv.getEmployee().getName());
+                break;
+            case REPORT_DATE:
+                w.value(rv.getReportDate());
+                break;
+            case TITLE:
+                w.value(rv.getTitle());
+                break;
+            case CONTENT:
+                w.value(rv.getContent());
+                break;
+            case CREATED_AT:
+                w.value(rv.getCreatedAt());
+                break;
+            case UPDATED_AT:
+                w.value(rv.getUpdatedAt());
+                break;
+            }
+        }
+
+        private static ReportField of(String text) {
+            for (ReportField f : values()) {
+                if (f.text.equals(text)) {
+                    return f;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 一覧で返す項目の初期値(本文は含めない)
+     */
+    private static final EnumSet<ReportField> LIST_FIELDS = EnumSet.complementOf(EnumSet.of(ReportField.CONTENT));
+
+    private ReportService service;
+
+    /**
+     * メソッドを実行する
+     */
+    @Override
+    public void process() throws ServletException, IOException {
+
+        service = new ReportService();
+
+        //メソッドを実行
+        invoke();
+
+        service.close();
+    }
+
+    /**
+     * パス(/api/コマンド名)から実行するメソッドの名前を取得する
+     */
+    @Override
+    protected String getCommand() {
+        return RouteTable.apiCommand(request.getPathInfo());
+    }
+
+    /**
+     * 該当するメソッドがない場合は404を返す
+     */
+    @Override
+    protected void commandNotFound() throws IOException {
+        error(HttpServletResponse.SC_NOT_FOUND, "not found");
+    }
+
+    /**
+     * 日報の一覧を返す(取得した行を1件ずつそのまま出力する)
+     */
+    public void reports() throws IOException {
+
+        EnumSet<ReportField> fields = getFields(LIST_FIELDS);
+        int limit = getParam(AttributeConst.API_LIMIT, DEFAULT_LIMIT);
+        int cursor = getParam(AttributeConst.API_CURSOR, Integer.MAX_VALUE);
+        int employeeId = getParam(AttributeConst.API_EMPLOYEE, 0);
+
+        if (fields == null || limit < 1 || limit > MAX_LIMIT || cursor < 1 || employeeId < 0) {
+            error(HttpServletResponse.SC_BAD_REQUEST, "invalid parameter");
+            return;
+        }
+
+        JsonWriter w = startJson(HttpServletResponse.SC_OK);
+        w.beginObject().name("reports").beginArray();
+
+        //次のカーソル(最後に出力した日報のid)
+        int[] last = { 0 };
+        int count = service.forEachBefore(employeeId == 0 ? null : employeeId, cursor, limit,
+                fields.contains(ReportField.CONTENT), rv -> {
+            writeReport(w, rv, fields);
+            last[0] = rv.getId();
+        });
+
+        //件数ちょうどの場合は続きがあるものとする(続きが0件の場合は次の応答が空になる)
+        w.endArray().name("next_cursor").value(count == limit ? (Integer) last[0] : null).endObject();
+    }
+
+    /**
+     * 日報の詳細を返す
+     */
+    public void report() throws IOException {
+
+        EnumSet<ReportField> fields = getFields(EnumSet.allOf(ReportField.class));
+        if (fields == null) {
+            error(HttpServletResponse.SC_BAD_REQUEST, "invalid parameter");
+            return;
+        }
+
+        ReportView rv = service.findOne(toNumber(getRequestParam(AttributeConst.REP_ID)));
+        if (rv == null) {
+            error(HttpServletResponse.SC_NOT_FOUND, "not found");
+            return;
+        }
+        writeReport(startJson(HttpServletResponse.SC_OK), rv, fields);
+    }
+
+    /**
+     * 従業員を返す(パスワードは含めない)
+     */
+    public void employee() throws IOException {
+
+        EmployeeView ev;
+        try (EmployeeService employeeService = new EmployeeService()) {
+            String code = getRequestParam(AttributeConst.EMP_CODE);
+            ev = code != null
+                    ? employeeService.findOne(code)
+                    : employeeService.findOne(toNumber(getRequestParam(AttributeConst.EMP_ID)));
+        }
+        if (ev == null) {
+            error(HttpServletResponse.SC_NOT_FOUND, "not found");
+            return;
+        }
+
+        startJson(HttpServletResponse.SC_OK).beginObject()
+                .name("id").value(ev.getId())
+                .name("code").value(ev.getCode())
+                .name("name").value(ev.getName())
+                .name("admin_flag").value(ev.getAdminFlag())
+                .name("delete_flag").value(ev.getDeleteFlag())
+                .name("created_at").value(ev.getCreatedAt())
+                .name("updated_at").value(ev.getUpdatedAt())
+                .endObject();
+    }
+
+    /**
+     * 日報のいいねの件数と、ログイン中の従業員がいいね済みかどうかを返す
+     */
+    public void likes() throws IOException {
+
+        int reportId = toNumber(getRequestParam(AttributeConst.REP_ID));
+        if (reportId < 1) {
+            error(HttpServletResponse.SC_BAD_REQUEST, "invalid parameter");
+            return;
+        }
+
+        long count = service.likeCount(reportId);
+        boolean liked = service.isLiked(getLoginEmployee().getId(), reportId);
+
+        startJson(HttpServletResponse.SC_OK).beginObject()
+                .name("report_id").value(reportId)
+                .name("count").value(count)
+                .name("liked").value(liked)
+                .endObject();
+    }
+
+    /**
+     * 日報を指定された項目のみ出力する
+     */
+    private static void writeReport(JsonWriter w, ReportView rv, EnumSet<ReportField> fields) {
+        w.beginObject();
+        for (ReportField f : fields) {
+            f.write(w, rv);
+        }
+        w.endObject();
+    }
+
+    /**
+     * パラメータのfields(カンマ区切りの項目名)を取得する
+     * @param defaults 指定がない場合の項目
+     * @return 項目 不明な項目名が含まれる場合null
+     */
+    private EnumSet<ReportField> getFields(EnumSet<ReportField> defaults) {
+        String param = getRequestParam(AttributeConst.API_FIELDS);
+        if (param == null || param.isEmpty()) {
+            return defaults;
+        }
+        EnumSet<ReportField> fields = EnumSet.noneOf(ReportField.class);
+        for (String name : param.split(",")) {
+            ReportField f = ReportField.of(name.trim());
+            if (f == null) {
+                return null;
+            }
+            fields.add(f);
+        }
+        return fields;
+    }
+
+    /**
+     * 数値のパラメータを取得する
+     * @param key パラメータ名
+     * @param defaultValue 指定がない場合の値
+     * @return 値 数値でない場合Integer.MIN_VALUE
+     */
+    private int getParam(AttributeConst key, int defaultValue) {
+        String param = getRequestParam(key);
+        return param == null || param.isEmpty() ? defaultValue : toNumber(param);
+    }
+
+    /**
+     * JSONのレスポンスを開始する
+     * @param status ステータスコード
+     * @return 出力先
+     */
+    private JsonWriter startJson(int status) throws IOException {
+        response.setStatus(status);
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-store");
+        return new JsonWriter(response.getWriter());
+    }
+
+    /**
+     * エラーを返す
+     * @param status ステータスコード
+     * @param message エラーの内容
+     */
+    private void error(int status, String message) throws IOException {
+        startJson(status).beginObject().name("error").value(message).endObject();
+    }
+
+}
@@ -44,11 +44,7 @@ public class AuthAction extends ActionBase{
         putRequestScope(AttributeConst.TOKEN,getTokenId());
 
         //セッションにフラッシュメッセージが設定されている場合はリクエストスコープに設定する
-        String flush =getSessionScope(AttributeConst.FLUSH);
-        if(flush != null) {
-            putRequestScope(AttributeConst.FLUSH,flush);
-            removeSessionScope(AttributeConst.FLUSH);
-        }
+        moveFlushToRequest();
 
         //ログイン画面を表示
         forward(ForwardConst.FW_LOGIN);
@@ -79,9 +75,9 @@ public class AuthAction extends ActionBase{
                 //ログインした従業員のデータを取得
                 EmployeeView ev = service.findOne(code,plainPass,pepper);
                 //セッションにログインした従業員を設定(その人のセッションなので)(セッションに居る間はログイン状態が維持される)
-                putSessionScope(AttributeConst.LOGIN_EMP,ev);
+                putLoginEmployee(ev);
                 //セッションにログイン完了のフラッシュメッセージを設定
-                putSessionScope(AttributeConst.FLUSH,MessageConst.I_LOGINED.getMessage());
+                putFlush(MessageConst.I_LOGINED.getMessage());
                 //トップページへリダイレクト
                 redirect(ForwardConst.ACT_TOP, ForwardConst.CMD_INDEX);
             }
@@ -107,10 +103,10 @@ public class AuthAction extends ActionBase{
     public void logout() throws ServletException,IOException{
 
         //セッションからログイン従業員のパラメータを削除
-        removeSessionScope(AttributeConst.LOGIN_EMP);
+        removeLoginEmployee();
 
         //セッションにログアウト時のフラッシュメッセージを追加
-        putSessionScope(AttributeConst.FLUSH,MessageConst.I_LOGOUT.getMessage());
+        putFlush(MessageConst.I_LOGOUT.getMessage());
 
         //ログイン画面にリダイレクト
         redirect(ForwardConst.ACT_AUTH, ForwardConst.CMD_SHOW_LOGIN);
@@ -58,11 +58,7 @@ public class EmployeeAction extends ActionBase {
         putRequestScope(AttributeConst.MAX_ROW, JpaConst.ROW_PER_PAGE); //1ページに表示するレコードの数
 
         //セッションにフラッシュメッセージが設定されている場合はリクエストスコープに移し替え、セッションからは削除する
-        String flush = getSessionScope(AttributeConst.FLUSH);
-        if (flush != null) {
-            putRequestScope(AttributeConst.FLUSH,flush);
-            removeSessionScope(AttributeConst.FLUSH);
-        }
+        moveFlushToRequest();
 
         //一覧画面を表示
         forward(ForwardConst.FW_EMP_INDEX);
@@ -128,7 +124,8 @@ public class EmployeeAction extends ActionBase {
                     toNumber(getRequestParam(AttributeConst.EMP_ADMIN_FLG)),
                     null,//登録日時
                     null,//更新日時
-                    AttributeConst.DEL_FLAG_FALSE.getIntegerValue());
+                    AttributeConst.DEL_FLAG_FALSE.getIntegerValue(),
+                    null);//バージョン(登録時に設定される)
             //↑これらの情報がセットされたインスタンスevが生成される
 
             //アプリケーションスコープからpepper文字列を取得
@@ -150,7 +147,7 @@ public class EmployeeAction extends ActionBase {
                 //登録中にエラーがなかった場合
 
                 //セッションに登録完了のフラッシュメッセージを設定
-                putSessionScope(AttributeConst.FLUSH,MessageConst.I_REGISTERED.getMessage());
+                putFlush(MessageConst.I_REGISTERED.getMessage());
 
                 //一覧画面（Index）にリダイレクト
                 redirect(ForwardConst.ACT_EMP,ForwardConst.CMD_INDEX);
@@ -174,7 +171,7 @@ public class EmployeeAction extends ActionBase {
             //idを条件に従業員データを取得する(→リクエストパラメータの"id="が引数→em.find()→service.findInternal()→service.findOne()から取得)
             EmployeeView ev = service.findOne(toNumber(getRequestParam(AttributeConst.EMP_ID)));
 
-            if(ev == null || ev.getDeleteFlag() == AttributeConst.DEL_FLAG_TRUE.getIntegerValue()) {
+            if(ev == null || AttributeConst.DEL_FLAG_TRUE.getIntegerValue().equals(ev.getDeleteFlag())) {
 
                 //データが取得できなかった、または論理削除されている場合はエラー画面を表示
                 forward(ForwardConst.FW_ERR_UNKNOWN);
@@ -204,7 +201,7 @@ public class EmployeeAction extends ActionBase {
             // idを条件に従業員データを取得する（）
             EmployeeView ev = service.findOne(toNumber(getRequestParam(AttributeConst.EMP_ID)));
 
-            if(ev == null || ev.getDeleteFlag() == AttributeConst.DEL_FLAG_TRUE.getIntegerValue()) {
+            if(ev == null || AttributeConst.DEL_FLAG_TRUE.getIntegerValue().equals(ev.getDeleteFlag())) {
 
                 //データが取得できなかった、または論理削除されている場合はエラー画面を表示
                 forward(ForwardConst.FW_ERR_UNKNOWN);
@@ -239,7 +236,8 @@ public class EmployeeAction extends ActionBase {
                         toNumber(getRequestParam(AttributeConst.EMP_ADMIN_FLG)),
                         null,
                         null,
-                        AttributeConst.DEL_FLAG_FALSE.getIntegerValue());
+                        AttributeConst.DEL_FLAG_FALSE.getIntegerValue(),
+                        toNumber(getRequestParam(AttributeConst.EMP_VERSION)));//編集画面を表示したときのバージョン
 
                 //アプリケーションスコープからpepper文字列を取得
                 String pepper = getContextScope(PropertyConst.PEPPER);
@@ -259,8 +257,11 @@ public class EmployeeAction extends ActionBase {
                 } else {
                     //更新中にエラーがなかった場合
 
+                    //トップページの日報一覧に表示する氏名が変わる可能性があるため、キャッシュを削除
+                    invalidateTopPage(ev.getId());
+
                     //セッションに更新完了のフラッシュメッセージを設定
-                    putSessionScope(AttributeConst.FLUSH, MessageConst.I_UPDATED.getMessage());
+                    putFlush(MessageConst.I_UPDATED.getMessage());
 
                     //一覧画面にリダイレクト
                     redirect(ForwardConst.ACT_EMP,ForwardConst.CMD_INDEX);
@@ -283,7 +284,7 @@ public class EmployeeAction extends ActionBase {
                 service.destroy(toNumber(getRequestParam(AttributeConst.EMP_ID)));
 
                 //セッションに削除完了のフラッシュメッセージを設定
-                putSessionScope(AttributeConst.FLUSH,MessageConst.I_DELETED.getMessage());
+                putFlush(MessageConst.I_DELETED.getMessage());
 
                 //一覧画面にリダイレクト
                 redirect(ForwardConst.ACT_EMP, ForwardConst.CMD_INDEX);
@@ -301,10 +302,10 @@ public class EmployeeAction extends ActionBase {
         private boolean checkAdmin() throws ServletException,IOException{
 
             //セッションからログイン中の従業員情報を取得
-            EmployeeView ev = (EmployeeView) getSessionScope(AttributeConst.LOGIN_EMP);
+            EmployeeView ev = getLoginEmployee();
 
             //管理者でなければエラー画面を表示&呼び出し元にfalseを返す
-        if(ev.getAdminFlag() != AttributeConst.ROLE_ADMIN.getIntegerValue()) {
+        if(!AttributeConst.ROLE_ADMIN.getIntegerValue().equals(ev.getAdminFlag())) {
 
             forward(ForwardConst.FW_ERR_UNKNOWN);
             return false;
@@ -314,4 +315,4 @@ public class EmployeeAction extends ActionBase {
         }
         }
 
-        }
+        }
@@ -1,23 +1,27 @@
 package actions;
 
 import java.io.IOException;
+import java.io.PrintWriter;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
 
 import javax.servlet.ServletException;
 
-import actions.views.EmployeeConverter;
 import actions.views.EmployeeView;
-import actions.views.ReportConverter;
 import actions.views.ReportView;
 import constants.AttributeConst;
 import constants.ForwardConst;
 import constants.JpaConst;
 import constants.MessageConst;
-import models.Employee;
-import models.Like;
-import models.Report;
+import constants.PropertyConst;
+import services.EmployeeService;
 import services.ReportService;
+import utils.CsvUtil;
+import utils.FragmentCache;
+import utils.ReportTrends;
 
 /**
  * 日報に関する処理を行うActionクラス
@@ -27,6 +31,15 @@ public class ReportAction extends ActionBase {
 
     private ReportService service;
 
+    //CSVエクスポートの時間制限(ミリ秒)
+    private static final long EXPORT_TIMEOUT = 60000;
+    //CSVエクスポートで1回に取得する件数
+    private static final int EXPORT_CHUNK = 500;
+    //まとめて登録する画面の入力欄の数(1回に登録できる日報の最大件数)
+    private static final int BATCH_ROWS = 7;
+    //直近1週間に注目された日報・よく見られた日報として表示する件数
+    private static final int TRENDING_ROWS = 10;
+
     /**
      * メソッドを実行する
      */
@@ -47,29 +60,186 @@ public class ReportAction extends ActionBase {
      */
     public void index() throws ServletException, IOException {
 
-        //指定されたページ数の一覧画面に表示する日報データを取得
         int page = getPage();
-        List<ReportView> reports = service.getAllPerPage(page);
 
-        //全日報データの件数を取得
-        long reportsCount = service.countAll();
+        //絞り込みの条件(日付の範囲・作成した従業員の社員番号 未入力の条件は指定しない)
+        LocalDate filterFrom = toFilterDate(getRequestParam(AttributeConst.REP_FILTER_FROM));
+        LocalDate filterTo = toFilterDate(getRequestParam(AttributeConst.REP_FILTER_TO));
+        String code = getRequestParam(AttributeConst.REP_FILTER_EMP_CODE);
+        code = (code == null || code.trim().isEmpty()) ? null : code.trim();
+        boolean filtered = filterFrom != null || filterTo != null || code != null;
+
+        //絞り込んでいない場合は最近の期間の日報を表示し、それより前の日報は「以前の日報」として別に表示する
+        //(日付の範囲を条件にするため、日報テーブルを日付で分割している場合は範囲外の分割を読まない)
+        boolean older = !filtered && isOlderRequested();
+        LocalDate since = ReportService.getRecentSince();
+        LocalDate from;
+        LocalDate to;
+        if (filtered) {
+            from = filterFrom;
+            to = filterTo == null ? null : filterTo.plusDays(1); //入力された日付を含める
+        } else {
+            from = older ? null : since;
+            to = older ? since : null;
+        }
 
-        putRequestScope(AttributeConst.REPORTS, reports); //取得した日報データ
-        putRequestScope(AttributeConst.REP_COUNT, reportsCount); //全ての日報データの件数
-        putRequestScope(AttributeConst.PAGE, page); //ページ数
-        putRequestScope(AttributeConst.MAX_ROW, JpaConst.ROW_PER_PAGE); //1ページに表示するレコードの数
+        //一覧部分は全従業員で同じ内容のため、描画結果を表示する範囲・ページ数と一覧の内容のバージョンごとにキャッシュする
+        //(絞り込んだ一覧のページのリンクは絞り込みの条件を含むため、同じ範囲になる絞り込んでいない一覧とは別にする
+        // バージョンは全サーバーで共有するDBの値のため、他のサーバーで書き込んだ後も古い描画結果は使わない
+        // 社員番号は入力された値のため、区切り文字を含んでも他のキーと重ならないよう最後に置く)
+        String key = FragmentCache.key("reports", filtered, older, from, to, page, service.getListVersion(), code);
+        FragmentCache cache = getContextScope(PropertyConst.FRAGMENT_CACHE);
+        String fragment = cache == null ? null : cache.get(key);
+
+        if (fragment == null) {
+            //キャッシュにない場合のみ、日報データを取得してJSPで描画する
+            //(描画結果は全従業員で共有し、次にバージョンが変わるまで使うため、レプリカの遅れた内容を保存しないようプライマリから取得する)
+            if (cache != null) {
+                service.readFromPrimary();
+            }
 
-        //セッションにフラッシュメッセージが設定されている場合はリクエストスコープに移し替え、セッションからは削除する
-        String flush = getSessionScope(AttributeConst.FLUSH);
-        if (flush != null) {
-            putRequestScope(AttributeConst.FLUSH, flush);
-            removeSessionScope(AttributeConst.FLUSH);
+            //指定されたページ数の一覧画面に表示する日報データを取得
+            List<ReportView> reports = service.getAllPerPage(code, from, to, page);
+
+            //表示する範囲の日報データの件数を取得
+            long reportsCount = service.countAll(code, from, to);
+
+            putRequestScope(AttributeConst.REPORTS, reports); //取得した日報データ
+            putRequestScope(AttributeConst.REP_COUNT, reportsCount); //表示する範囲の日報データの件数
+            putRequestScope(AttributeConst.PAGE, page); //ページ数
+            putRequestScope(AttributeConst.MAX_ROW, JpaConst.ROW_PER_PAGE); //1ページに表示するレコードの数
         }
+        putRequestScope(AttributeConst.REP_FILTER_FROM, filterFrom); //絞り込みの条件
+        putRequestScope(AttributeConst.REP_FILTER_TO, filterTo);
+        putRequestScope(AttributeConst.REP_FILTER_EMP_CODE, code);
+        putRequestScope(AttributeConst.REP_FILTERED, filtered);
+        putRequestScope(AttributeConst.OLDER, older); //以前の日報を表示するかどうか
+        putRequestScope(AttributeConst.RECENT_SINCE, since); //最近の期間の開始日
+        putRequestScope(AttributeConst.FRAGMENT_KEY, key);
+        putRequestScope(AttributeConst.FRAGMENT, fragment);
+
+        //セッションにフラッシュメッセージが設定されている場合はリクエストスコープに移し替え、セッションからは削除する
+        moveFlushToRequest();
 
         //一覧画面を表示
         forward(ForwardConst.FW_REP_INDEX);
     }
 
+    /**
+     * 従業員の1か月分の日報を、日ごとのいいねの件数とあわせてカレンダーで表示する
+     * (ログイン中の従業員の日報を表示する 管理者はidを指定して他の従業員の日報も表示できる)
+     * @throws ServletException
+     * @throws IOException
+     */
+    public void calendar() throws ServletException, IOException {
+
+        EmployeeView loginEmployee = getLoginEmployee();
+        EmployeeView ev = loginEmployee;
+
+        int employeeId = toNumber(getRequestParam(AttributeConst.EMP_ID));
+        if (employeeId > 0 && employeeId != loginEmployee.getId()
+                && AttributeConst.ROLE_ADMIN.getIntegerValue().equals(loginEmployee.getAdminFlag())) {
+            try (EmployeeService employeeService = new EmployeeService()) {
+                ev = employeeService.findOne(employeeId);
+            }
+        }
+        if (ev == null) {
+            //該当の従業員が存在しない場合はエラー画面を表示
+            forward(ForwardConst.FW_ERR_UNKNOWN);
+            return;
+        }
+
+        //年月の指定がない、または正しくない場合は今月を表示する
+        YearMonth month = YearMonth.now();
+        String strMonth = getRequestParam(AttributeConst.CAL_MONTH);
+        if (strMonth != null && !strMonth.isEmpty()) {
+            try {
+                month = YearMonth.parse(strMonth);
+            } catch (DateTimeParseException e) {
+                //今月を表示する
+            }
+        }
+
+        putRequestScope(AttributeConst.CALENDAR, service.getCalendar(ev, month)); //カレンダー
+
+        //カレンダー画面を表示
+        forward(ForwardConst.FW_REP_CALENDAR);
+    }
+
+    /**
+     * 直近1週間に注目された日報・よく見られた日報を表示する
+     * (閲覧数・いいねの件数はサーバーごとの集計の推定値 DBは読まない)
+     * @throws ServletException
+     * @throws IOException
+     */
+    public void trending() throws ServletException, IOException {
+
+        ReportTrends trends = getContextScope(PropertyConst.REPORT_TRENDS);
+        putRequestScope(AttributeConst.TRENDING, trends.top(TRENDING_ROWS, false)); //閲覧数・いいねの件数による点数の順
+        putRequestScope(AttributeConst.MOST_VIEWED, trends.top(TRENDING_ROWS, true)); //閲覧数の順
+
+        //注目の日報画面を表示
+        forward(ForwardConst.FW_REP_TRENDING);
+    }
+
+    /**
+     * 一覧の絞り込みの条件に入力された日付を変換する
+     * @param strDate 変換前文字列
+     * @return 変換後LocalDateインスタンス 未入力、または日付として正しくない場合はnull(条件を指定しない)
+     */
+    private static LocalDate toFilterDate(String strDate) {
+        if (strDate == null || strDate.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(strDate);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 全日報データをCSVファイルとしてダウンロードさせる
+     * 件数が多いと時間がかかるため、コンテナのスレッドを解放して専用のスレッドで出力する
+     * @throws ServletException
+     * @throws IOException
+     */
+    public void export() throws ServletException, IOException {
+
+        runAsync(EXPORT_TIMEOUT, () -> {
+            response.setContentType("text/csv; charset=UTF-8");
+            response.setHeader("Content-Disposition", "attachment; filename=\"reports.csv\"");
+
+            PrintWriter out = response.getWriter();
+            out.write('\uFEFF'); //Excelで開いたときに文字化けしないようにBOMを付ける
+            out.write(CsvUtil.line("id", "氏名", "日付", "タイトル", "内容", "登録日時", "更新日時"));
+
+            //process()のサービスは呼び出し後に閉じられるため、このスレッドで作成する
+            //最後に出力した日報のidより前の日報を、idの降順に取得する(途中で登録された日報によって重複・欠落しない)
+            try (ReportService exportService = new ReportService()) {
+                int[] last = { Integer.MAX_VALUE };
+                while (!isAsyncCancelled()) {
+                    int count = exportService.forEachBefore(null, last[0], EXPORT_CHUNK, true, rv -> {
+                        out.write(CsvUtil.line(
+                                rv.getId(),
+                                rv.getEmployee().getName(),
+                                rv.getReportDate(),
+                                rv.getTitle(),
+                                rv.getContent(),
+                                rv.getCreatedAt(),
+                                rv.getUpdatedAt()));
+                        last[0] = rv.getId();
+                    });
+                    //取得した分ずつ送信する
+                    out.flush();
+                    if (count < EXPORT_CHUNK) {
+                        break;
+                    }
+                }
+            }
+        });
+    }
+
     /**
      * 新規登録画面を表示する
      * @throws ServletException
@@ -110,7 +280,7 @@ public class ReportAction extends ActionBase {
             }
 
             //セッションからログイン中の従業員情報を取得
-            EmployeeView ev = (EmployeeView) getSessionScope(AttributeConst.LOGIN_EMP);
+            EmployeeView ev = getLoginEmployee();
 
             //パラメータの値を元に、日報情報のインスタンスを作成する
             ReportView rv = new ReportView(
@@ -120,6 +290,7 @@ public class ReportAction extends ActionBase {
                     getRequestParam(AttributeConst.REP_TITLE),
                     getRequestParam(AttributeConst.REP_CONTENT),
                     null,
+                    null,
                     null);
 
 
@@ -139,8 +310,116 @@ public class ReportAction extends ActionBase {
             } else {
                 //登録中にエラーがなかった場合
 
+                //作成者のトップページのキャッシュを削除
+                invalidateTopPage(ev.getId());
+
+                //セッションにフラッシュメッセージを設定
+                putFlush(MessageConst.I_REGISTERED.getMessage());
+
+                //一覧画面にリダイレクト
+                redirect(ForwardConst.ACT_REP,ForwardConst.CMD_INDEX);
+            }
+        }
+    }
+
+    /**
+     * 複数日の日報をまとめて登録する画面を表示する
+     * 日付は今日までの直近BATCH_ROWS日分を古い順に設定する
+     * @throws ServletException
+     * @throws IOException
+     */
+    public void batchNew() throws ServletException, IOException {
+
+        putRequestScope(AttributeConst.TOKEN, getTokenId()); //CSRF対策用トークン
+
+        List<ReportView> reports = new ArrayList<>(BATCH_ROWS);
+        LocalDate today = LocalDate.now();
+        for (int i = BATCH_ROWS - 1; i >= 0; i--) {
+            ReportView rv = new ReportView();
+            rv.setReportDate(today.minusDays(i));
+            reports.add(rv);
+        }
+        putRequestScope(AttributeConst.REPORTS, reports);
+
+        //まとめて登録する画面を表示
+        forward(ForwardConst.FW_REP_BATCH);
+    }
+
+    /**
+     * 複数日の日報をまとめて登録する
+     * タイトル・内容がどちらも空の入力欄は登録の対象外とし、1件でもエラーがある場合は1件も登録しない
+     * @throws ServletException
+     * @throws IOException
+     */
+    public void batchCreate() throws ServletException, IOException {
+
+        //CSRF対策 tokenのチェック
+        if(checkToken()) {
+
+            String[] dates = getRequestParams(AttributeConst.REP_DATE);
+            String[] titles = getRequestParams(AttributeConst.REP_TITLE);
+            String[] contents = getRequestParams(AttributeConst.REP_CONTENT);
+            int rows = Math.min(BATCH_ROWS, Math.min(dates.length, Math.min(titles.length, contents.length)));
+
+            //セッションからログイン中の従業員情報を取得
+            EmployeeView ev = getLoginEmployee();
+
+            //入力された行の値を元に、日報情報のインスタンスを作成する
+            List<ReportView> reports = new ArrayList<>(rows);
+            for (int i = 0; i < rows; i++) {
+                if (titles[i].isEmpty() && contents[i].isEmpty()) {
+                    continue;
+                }
+                //日付が正しくない場合は未設定にし、その行のバリデーションエラーにする(他の行と同じく入力欄に表示する)
+                LocalDate reportDate = null;
+                try {
+                    reportDate = toLocalDate(dates[i]);
+                } catch (DateTimeParseException e) {
+                    //未設定のまま
+                }
+                reports.add(new ReportView(
+                        null,
+                        ev,
+                        reportDate,
+                        titles[i],
+                        contents[i],
+                        null,
+                        null,
+                        null));
+            }
+
+            if (reports.isEmpty()) {
+                //入力がない場合は入力欄を表示し直す(エラーは1件目の入力欄に表示する)
+                putRequestScope(AttributeConst.ERR, List.of(List.of(MessageConst.E_NOREPORTS.getMessage())));
+                batchNew();
+                return;
+            }
+
+            //日報情報をまとめて登録(1件ずつのエラーのリスト)
+            List<List<String>> errors = service.createAll(reports);
+            boolean hasError = false;
+            for (List<String> e : errors) {
+                hasError = hasError || !e.isEmpty();
+            }
+
+            if (hasError) {
+                //登録中にエラーがあった場合は、入力された日報と日報ごとのエラーを表示する
+
+                putRequestScope(AttributeConst.TOKEN, getTokenId()); //CSRF対策用トークン
+                putRequestScope(AttributeConst.REPORTS, reports);//入力された日報情報
+                putRequestScope(AttributeConst.ERR, errors);//日報ごとのエラーのリスト
+
+                //まとめて登録する画面を再表示
+                forward(ForwardConst.FW_REP_BATCH);
+
+            } else {
+                //登録中にエラーがなかった場合
+
+                //作成者のトップページのキャッシュを削除
+                invalidateTopPage(ev.getId());
+
                 //セッションにフラッシュメッセージを設定
-                putSessionScope(AttributeConst.FLUSH,MessageConst.I_REGISTERED.getMessage());
+                putFlush(MessageConst.I_REGISTERED.getMessage());
 
                 //一覧画面にリダイレクト
                 redirect(ForwardConst.ACT_REP,ForwardConst.CMD_INDEX);
@@ -165,27 +444,27 @@ public class ReportAction extends ActionBase {
             } else {
                 putRequestScope(AttributeConst.TOKEN,getTokenId());
                 putRequestScope(AttributeConst.REPORT,rv);//取得したデータをJSPに渡す
-            }
-
 
-            //↑で取得したReportView型の日報情報をReport型にコンバート（LikeのDTO照会のため型をReportにする必要がある）
-            Report r = ReportConverter.toModel(rv);
+                EmployeeView ev = getLoginEmployee();
 
-            EmployeeView ev = (EmployeeView)getSessionScope(AttributeConst.LOGIN_EMP);
-            Employee e =EmployeeConverter.toModel(ev);
+                //その日報にすでにいいねしているか検索した結果をLikeアイコンのリンクを分岐させるためにShowビューに渡す
+                Boolean lc = service.isLiked(ev.getId(), rv.getId());
+                putRequestScope(AttributeConst.LIKE_CHECK,lc);
 
-            //その日報にすでにいいねしているか検索した結果をLikeアイコンのリンクを分岐させるためにShowビューに渡す
-            Boolean lc = service.isLiked(e, r);
-            putRequestScope(AttributeConst.LIKE_CHECK,lc);
+                //その日報のいいねデータの件数を取得
+                long likeCount = service.likeCount(rv.getId());
 
-            //その日報のいいねデータの件数を取得
-            long likeCount = service.countAllMine(r);
-
-            putRequestScope(AttributeConst.LIKE_COUNT,likeCount);//日報のいいね数
+                putRequestScope(AttributeConst.LIKE_COUNT,likeCount);//日報のいいね数
 
+                //閲覧を集計する(カウンタを増やすだけでロックしない)
+                ReportTrends trends = getContextScope(PropertyConst.REPORT_TRENDS);
+                if (trends != null) {
+                    trends.recordView(rv);
+                }
 
                 //詳細画面を表示
                 forward(ForwardConst.FW_REP_SHOW);
+            }
 
             }
 
@@ -202,9 +481,9 @@ public class ReportAction extends ActionBase {
             ReportView rv = service.findOne(toNumber(getRequestParam(AttributeConst.REP_ID)));
 
             //セッションからログイン中の従業員情報を取得
-            EmployeeView ev =(EmployeeView)getSessionScope(AttributeConst.LOGIN_EMP);
+            EmployeeView ev =getLoginEmployee();
 
-            if(rv == null || ev.getId() != rv.getEmployee().getId()) {
+            if(rv == null || !ev.getId().equals(rv.getEmployee().getId())) {
                 //該当の日報データが存在しない、または
                 //ログインしている従業員が日報の作成者ではない場合はエラー画面を表示
                 forward(ForwardConst.FW_ERR_UNKNOWN);
@@ -231,19 +510,28 @@ public class ReportAction extends ActionBase {
             //CSRF対策 tokenのチェック
             if(checkToken()) {
 
-                //idを条件に日報データを取得する
-                ReportView rv = service.findOne(toNumber(getRequestParam(AttributeConst.REP_ID)));
-
-                //入力された日報内容を設定する
-                rv.setReportDate(toLocalDate(getRequestParam(AttributeConst.REP_DATE)));
-                rv.setTitle(getRequestParam(AttributeConst.REP_TITLE));
-                rv.setContent(getRequestParam(AttributeConst.REP_CONTENT));
+                //パラメータの値を元に、日報情報のインスタンスを作成する(更新前のデータは取得しない)
+                //作成者はログイン中の従業員とし、作成者以外の日報・編集画面の表示後に更新された日報は更新されない
+                ReportView rv = new ReportView(
+                        toNumber(getRequestParam(AttributeConst.REP_ID)),
+                        getLoginEmployee(),
+                        toLocalDate(getRequestParam(AttributeConst.REP_DATE)),
+                        getRequestParam(AttributeConst.REP_TITLE),
+                        getRequestParam(AttributeConst.REP_CONTENT),
+                        null,
+                        null,
+                        toNumber(getRequestParam(AttributeConst.REP_VERSION)));
 
                 //日報データを更新する
                 List<String> errors = service.update(rv);
 
-                if(errors.size() > 0) {
-                    //更新中にエラーが発生した場合
+                if (errors == null) {
+                    //該当の日報データが存在しない、または
+                    //ログインしている従業員が日報の作成者ではない場合はエラー画面を表示
+                    forward(ForwardConst.FW_ERR_UNKNOWN);
+
+                } else if(errors.size() > 0) {
+                    //更新中にエラーが発生した場合(他の更新と競合した場合は、現在のバージョンで再度更新できる)
 
                     putRequestScope(AttributeConst.TOKEN,getTokenId());
                     putRequestScope(AttributeConst.REPORT,rv);//入力された日報情報
@@ -255,8 +543,11 @@ public class ReportAction extends ActionBase {
                 } else {
                     //更新中にエラーがなかった場合
 
+                    //作成者のトップページのキャッシュを削除
+                    invalidateTopPage(rv.getEmployee().getId());
+
                     //セッションに更新完了のフラッシュメッセージを設定
-                    putSessionScope(AttributeConst.FLUSH,MessageConst.I_UPDATED.getMessage());
+                    putFlush(MessageConst.I_UPDATED.getMessage());
 
                     //一覧画面にリダイレクト
                     redirect(ForwardConst.ACT_REP,ForwardConst.CMD_INDEX);
@@ -275,27 +566,21 @@ public class ReportAction extends ActionBase {
         public void likeCreate() throws ServletException,IOException{
             if(checkToken()){
 
-                //日報idを条件に日報データを取得する
-                ReportView rv= service.findOne(toNumber(getRequestParam(AttributeConst.REP_ID)));
-                //↑で取得したReportView型の日報情報をReport型にコンバート
-                Report r = ReportConverter.toModel(rv);
-
-                //ログイン従業員（いいねする人）の情報も取得してEmployee型にコンバート
-                EmployeeView ev = (EmployeeView)getSessionScope(AttributeConst.LOGIN_EMP);
-                Employee e =EmployeeConverter.toModel(ev);
-
+                //日報idとログイン従業員（いいねする人）のidを取得する
+                int reportId = toNumber(getRequestParam(AttributeConst.REP_ID));
+                EmployeeView ev = getLoginEmployee();
 
-                //DTOモデルのLike経由でDBにいいね情報を登録
-                Like l = new Like(
-                null,
-                e,
-                r,
-                null);
+                //idを元にDBにいいね情報を登録
+                service.likeCreate(ev.getId(), reportId);
 
-            service.likeCreate(l);
+                //いいねを集計する(解除は集計から除かない)
+                ReportTrends trends = getContextScope(PropertyConst.REPORT_TRENDS);
+                if (trends != null) {
+                    trends.recordLike(reportId);
+                }
 
             //日報のshowビューにリダイレクト
-            response.sendRedirect(request.getContextPath() + "?action=" + ForwardConst.ACT_REP.getValue() + "&command=" + ForwardConst.CMD_SHOW.getValue() +"&id=" + rv.getId());
+            response.sendRedirect(request.getContextPath() + "?action=" + ForwardConst.ACT_REP.getValue() + "&command=" + ForwardConst.CMD_SHOW.getValue() +"&id=" + reportId);
 
 
     }
@@ -307,21 +592,15 @@ public class ReportAction extends ActionBase {
              */
             public void likeDestroy() throws ServletException,IOException{
                 if(checkToken()){
-                //日報idを条件に日報データを取得する
-                ReportView rv= service.findOne(toNumber(getRequestParam(AttributeConst.REP_ID)));
-                //↑で取得したReportView型の日報情報をReport型にコンバート
-                Report r = ReportConverter.toModel(rv);
-
-                //ログイン従業員（いいねする人）の情報も取得してEmployee型にコンバート
-                EmployeeView ev = (EmployeeView)getSessionScope(AttributeConst.LOGIN_EMP);
-                Employee e =EmployeeConverter.toModel(ev);
-
-                Like l = service.likeFind(e, r);
+                //日報idとログイン従業員（いいねした人）のidを取得する
+                int reportId = toNumber(getRequestParam(AttributeConst.REP_ID));
+                EmployeeView ev = getLoginEmployee();
 
-                service.likeDestroy(l);
+                //idを条件にいいね情報を削除
+                service.likeDestroy(ev.getId(), reportId);
 
               //日報のshowビューにリダイレクト
-                response.sendRedirect(request.getContextPath() + "?action=" + ForwardConst.ACT_REP.getValue() + "&command=" + ForwardConst.CMD_SHOW.getValue() +"&id=" + rv.getId());
+                response.sendRedirect(request.getContextPath() + "?action=" + ForwardConst.ACT_REP.getValue() + "&command=" + ForwardConst.CMD_SHOW.getValue() +"&id=" + reportId);
 
                 }
 
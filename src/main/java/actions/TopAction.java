@@ -1,6 +1,7 @@
 package actions;
 
 import java.io.IOException;
+import java.time.LocalDate;
 import java.util.List;
 
 import javax.servlet.ServletException;
@@ -10,7 +11,9 @@ import actions.views.ReportView;
 import constants.AttributeConst;
 import constants.ForwardConst;
 import constants.JpaConst;
+import constants.PropertyConst;
 import services.ReportService;
+import utils.TopPageCache;
 
 /**
  * トップページに関する処理を行うActionクラス
@@ -42,27 +45,50 @@ public class TopAction extends ActionBase{
     public void index() throws ServletException, IOException{
 
         //セッションからログイン中の従業員情報を取得（ログインメソッドで置いている）
-        EmployeeView loginEmployee = (EmployeeView) getSessionScope(AttributeConst.LOGIN_EMP);
+        EmployeeView loginEmployee = getLoginEmployee();
 
-        //ログイン中の従業員が作成した日報データを指定されたページ数の一覧画面を表示する分取得する
         int page = getPage();
-        List<ReportView> reports = service.getMinePerPage(loginEmployee,page);
-
-        //ログイン中の従業員が作成した日報データの件数を取得
-        long myReportCount = service.countAllMine(loginEmployee);
+        List<ReportView> reports;
+        long myReportCount;
+
+        //最近の期間の日報を表示し、それより前の日報は「以前の日報」として別に表示する
+        boolean older = isOlderRequested();
+        LocalDate since = ReportService.getRecentSince();
+        LocalDate from = older ? null : since;
+        LocalDate to = older ? since : null;
+
+        //最近の日報の1ページ目はログイン・リダイレクトのたびに表示されるため、従業員ごとにキャッシュする
+        //(日報の登録・更新時にReportActionで削除される 日付が変わり最近の期間が変わった場合は取得し直す)
+        TopPageCache cache = getContextScope(PropertyConst.TOP_PAGE_CACHE);
+        boolean cacheable = cache != null && page == 1 && !older;
+        TopPageCache.Page cached = cacheable ? cache.get(loginEmployee.getId(), since) : null;
+
+        if (cached != null) {
+            reports = cached.getReports();
+            myReportCount = cached.getCount();
+        } else {
+            long generation = cache != null ? cache.generation() : 0;
+
+            //ログイン中の従業員が作成した日報データを指定されたページ数の一覧画面を表示する分取得する
+            reports = service.getMinePerPage(loginEmployee.getId(), from, to, page);
+
+            //ログイン中の従業員が作成した、表示する期間の日報データの件数を取得
+            myReportCount = service.countAllMine(loginEmployee.getId(), from, to);
+
+            if (cacheable) {
+                cache.put(loginEmployee.getId(), new TopPageCache.Page(reports, myReportCount, since), generation);
+            }
+        }
 
         putRequestScope(AttributeConst.REPORTS,reports);//取得した日報データ
         putRequestScope(AttributeConst.REP_COUNT,myReportCount);//ログイン中の従業員が作成した日報の数
         putRequestScope(AttributeConst.PAGE,page);//ページ数
+        putRequestScope(AttributeConst.OLDER,older);//以前の日報を表示するかどうか
+        putRequestScope(AttributeConst.RECENT_SINCE,since);//最近の期間の開始日
         putRequestScope(AttributeConst.MAX_ROW,JpaConst.ROW_PER_PAGE);//1ページに表示するレコードの数
 
         //セッションにフラッシュメッセージが設定されている場合はリクエストスコープに移し替え、セッションからは削除する
-        String flush = getSessionScope(AttributeConst.FLUSH);
-
-        if (flush != null) {
-            putRequestScope(AttributeConst.FLUSH,flush);
-            removeSessionScope(AttributeConst.FLUSH);
-        }
+        moveFlushToRequest();
 
         //一覧画面を表示
         forward(ForwardConst.FW_TOP_INDEX);
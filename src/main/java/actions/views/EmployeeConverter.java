@@ -6,6 +6,7 @@ import java.util.List;
 import constants.AttributeConst;
 import constants.JpaConst;
 import models.Employee;
+import utils.EmployeeSummaryCache;
 
 
 /**
@@ -14,6 +15,20 @@ import models.Employee;
  */
 
 public class EmployeeConverter {
+
+    /**
+     * 日報の作成者として表示する従業員の概要のキャッシュ(CacheListenerで設定する nullの場合はキャッシュしない)
+     */
+    private static volatile EmployeeSummaryCache summaryCache;
+
+    /**
+     * 従業員の概要のキャッシュを設定する
+     * @param cache キャッシュ(nullの場合はキャッシュしない)
+     */
+    public static void setSummaryCache(EmployeeSummaryCache cache) {
+        summaryCache = cache;
+    }
+
     /**
      * viewモデルのインスタンスからDTOモデルのインスタンスを作成する
      * @param ev EmployeeViewのインスタンス
@@ -38,7 +53,8 @@ public class EmployeeConverter {
                         ? null
                         : ev.getDeleteFlag() == AttributeConst.DEL_FLAG_TRUE.getIntegerValue()
                                 ? JpaConst.EMP_DEL_TRUE
-                                : JpaConst.EMP_DEL_FALSE);
+                                : JpaConst.EMP_DEL_FALSE,
+                ev.getVersion());
     }
 
     /**
@@ -57,18 +73,76 @@ public class EmployeeConverter {
                 e.getCode(),
                 e.getName(),
                 e.getPassword(),
-                e.getAdminFlag() == null
-                        ? null
-                        : e.getAdminFlag() == JpaConst.ROLE_ADMIN
-                                ? AttributeConst.ROLE_ADMIN.getIntegerValue()
-                                : AttributeConst.ROLE_GENERAL.getIntegerValue(),
+                toViewAdminFlag(e.getAdminFlag()),
                 e.getCreatedAt(),
                 e.getUpdatedAt(),
-                e.getDeleteFlag() == null
-                        ? null
-                        : e.getDeleteFlag() == JpaConst.EMP_DEL_TRUE
-                                ? AttributeConst.DEL_FLAG_TRUE.getIntegerValue()
-                                : AttributeConst.DEL_FLAG_FALSE.getIntegerValue());
+                toViewDeleteFlag(e.getDeleteFlag()),
+                e.getVersion());
+    }
+
+    /**
+     * DTOモデルのインスタンスから、日報の作成者として表示する概要(パスワード・登録日時・更新日時を除く)のViewモデルを取得する
+     * キャッシュにあり、バージョンがDTOモデルと同じ場合はキャッシュのインスタンスを返す(複数の日報で共有するため、変更しないこと)
+     * @param e Employeeのインスタンス
+     * @return EmployeeViewのインスタンス
+     */
+    public static EmployeeView toSummaryView(Employee e) {
+
+        if (e == null) {
+            return null;
+        }
+
+        EmployeeSummaryCache cache = summaryCache;
+        if (cache == null) {
+            return summaryOf(e);
+        }
+        EmployeeView ev = cache.get(e.getId());
+        if (ev == null || ev.getVersion() == null || !ev.getVersion().equals(e.getVersion())) {
+            //キャッシュにない、または他のサーバー等で更新された場合は作り直す
+            ev = summaryOf(e);
+            cache.put(ev);
+        }
+        return ev;
+    }
+
+    /**
+     * 従業員の登録・更新・削除の後に、キャッシュの概要を置き換える(コミット後に呼び出す)
+     * @param e 登録・更新・削除した後のEmployeeのインスタンス(バージョンは更新後の値)
+     */
+    public static void refreshSummary(Employee e) {
+        EmployeeSummaryCache cache = summaryCache;
+        if (cache != null && e.getId() != null) {
+            cache.put(summaryOf(e));
+        }
+    }
+
+    private static EmployeeView summaryOf(Employee e) {
+        return new EmployeeView(
+                e.getId(),
+                e.getCode(),
+                e.getName(),
+                null,
+                toViewAdminFlag(e.getAdminFlag()),
+                null,
+                null,
+                toViewDeleteFlag(e.getDeleteFlag()),
+                e.getVersion());
+    }
+
+    private static Integer toViewAdminFlag(Integer adminFlag) {
+        return adminFlag == null
+                ? null
+                : adminFlag == JpaConst.ROLE_ADMIN
+                        ? AttributeConst.ROLE_ADMIN.getIntegerValue()
+                        : AttributeConst.ROLE_GENERAL.getIntegerValue();
+    }
+
+    private static Integer toViewDeleteFlag(Integer deleteFlag) {
+        return deleteFlag == null
+                ? null
+                : deleteFlag == JpaConst.EMP_DEL_FALSE //アーカイブ済みも画面では削除済みとして扱う
+                        ? AttributeConst.DEL_FLAG_FALSE.getIntegerValue()
+                        : AttributeConst.DEL_FLAG_TRUE.getIntegerValue();
     }
 
     /**
@@ -99,6 +173,7 @@ public class EmployeeConverter {
         e.setCreatedAt(ev.getCreatedAt());
         e.setUpdatedAt(ev.getUpdatedAt());
         e.setDeleteFlag(ev.getDeleteFlag());
+        e.setVersion(ev.getVersion());
 
     }
 
@@ -61,4 +61,9 @@ public class EmployeeView {
      */
     private Integer deleteFlag;
 
+    /**
+     * バージョン(編集画面を表示したときの値 更新時の競合の確認に使う)
+     */
+    private Integer version;
+
 }
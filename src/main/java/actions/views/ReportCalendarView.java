@@ -0,0 +1,114 @@
+package actions.views;
+
+import java.time.YearMonth;
+
+import lombok.Getter;
+
+/**
+ * 従業員1人の1か月分の日報(日付・id・いいねの件数)をカレンダーとして画面に出力するViewモデル
+ * 日報は日付・idの昇順に配列に並べ、日ごとの開始位置から各日の日報を参照する
+ * (JSPでは日報がある日(first(日) < first(日 + 1))のみ、first(日)〜first(日 + 1) - 1 の範囲でreportIds・likeCountsを参照する)
+ */
+@Getter
+public class ReportCalendarView {
+
+    /**
+     * 対象の年月
+     */
+    private final YearMonth month;
+
+    /**
+     * 従業員
+     */
+    private final EmployeeView employee;
+
+    /**
+     * 日報のid(日付・idの昇順)
+     */
+    private final int[] reportIds;
+
+    /**
+     * 日報のいいねの件数(reportIdsと同じ順)
+     */
+    private final int[] likeCounts;
+
+    /**
+     * 日ごとの、その日の最初の日報の位置(添字が日 月末の翌日の位置は日報の件数)
+     */
+    private final int[] dayStart;
+
+    /**
+     * 月のいいねの件数の合計
+     */
+    private final int likeTotal;
+
+    /**
+     * コンストラクタ
+     * @param month 対象の年月
+     * @param employee 従業員
+     * @param days 日報の日(日付・idの昇順)
+     * @param reportIds 日報のid(daysと同じ順)
+     * @param likeCounts 日報のいいねの件数(daysと同じ順)
+     */
+    public ReportCalendarView(YearMonth month, EmployeeView employee, int[] days, int[] reportIds, int[] likeCounts) {
+        this.month = month;
+        this.employee = employee;
+        this.reportIds = reportIds;
+        this.likeCounts = likeCounts;
+
+        //日ごとの件数から開始位置を求める
+        int length = month.lengthOfMonth();
+        dayStart = new int[length + 2];
+        int total = 0;
+        for (int i = 0; i < days.length; i++) {
+            dayStart[days[i] + 1]++;
+            total += likeCounts[i];
+        }
+        for (int day = 1; day <= length + 1; day++) {
+            dayStart[day] += dayStart[day - 1];
+        }
+        likeTotal = total;
+    }
+
+    /**
+     * 指定した日の最初の日報の位置を取得する
+     * @param day 日(1〜月末の翌日)
+     * @return 位置(その日の日報は、この位置から翌日の位置の手前まで)
+     */
+    public int first(int day) {
+        return dayStart[day];
+    }
+
+    /**
+     * 月の日数を取得する
+     * @return 日数
+     */
+    public int getDays() {
+        return month.lengthOfMonth();
+    }
+
+    /**
+     * 1日より前に空ける日数(カレンダーは日曜日から始める)を取得する
+     * @return 日数(0〜6)
+     */
+    public int getLeadingDays() {
+        return month.atDay(1).getDayOfWeek().getValue() % 7;
+    }
+
+    /**
+     * カレンダーの週の数を取得する
+     * @return 週の数
+     */
+    public int getWeeks() {
+        return (getLeadingDays() + getDays() + 6) / 7;
+    }
+
+    /**
+     * 月の日報の件数を取得する
+     * @return 件数
+     */
+    public int getReportCount() {
+        return reportIds.length;
+    }
+
+}
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import models.Report;
+import models.ReportContent;
 
 /**
  * 日報データのDTOモデル⇔Viewモデルの変換を行うクラス
@@ -22,9 +23,10 @@ public class ReportConverter {
                 EmployeeConverter.toModel(rv.getEmployee()),
                 rv.getReportDate(),
                 rv.getTitle(),
-                rv.getContent(),
+                ReportContent.ofText(rv.getContent()),
                 rv.getCreatedAt(),
-                rv.getUpdatedAt());
+                rv.getUpdatedAt(),
+                rv.getVersion());
     }
     /**
      * DTOモデルのインスタンスからViewモデルのインスタンスを作成する
@@ -41,9 +43,33 @@ public class ReportConverter {
                 EmployeeConverter.toView(r.getEmployee()),
                 r.getReportDate(),
                 r.getTitle(),
-                r.getContent(),
+                r.getContent() == null ? null : r.getContent().getText(),
                 r.getCreatedAt(),
-                r.getUpdatedAt());
+                r.getUpdatedAt(),
+                r.getVersion());
+    }
+
+    /**
+     * DTOモデルのインスタンスから、内容を除いたViewモデルのインスタンスを作成する
+     * (一覧のように内容を表示しない場合に使い、保存されている内容の復元を行わない
+     *  作成者は従業員の概要のキャッシュから取得し、同じ従業員の日報で共有する)
+     * @param r Reportのインスタンス
+     * @return ReportViewのインスタンス(内容はnull)
+     */
+    public static ReportView toSummaryView(Report r) {
+        if (r == null) {
+            return null;
+        }
+
+        return new ReportView(
+                r.getId(),
+                EmployeeConverter.toSummaryView(r.getEmployee()),
+                r.getReportDate(),
+                r.getTitle(),
+                null,
+                r.getCreatedAt(),
+                r.getUpdatedAt(),
+                r.getVersion());
     }
 
     /**
@@ -60,6 +86,20 @@ public class ReportConverter {
         return evs;
     }
 
+    /**
+     * DTOモデルのリストから、内容を除いたViewモデルのリストを作成する
+     * @param list DTOモデルのリスト
+     * @return Viewモデルのリスト(内容はnull)
+     */
+    public static List<ReportView> toSummaryViewList(List<Report> list){
+        List<ReportView> evs = new ArrayList<>();
+
+        for(Report r : list) {
+            evs.add(toSummaryView(r));
+        }
+        return evs;
+    }
+
     /**
      * Viewモデルの全フィールドの内容をDTOモデルのフィールドにコピーする
      * @param r DTOモデル（コピー先）
@@ -70,9 +110,23 @@ public class ReportConverter {
         r.setEmployee(EmployeeConverter.toModel(rv.getEmployee()));
         r.setReportDate(rv.getReportDate());
         r.setTitle(rv.getTitle());
-        r.setContent(rv.getContent());
+        r.setContent(ReportContent.ofText(rv.getContent()));
         r.setCreatedAt(rv.getCreatedAt());
         r.setUpdatedAt(rv.getUpdatedAt());
+        r.setVersion(rv.getVersion());
+    }
+
+    /**
+     * Viewモデルのうち画面から編集できる項目(日付・タイトル・内容・更新日時)だけをDTOモデルにコピーする
+     * id・作成者・作成日時はコピー先の値をそのまま残す
+     * @param r DTOモデル（コピー先）
+     * @param rv Viewモデル（コピー元）
+     */
+    public static void copyEditableViewToModel(Report r, ReportView rv) {
+        r.setReportDate(rv.getReportDate());
+        r.setTitle(rv.getTitle());
+        r.setContent(ReportContent.ofText(rv.getContent()));
+        r.setUpdatedAt(rv.getUpdatedAt());
     }
 
 
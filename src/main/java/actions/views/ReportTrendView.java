@@ -0,0 +1,46 @@
+package actions.views;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 直近1週間によく見られた・いいねされた日報について画面に出力するViewモデル
+ * (閲覧数・いいねの件数はReportTrendsで数えた推定値)
+ */
+@Getter
+@AllArgsConstructor
+public class ReportTrendView {
+
+    /**
+     * 日報のid
+     */
+    private final int reportId;
+
+    /**
+     * 日報のタイトル(閲覧された時点のもの 閲覧されていない場合null)
+     */
+    private final String title;
+
+    /**
+     * 日報を作成した従業員の氏名(閲覧された時点のもの 閲覧されていない場合null)
+     */
+    private final String employeeName;
+
+    /**
+     * 日報の日付(閲覧されていない場合null)
+     */
+    private final LocalDate reportDate;
+
+    /**
+     * 閲覧数
+     */
+    private final int views;
+
+    /**
+     * いいねの件数
+     */
+    private final int likes;
+
+}
@@ -56,4 +56,9 @@ public class ReportView {
      */
 
     private LocalDateTime updatedAt;
+
+    /**
+     * バージョン(編集画面を表示したときの値 更新時の競合の確認に使う)
+     */
+    private Integer version;
 }
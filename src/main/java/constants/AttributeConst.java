@@ -12,14 +12,25 @@ public enum AttributeConst {
     //一覧画面共通
     MAX_ROW("maxRow"),
     PAGE("page"),
+    OLDER("older"), //日報の一覧で、最近の期間より前の日報(以前の日報)を表示する
+    RECENT_SINCE("recentSince"), //日報の一覧に最初に表示する期間の開始日
 
     //入力フォーム共通
     TOKEN("_token"),
     ERR("errors"),
 
+    //描画済みHTMLのキャッシュ(キーと、キャッシュから取得したHTML)
+    FRAGMENT_KEY("fragment_key"),
+    FRAGMENT("fragment"),
+
     //ログイン中の従業員
     LOGIN_EMP("login_employee"),
 
+    //ステートレスモードで使うCookie
+    COOKIE_LOGIN("drs_login"),
+    COOKIE_CSRF("drs_csrf"),
+    COOKIE_FLUSH("drs_flush"),
+
     //ログイン画面
     LOGIN_ERR("loginError"),
 
@@ -32,6 +43,7 @@ public enum AttributeConst {
     EMP_PASS("password"),
     EMP_NAME("name"),
     EMP_ADMIN_FLG("admin_flag"),
+    EMP_VERSION("version"),
 
     //管理者フラグ
     ROLE_ADMIN(1),
@@ -49,10 +61,25 @@ public enum AttributeConst {
     REP_DATE("report_date"),
     REP_TITLE("title"),
     REP_CONTENT("content_msg"),
+    REP_VERSION("version"),
+    REP_FILTER_FROM("date_from"), //一覧の絞り込み(この日付以降)
+    REP_FILTER_TO("date_to"), //一覧の絞り込み(この日付まで)
+    REP_FILTER_EMP_CODE("employee_code"), //一覧の絞り込み(作成した従業員の社員番号)
+    REP_FILTERED("filtered"), //一覧を絞り込んでいるかどうか
+    CALENDAR("calendar"), //日報のカレンダー
+    CAL_MONTH("month"), //カレンダーに表示する年月(yyyy-MM)
+    TRENDING("trending"), //直近1週間に注目された日報(閲覧数・いいねの件数による点数の順)
+    MOST_VIEWED("most_viewed"), //直近1週間によく見られた日報(閲覧数の順)
 
     //いいね管理
     LIKE_COUNT("likes_count"),
-    LIKE_CHECK("like_check");
+    LIKE_CHECK("like_check"),
+
+    //JSON API
+    API_CURSOR("cursor"),
+    API_LIMIT("limit"),
+    API_FIELDS("fields"),
+    API_EMPLOYEE("employee");
 
     // フィールドの定義
     private final String text;
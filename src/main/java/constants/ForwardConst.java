@@ -12,6 +12,7 @@ public enum ForwardConst {
     ACT_EMP("Employee"),
     ACT_REP("Report"),
     ACT_AUTH("Auth"),
+    ACT_API("Api"),
 
     //command
     CMD("command"),
@@ -29,6 +30,18 @@ public enum ForwardConst {
     CMD_SEARCH("search"),//あとで消すかも！！！！！240119
     CMD_LIKE_CREATE("likeCreate"),//あとで消すかも！！！！！240119
     CMD_LIKE_DESTROY("likeDestroy"),
+    CMD_EXPORT("export"),
+    CMD_BATCH_NEW("batchNew"),
+    CMD_BATCH_CREATE("batchCreate"),
+    CMD_CALENDAR("calendar"),
+    CMD_TRENDING("trending"),
+    CMD_API_REPORTS("reports"),
+    CMD_API_REPORT("report"),
+    CMD_API_EMPLOYEE("employee"),
+    CMD_API_LIKES("likes"),
+
+    //JSON APIのサーブレットパス(/api/コマンド名 でApiActionのメソッドを実行する)
+    PATH_API("/api"),
 
     //jsp
     FW_ERR_UNKNOWN("error/unknown"),
@@ -44,7 +57,10 @@ public enum ForwardConst {
     FW_REP_INDEX("reports/index"),
     FW_REP_SHOW("reports/show"),
     FW_REP_NEW("reports/new"),
-    FW_REP_EDIT("reports/edit");
+    FW_REP_EDIT("reports/edit"),
+    FW_REP_BATCH("reports/batch"),
+    FW_REP_CALENDAR("reports/calendar"),
+    FW_REP_TRENDING("reports/trending");
 
     /**
      * 文字列
@@ -8,9 +8,12 @@ public interface JpaConst {
 
     //persistence-unit名
     String PERSISTENCE_UNIT_NAME = "daily_report_system";
+    //persistence-unit名(読み取り専用のレプリカ)
+    String PERSISTENCE_UNIT_NAME_REPLICA = "daily_report_system_replica";
 
     //データ取得件数の最大値
     int ROW_PER_PAGE = 15; //1ページに表示するレコードの数
+    int REP_RECENT_DAYS = 90; //日報の一覧に最初に表示する期間(日数 それより前の日報は「以前の日報」として別に表示する)
 
     //従業員テーブル
     String TABLE_EMP = "employees"; //テーブル名
@@ -23,11 +26,17 @@ public interface JpaConst {
     String EMP_COL_CREATED_AT = "created_at"; //登録日時
     String EMP_COL_UPDATED_AT = "updated_at"; //更新日時
     String EMP_COL_DELETE_FLAG = "delete_flag"; //削除フラグ
+    String EMP_COL_VERSION = "version"; //バージョン(楽観的ロック)
 
     int ROLE_ADMIN = 1; //管理者権限ON(管理者)
     int ROLE_GENERAL = 0; //管理者権限OFF(一般)
     int EMP_DEL_TRUE = 1; //削除フラグON(削除済み)
     int EMP_DEL_FALSE = 0; //削除フラグOFF(現役)
+    int EMP_DEL_ARCHIVED = 2; //削除後、一定期間が過ぎてアーカイブテーブルに移したもの(日報の作成者として氏名等のみ残す)
+
+    //アーカイブした従業員のテーブル(列は従業員テーブルと同じ名前を使う)
+    String TABLE_EMP_ARCHIVE = "employees_archive"; //テーブル名
+    String EMP_COL_ARCHIVED_AT = "archived_at"; //アーカイブした日時
 
     //日報テーブル
     String TABLE_REP = "reports"; //テーブル名
@@ -39,6 +48,7 @@ public interface JpaConst {
     String REP_COL_CONTENT = "content"; //日報の内容
     String REP_COL_CREATED_AT = "created_at"; //登録日時
     String REP_COL_UPDATED_AT = "updated_at"; //更新日時
+    String REP_COL_VERSION = "version"; //バージョン(楽観的ロック)
 
     //あとで消すかも！！！！240124
     //LIKEテーブル
@@ -49,24 +59,55 @@ public interface JpaConst {
     String LIKE_COL_REP = "report_id"; //いいねされた日報のid
     String LIKE_COL_CREATED_AT = "created_at"; //登録日時
 
+    //日報の閲覧数・いいねの件数の集計テーブル(ReportTrendsの日ごとの内容を保存する)
+    String TABLE_TREND = "report_trends"; //テーブル名
+    //日報の閲覧数・いいねの件数の集計テーブルカラム
+    String TREND_COL_DATE = "trend_date"; //集計した日
+    String TREND_COL_DATA = "data"; //集計した内容(圧縮したバイト列)
+    String TREND_COL_UPDATED_AT = "updated_at"; //更新日時
+
+    //日報一覧の内容のバージョンテーブル(全サーバーで共有する一覧画面のキャッシュのキー 1行だけ保持する)
+    String TABLE_LIST_VERSION = "report_list_versions"; //テーブル名
+    //日報一覧の内容のバージョンテーブルカラム
+    String LIST_VERSION_COL_ID = "id"; //id
+    String LIST_VERSION_COL_VERSION = "version"; //バージョン
+    int LIST_VERSION_ID = 1; //保持する行のid
+
     //Entity名
     String ENTITY_EMP = "employee"; //従業員
     String ENTITY_REP = "report"; //日報
     String ENTITY_LIKE = "like"; //LIKE あとで消すかも240124
+    String ENTITY_TREND = "reportTrend"; //日報の閲覧数・いいねの件数の集計
+    String ENTITY_LIST_VERSION = "reportListVersion"; //日報一覧の内容のバージョン
 
     //JPQL内パラメータ
     String JPQL_PARM_CODE = "code"; //社員番号
     String JPQL_PARM_PASSWORD = "password"; //パスワード
     String JPQL_PARM_EMPLOYEE = "employee"; //従業員
     String JPQL_PARM_REPORT = "report"; //日報
+    String JPQL_PARM_ID = "id"; //id(更新対象・カーソルによるページングの起点)
+    String JPQL_PARM_VERSION = "version"; //更新前のバージョン
+    String JPQL_PARM_NAME = "name"; //氏名
+    String JPQL_PARM_ADMIN_FLAG = "adminFlag"; //管理者権限
+    String JPQL_PARM_DELETE_FLAG = "deleteFlag"; //削除フラグ
+    String JPQL_PARM_REP_DATE = "reportDate"; //日報の日付
+    String JPQL_PARM_TITLE = "title"; //日報のタイトル
+    String JPQL_PARM_CONTENT = "content"; //日報の内容
+    String JPQL_PARM_UPDATED_AT = "updatedAt"; //更新日時
+    String JPQL_PARM_DATE_FROM = "dateFrom"; //日報の日付の範囲(この日付以降)
+    String JPQL_PARM_DATE_TO = "dateTo"; //日報の日付の範囲(この日付より前)
+    String JPQL_PARM_TREND_DATE = "trendDate"; //集計した日
 
     //NamedQueryの nameとquery
-    //全ての従業員をidの降順に取得する
-    String Q_EMP_GET_ALL = ENTITY_EMP + ".getAll"; //name
-    String Q_EMP_GET_ALL_DEF = "SELECT e FROM Employee AS e ORDER BY e.id DESC"; //query
-    //全ての従業員の件数を取得する
+    //指定した削除フラグの従業員をidの降順に取得する(一覧は現役・削除済みの順にそれぞれ取得する 削除フラグ・idの索引の順のまま読む)
+    String Q_EMP_GET_BY_DEL_FLAG = ENTITY_EMP + ".getByDelFlag"; //name
+    String Q_EMP_GET_BY_DEL_FLAG_DEF = "SELECT e FROM Employee AS e WHERE e.deleteFlag = :" + JPQL_PARM_DELETE_FLAG + " ORDER BY e.deleteFlag, e.id DESC"; //query
+    //指定した削除フラグの従業員の件数を取得する
+    String Q_EMP_COUNT_BY_DEL_FLAG = ENTITY_EMP + ".countByDelFlag";
+    String Q_EMP_COUNT_BY_DEL_FLAG_DEF = "SELECT COUNT(e) FROM Employee AS e WHERE e.deleteFlag = :" + JPQL_PARM_DELETE_FLAG;
+    //全ての従業員の件数を取得する(アーカイブ済みは除く)
     String Q_EMP_COUNT = ENTITY_EMP + ".count";
-    String Q_EMP_COUNT_DEF = "SELECT COUNT(e) FROM Employee AS e";
+    String Q_EMP_COUNT_DEF = "SELECT COUNT(e) FROM Employee AS e WHERE e.deleteFlag IN (" + EMP_DEL_FALSE + ", " + EMP_DEL_TRUE + ")";
     //社員番号とハッシュ化済パスワードを条件に未削除の従業員を取得する
     String Q_EMP_GET_BY_CODE_AND_PASS = ENTITY_EMP + ".getByCodeAndPass";
     String Q_EMP_GET_BY_CODE_AND_PASS_DEF = "SELECT e FROM Employee AS e WHERE e.deleteFlag = 0 AND e.code = :" + JPQL_PARM_CODE + " AND e.password = :" + JPQL_PARM_PASSWORD;
@@ -80,18 +121,67 @@ public interface JpaConst {
     String Q_EMP_COUNT_REGISTERED_BY_CODE = ENTITY_EMP + ".countRegisteredByCode";
     String Q_EMP_COUNT_REGISTERED_BY_CODE_DEF = "SELECT COUNT(e) FROM Employee AS e WHERE e.code = :" + JPQL_PARM_CODE;
 
-    //全ての日報をidの降順に取得する
+    //削除されてから指定した日時より前の従業員をidの昇順に取得する(アーカイブの対象)
+    String Q_EMP_GET_DELETED_BEFORE = ENTITY_EMP + ".getDeletedBefore";
+    String Q_EMP_GET_DELETED_BEFORE_DEF = "SELECT e FROM Employee AS e WHERE e.deleteFlag = " + EMP_DEL_TRUE + " AND e.updatedAt < :" + JPQL_PARM_UPDATED_AT + " ORDER BY e.id";
+
+    //編集画面で変更できる項目を、画面を表示したときのバージョンのままの場合のみ更新する(更新件数が0件の場合は他の更新と競合している)
+    String Q_EMP_UPDATE = ENTITY_EMP + ".update";
+    String Q_EMP_UPDATE_DEF = "UPDATE Employee AS e SET e.code = :" + JPQL_PARM_CODE + ", e.name = :" + JPQL_PARM_NAME
+            + ", e.password = :" + JPQL_PARM_PASSWORD + ", e.adminFlag = :" + JPQL_PARM_ADMIN_FLAG
+            + ", e.updatedAt = :" + JPQL_PARM_UPDATED_AT + ", e.version = e.version + 1"
+            + " WHERE e.id = :" + JPQL_PARM_ID + " AND e.version = :" + JPQL_PARM_VERSION;
+
+    //日報の日付の範囲の条件(日報テーブルを日付で分割している場合、範囲外の分割はMySQLが読まない)
+    String Q_REP_DATE_RANGE = "r.reportDate >= :" + JPQL_PARM_DATE_FROM + " AND r.reportDate < :" + JPQL_PARM_DATE_TO;
+    //一覧の並び順(日付・idの降順 日報テーブルの索引と同じ順に並べ、索引の範囲を読んだ順のまま返せるようにする)
+    //(作成者で絞り込む場合は、作成者のidを先頭にして作成者・日付・idの索引と同じ順にする)
+    String Q_REP_ORDER = " ORDER BY r.reportDate DESC, r.id DESC";
+    String Q_REP_ORDER_BY_EMP = " ORDER BY r.employee.id, r.reportDate DESC, r.id DESC";
+    //指定した日付の範囲の日報を日付・idの降順に取得する
     String Q_REP_GET_ALL = ENTITY_REP + ".getAll";
-    String Q_REP_GET_ALL_DEF = "SELECT r FROM Report AS r ORDER BY r.id DESC";
-    //全ての日報の件数を取得する
+    String Q_REP_GET_ALL_DEF = "SELECT r FROM Report AS r WHERE " + Q_REP_DATE_RANGE + Q_REP_ORDER;
+    //指定した日付の範囲の日報の件数を取得する
     String Q_REP_COUNT = ENTITY_REP + ".count";
-    String Q_REP_COUNT_DEF = "SELECT COUNT(r) FROM Report AS r";
-    //指定した従業員が作成した日報を全件idの降順で取得する
+    String Q_REP_COUNT_DEF = "SELECT COUNT(r) FROM Report AS r WHERE " + Q_REP_DATE_RANGE;
+    //社員番号の従業員の条件(結合せずに従業員のidを1件求め、日報テーブルの作成者・日付・idの索引だけを読む)
+    String Q_REP_EMP_CODE = "r.employee.id = (SELECT e.id FROM Employee AS e WHERE e.code = :" + JPQL_PARM_CODE + ")";
+    //指定した社員番号の従業員が作成した、指定した日付の範囲の日報を日付・idの降順に取得する(一覧の絞り込み)
+    String Q_REP_GET_BY_EMP_CODE = ENTITY_REP + ".getByEmpCode";
+    String Q_REP_GET_BY_EMP_CODE_DEF = "SELECT r FROM Report AS r WHERE " + Q_REP_EMP_CODE + " AND " + Q_REP_DATE_RANGE + Q_REP_ORDER_BY_EMP;
+    //指定した社員番号の従業員が作成した、指定した日付の範囲の日報の件数を取得する
+    String Q_REP_COUNT_BY_EMP_CODE = ENTITY_REP + ".countByEmpCode";
+    String Q_REP_COUNT_BY_EMP_CODE_DEF = "SELECT COUNT(r) FROM Report AS r WHERE " + Q_REP_EMP_CODE + " AND " + Q_REP_DATE_RANGE;
+    //指定した従業員が作成した、指定した日付の範囲の日報を日付・idの降順で取得する
     String Q_REP_GET_ALL_MINE = ENTITY_REP + ".getAllMine";
-    String Q_REP_GET_ALL_MINE_DEF = "SELECT r FROM Report AS r WHERE r.employee = :" + JPQL_PARM_EMPLOYEE + " ORDER BY r.id DESC";
-    //指定した従業員が作成した日報の件数を取得する
+    String Q_REP_GET_ALL_MINE_DEF = "SELECT r FROM Report AS r WHERE r.employee = :" + JPQL_PARM_EMPLOYEE + " AND " + Q_REP_DATE_RANGE + Q_REP_ORDER_BY_EMP;
+    //指定した従業員が作成した、指定した日付の範囲の日報の件数を取得する
     String Q_REP_COUNT_ALL_MINE = ENTITY_REP + ".countAllMine";
-    String Q_REP_COUNT_ALL_MINE_DEF = "SELECT COUNT(r) FROM Report AS r WHERE r.employee = :" + JPQL_PARM_EMPLOYEE;
+    String Q_REP_COUNT_ALL_MINE_DEF = "SELECT COUNT(r) FROM Report AS r WHERE r.employee = :" + JPQL_PARM_EMPLOYEE + " AND " + Q_REP_DATE_RANGE;
+    //指定した従業員が作成した、指定した日付の範囲の日報の日付・id・いいねの件数を日付・idの昇順に取得する(カレンダー)
+    String Q_REP_GET_CALENDAR = ENTITY_REP + ".getCalendar";
+    String Q_REP_GET_CALENDAR_DEF = "SELECT r.reportDate, r.id, COUNT(l) FROM Report AS r LEFT JOIN Like AS l ON l.report = r"
+            + " WHERE r.employee = :" + JPQL_PARM_EMPLOYEE + " AND " + Q_REP_DATE_RANGE
+            + " GROUP BY r.reportDate, r.id ORDER BY r.reportDate, r.id";
+    //指定したidより前(idが小さい)の日報を、作成した従業員とあわせてidの降順に取得する(APIのカーソルによるページング)
+    String Q_REP_GET_BEFORE = ENTITY_REP + ".getBefore";
+    String Q_REP_GET_BEFORE_DEF = "SELECT r FROM Report AS r JOIN FETCH r.employee WHERE r.id < :" + JPQL_PARM_ID + " ORDER BY r.id DESC";
+    //指定した従業員が作成した日報のうち、指定したidより前の日報をidの降順に取得する
+    String Q_REP_GET_MINE_BEFORE = ENTITY_REP + ".getMineBefore";
+    String Q_REP_GET_MINE_BEFORE_DEF = "SELECT r FROM Report AS r JOIN FETCH r.employee WHERE r.employee = :" + JPQL_PARM_EMPLOYEE + " AND r.id < :" + JPQL_PARM_ID + " ORDER BY r.id DESC";
+    //↑の各クエリの、内容(遅延読み込みの項目)もあわせて取得する版(HQLのFETCH ALL PROPERTIES 1件ずつ内容を読み込むクエリが発行されないようにする)
+    String Q_REP_GET_BEFORE_WITH_CONTENT = ENTITY_REP + ".getBeforeWithContent";
+    String Q_REP_GET_BEFORE_WITH_CONTENT_DEF = "SELECT r FROM Report AS r FETCH ALL PROPERTIES JOIN FETCH r.employee WHERE r.id < :" + JPQL_PARM_ID + " ORDER BY r.id DESC";
+    String Q_REP_GET_MINE_BEFORE_WITH_CONTENT = ENTITY_REP + ".getMineBeforeWithContent";
+    String Q_REP_GET_MINE_BEFORE_WITH_CONTENT_DEF = "SELECT r FROM Report AS r FETCH ALL PROPERTIES JOIN FETCH r.employee WHERE r.employee = :" + JPQL_PARM_EMPLOYEE + " AND r.id < :" + JPQL_PARM_ID + " ORDER BY r.id DESC";
+    //作成した従業員の日報を、編集画面を表示したときのバージョンのままの場合のみ更新する(更新件数が0件の場合は他の更新と競合している)
+    String Q_REP_UPDATE = ENTITY_REP + ".update";
+    String Q_REP_UPDATE_DEF = "UPDATE Report AS r SET r.reportDate = :" + JPQL_PARM_REP_DATE + ", r.title = :" + JPQL_PARM_TITLE
+            + ", r.content = :" + JPQL_PARM_CONTENT + ", r.updatedAt = :" + JPQL_PARM_UPDATED_AT + ", r.version = r.version + 1"
+            + " WHERE r.id = :" + JPQL_PARM_ID + " AND r.employee = :" + JPQL_PARM_EMPLOYEE + " AND r.version = :" + JPQL_PARM_VERSION;
+    //指定したidの日報の作成者のidと現在のバージョンを取得する(↑の更新件数が0件だった場合に原因を判別する)
+    String Q_REP_GET_AUTHOR_VERSION = ENTITY_REP + ".getAuthorVersion";
+    String Q_REP_GET_AUTHOR_VERSION_DEF = "SELECT r.employee.id, r.version FROM Report AS r WHERE r.id = :" + JPQL_PARM_ID;
 
 
     //240129テスト用 Likeテーブル用
@@ -102,4 +192,18 @@ public interface JpaConst {
     //ログイン従業員idと日報idを条件にLikeテーブルを検索する
     String Q_LIKE_GET_BY_EMP_AND_REP = ENTITY_LIKE + ".getByEmpAndRep";
     String Q_LIKE_GET_BY_EMP_AND_REP_DEF = "SELECT l FROM Like AS l WHERE l.employee = :" + JPQL_PARM_EMPLOYEE + " AND l.report = :" + JPQL_PARM_REPORT;
+
+    //指定した日以降の集計を取得する
+    String Q_TREND_GET_SINCE = ENTITY_TREND + ".getSince";
+    String Q_TREND_GET_SINCE_DEF = "SELECT t FROM ReportTrend AS t WHERE t.trendDate >= :" + JPQL_PARM_TREND_DATE + " ORDER BY t.trendDate";
+    //指定した日より前の集計を削除する
+    String Q_TREND_DELETE_BEFORE = ENTITY_TREND + ".deleteBefore";
+    String Q_TREND_DELETE_BEFORE_DEF = "DELETE FROM ReportTrend AS t WHERE t.trendDate < :" + JPQL_PARM_TREND_DATE;
+
+    //日報一覧の内容のバージョンを取得する
+    String Q_LIST_VERSION_GET = ENTITY_LIST_VERSION + ".get";
+    String Q_LIST_VERSION_GET_DEF = "SELECT v.version FROM ReportListVersion AS v WHERE v.id = " + LIST_VERSION_ID;
+    //日報一覧の内容のバージョンを1増やす(更新件数が0件の場合は行がまだない)
+    String Q_LIST_VERSION_INCREMENT = ENTITY_LIST_VERSION + ".increment";
+    String Q_LIST_VERSION_INCREMENT_DEF = "UPDATE ReportListVersion AS v SET v.version = v.version + 1 WHERE v.id = " + LIST_VERSION_ID;
 }
\ No newline at end of file
@@ -22,7 +22,10 @@ public enum MessageConst {
     E_NOEMP_CODE("社員番号を入力してください。"),
     E_EMP_CODE_EXIST("入力された社員番号の情報は既に存在しています。"),
     E_NOTITLE("タイトルを入力してください。"),
-    E_NOCONTENT("内容を入力してください。");
+    E_NOCONTENT("内容を入力してください。"),
+    E_NODATE("日付を正しく入力してください。"),
+    E_NOREPORTS("登録する日報を1件以上入力してください。"),
+    E_CONFLICT("編集中に他の画面から更新されました。最新の内容を表示し直してから、もう一度更新してください。");
 
 
     /**
@@ -7,7 +7,34 @@ package constants;
 public enum PropertyConst {
 
     //ペッパー文字列
-    PEPPER("pepper");
+    PEPPER("pepper"),
+
+    //静的ファイルのパス(元のパス→ハッシュ付きパス)
+    ASSETS("assets"),
+
+    //ログイン状態の保持方式(stateless: 署名付きCookie 未設定: HttpSession)
+    SESSION_MODE("session.mode"),
+    //署名に使う鍵(「鍵ID:鍵(Base64)」のカンマ区切り。先頭の鍵で署名する)
+    SESSION_TOKEN_KEYS("session.token.keys"),
+    //ログインの有効期限(秒)
+    SESSION_TOKEN_TTL("session.token.ttl"),
+    //ステートレスモードの処理を行うインスタンス
+    STATELESS_SESSION("stateless_session"),
+
+    //仮想スレッドでリクエストを処理するExecutor(仮想スレッドモードの場合のみ設定される)
+    REQUEST_EXECUTOR("request_executor"),
+    //DBを使う処理の同時実行数を制限するSemaphore(仮想スレッドモードの場合のみ設定される)
+    DB_GATE("db_gate"),
+    //時間のかかる処理(ActionBase.runAsync)を実行するExecutor(AsyncExecutorListenerで作成する)
+    ASYNC_EXECUTOR("async_executor"),
+    //描画済みHTMLのキャッシュ(CacheListenerで作成する)
+    FRAGMENT_CACHE("fragment_cache"),
+    //従業員ごとのトップページのキャッシュ(CacheListenerで作成する)
+    TOP_PAGE_CACHE("top_page_cache"),
+    //日報のイベント(Server-Sent Events)を配信するインスタンス(EventStreamListenerで作成する)
+    EVENT_BROADCASTER("event_broadcaster"),
+    //日報の閲覧数・いいねの件数の集計(ReportTrendListenerで作成する)
+    REPORT_TRENDS("report_trends");
 
     private final String text;
     private PropertyConst(final String text) {
@@ -0,0 +1,60 @@
+package controllers;
+
+import java.io.IOException;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import constants.PropertyConst;
+import utils.EventBroadcaster;
+
+/**
+ * 日報の登録・更新・いいねのイベントをServer-Sent Eventsで配信するサーブレット
+ * 接続を開いたままにしてDBを使わないため、FrontController(仮想スレッドモードではDBの同時実行数の制限の対象)とは分ける
+ * ログインのチェックはLoginFilterで行う(未ログインの場合は401)
+ *   event: created / updated  data: {"id":日報id,"employee_id":…,"employee_name":…,"report_date":…,"title":…}
+ *   event: liked              data: {"id":日報id,"employee_id":いいねした従業員id,"liked":true/false}
+ */
+@WebServlet(urlPatterns = "/api/events", asyncSupported = true)
+public class EventStreamController extends HttpServlet {
+    private static final long serialVersionUID = 1L;
+
+    private transient EventBroadcaster broadcaster;
+
+    public EventStreamController() {
+        super();
+    }
+
+    /**
+     * @see HttpServlet#init()
+     */
+    @Override
+    public void init() throws ServletException {
+        broadcaster = (EventBroadcaster) getServletContext().getAttribute(PropertyConst.EVENT_BROADCASTER.getValue());
+    }
+
+    /**
+     * @see HttpServlet#doGet(HttpServletRequest request, HttpServletResponse response)
+     */
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        response.setContentType("text/event-stream");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-store");
+        //リバースプロキシでバッファリングさせない
+        response.setHeader("X-Accel-Buffering", "no");
+
+        AsyncContext async = request.startAsync();
+        async.setTimeout(0); //切断されるまで開いたままにする
+        if (!broadcaster.subscribe(async)) {
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            async.complete();
+        }
+    }
+
+}
@@ -2,7 +2,13 @@ package controllers;
 
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
@@ -12,33 +18,65 @@ import javax.servlet.http.HttpServletResponse;
 import actions.ActionBase;
 import actions.UnknownAction;
 import constants.ForwardConst;
+import constants.PropertyConst;
+import filters.CompressionFilter;
+import utils.DBUtil;
+import utils.ReadConsistency;
 
 /**
  * フロントコントローラ
- *
+ * 仮想スレッドモードの場合は、Actionの処理を非同期処理として仮想スレッドで実行する
+ * (DBの応答を待っている間、コンテナのスレッドを占有しない)
  */
-@WebServlet("/")
+@WebServlet(urlPatterns = { "/", "/api/*" }, asyncSupported = true)
 public class FrontController extends HttpServlet {
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Actionの処理を実行するExecutor(nullの場合はコンテナのスレッドで実行する)
+     */
+    private transient ExecutorService executor;
+
+    /**
+     * DBを使う処理の同時実行数を制限するSemaphore
+     */
+    private transient Semaphore gate;
+
     public FrontController() {
         super();
     }
 
+    /**
+     * @see HttpServlet#init()
+     */
+    @Override
+    public void init() throws ServletException {
+        ServletContext context = getServletContext();
+        executor = (ExecutorService) context.getAttribute(PropertyConst.REQUEST_EXECUTOR.getValue());
+        gate = (Semaphore) context.getAttribute(PropertyConst.DB_GATE.getValue());
+    }
+
     /**
      * @see HttpServlet#doGet(HttpServletRequest request, HttpServletResponse response)
      */
     protected void doGet(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
 
-        //パラメータに該当するActionクラスのインスタンス
-        ActionBase action = getAction(request, response);
-
-        //サーブレットコンテキスト、リクエスト、レスポンスをActionインスタンスのフィールドに設定
-        action.init(getServletContext(), request, response);
+        if (executor == null) {
+            execute(request, response);
+            return;
+        }
 
-        //Actionクラスの処理を呼び出し
-        action.process();
+        //仮想スレッドで処理し、コンテナのスレッドはすぐに返す
+        AsyncContext async = request.startAsync();
+        async.setTimeout(0); //コンテナのスレッドで処理する場合と同じく時間制限なし
+        try {
+            executor.execute(() -> executeGated(async, request, response));
+        } catch (RejectedExecutionException e) {
+            //アプリケーションの停止中
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            async.complete();
+        }
     }
 
 
@@ -50,6 +88,73 @@ public class FrontController extends HttpServlet {
         doGet(request, response);
     }
 
+    /**
+     * 同時実行数の上限内でActionの処理を実行し、非同期処理を完了する(仮想スレッドで実行される)
+     * 各Actionはサービスを作成してから閉じるまでコネクションを保持するため、処理全体を制限の対象とする
+     * @param async 非同期処理のコンテキスト
+     * @param request リクエスト
+     * @param response レスポンス
+     */
+    private void executeGated(AsyncContext async, HttpServletRequest request, HttpServletResponse response) {
+        boolean acquired = false;
+        try {
+            acquired = gate.tryAcquire(DBUtil.getAcquireTimeout(), TimeUnit.MILLISECONDS);
+            if (acquired) {
+                execute(request, response);
+            } else {
+                //上限を超えた状態が続いている場合は、待たせ続けずに503を返す
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            //コンテナのスレッドで処理する場合はコンテナがエラー画面を表示するため、同じく500を返す
+            log("request failed: " + request.getQueryString(), e);
+            try {
+                if (!response.isCommitted()) {
+                    response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                }
+            } catch (IOException | IllegalStateException ignored) {
+            }
+        } finally {
+            if (acquired) {
+                gate.release();
+            }
+            try {
+                //complete()の後はレスポンスに書き込めることが保証されないため、圧縮をこのスレッドで終了してから完了する
+                CompressionFilter.finish(response);
+            } catch (IOException | IllegalStateException ignored) {
+            }
+            async.complete();
+        }
+    }
+
+    /**
+     * パラメータに該当するActionの処理を実行する
+     * @param request リクエスト
+     * @param response レスポンス
+     * @throws ServletException
+     * @throws IOException
+     */
+    private void execute(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        //パラメータに該当するActionクラスのインスタンス
+        ActionBase action = getAction(request, response);
+
+        //サーブレットコンテキスト、リクエスト、レスポンスをActionインスタンスのフィールドに設定
+        action.init(getServletContext(), request, response);
+
+        //書き込んだ直後のクライアントの読み取りをプライマリで行うため、クライアントが最後に書き込んだ時刻をサービスに渡す
+        ReadConsistency.bind(ReadConsistency.of(request, response));
+        try {
+            //Actionクラスの処理を呼び出し
+            action.process();
+        } finally {
+            ReadConsistency.bind(null);
+        }
+    }
+
     /**
      * リクエストパラメータの値から該当するActionクラスのインスタンスを作成し、返却する
      * (例:パラメータが action=Employee の場合、actions.EmployeeActionオブジェクト)
@@ -64,7 +169,10 @@ public class FrontController extends HttpServlet {
         try {
 
             //リクエストからパラメータ"action"の値を取得 (例:"Employee"、"Report")
-            String actionString = request.getParameter(ForwardConst.ACT.getValue());
+            //JSON API(/api/コマンド名)の場合は"Api"
+            String actionString = ForwardConst.PATH_API.getValue().equals(request.getServletPath())
+                    ? ForwardConst.ACT_API.getValue()
+                    : request.getParameter(ForwardConst.ACT.getValue());
 
             //該当するActionオブジェクトを作成 (例:リクエストからパラメータ action=Employee の場合、actions.EmployeeActionオブジェクト)
             type = Class.forName(String.format("actions.%sAction", actionString));
@@ -0,0 +1,146 @@
+package filters;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.zip.Deflater;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.ServletResponseWrapper;
+import javax.servlet.annotation.WebFilter;
+import javax.servlet.annotation.WebInitParam;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import utils.DeflaterPool;
+
+/**
+ * ブラウザがgzipに対応している場合、HTML等のレスポンスをgzip圧縮して返すフィルター
+ * ・一定サイズ未満のレスポンス、対象外のContent-Typeは圧縮しない
+ * ・レスポンス全体を溜めずに逐次圧縮して送信する
+ * ・Deflaterはプールして使い回す
+ * ・後続の処理が非同期処理(仮想スレッドモード・エクスポート)の場合は、非同期処理を完了する側が
+ *   AsyncContext.complete()の前に finish(response) を呼び出して圧縮を終了する
+ *   (complete()の後はレスポンスに書き込めることが保証されないため、gzipのトレーラーまで完了前に送信する)
+ * ※brotliはJDKに圧縮器がないため対応していない(静的ファイルはビルド時に作成したbrotli版を返す)
+ */
+@WebFilter(urlPatterns = "/*", asyncSupported = true, initParams = {
+        @WebInitParam(name = "minSize", value = "1024"),
+        @WebInitParam(name = "level", value = "6"),
+        @WebInitParam(name = "poolSize", value = "64")
+})
+public class CompressionFilter implements Filter {
+
+    /**
+     * 圧縮対象のContent-Type
+     */
+    private static final Set<String> CONTENT_TYPES = Set.of(
+            "text/html",
+            "text/plain",
+            "text/csv",
+            "text/css",
+            "text/javascript",
+            "application/javascript",
+            "application/json",
+            "image/svg+xml");
+
+    private DeflaterPool pool;
+    private int minSize;
+
+    /**
+     * Default constructor.
+     */
+    public CompressionFilter() {
+    }
+
+    /**
+     * @see Filter#destroy()
+     */
+    public void destroy() {
+        pool.close();
+    }
+
+    /**
+     * @see Filter#doFilter(ServletRequest, ServletResponse, FilterChain)
+     */
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest req = (HttpServletRequest) request;
+        HttpServletResponse res = (HttpServletResponse) response;
+
+        if ("HEAD".equals(req.getMethod())
+                || !StaticResourceFilter.accepts(req.getHeader("Accept-Encoding"), "gzip")) {
+            //gzip非対応のブラウザはそのまま
+            chain.doFilter(request, response);
+            return;
+        }
+
+        //Accept-Encodingによって内容が変わることをキャッシュに伝える
+        res.addHeader("Vary", "Accept-Encoding");
+
+        CompressionResponseWrapper wrapper = new CompressionResponseWrapper(res, pool, minSize, CONTENT_TYPES);
+        boolean async = false;
+        try {
+            chain.doFilter(request, wrapper);
+            async = request.isAsyncStarted();
+        } finally {
+            //非同期処理の場合は別のスレッドが書き込み中のため、そのスレッドが完了前にfinishを呼び出す
+            if (!async) {
+                wrapper.finish();
+            }
+        }
+    }
+
+    /**
+     * 圧縮している場合は残りのデータとgzipのトレーラーを送信し、圧縮を終了する(圧縮していない場合は何もしない)
+     * 非同期処理を完了する(AsyncContext.complete)前に、レスポンスに書き込んだスレッドで呼び出す
+     * (時間切れ等で既に完了した非同期処理では呼び出さない)
+     * @param response サーブレットに渡されたレスポンス
+     * @throws IOException
+     */
+    public static void finish(ServletResponse response) throws IOException {
+        while (response instanceof ServletResponseWrapper) {
+            if (response instanceof CompressionResponseWrapper) {
+                ((CompressionResponseWrapper) response).finish();
+                return;
+            }
+            response = ((ServletResponseWrapper) response).getResponse();
+        }
+    }
+
+    /**
+     * @see Filter#init(FilterConfig)
+     */
+    public void init(FilterConfig fConfig) throws ServletException {
+        minSize = intParam(fConfig, "minSize", 1024);
+        int level = intParam(fConfig, "level", Deflater.DEFAULT_COMPRESSION);
+        int poolSize = intParam(fConfig, "poolSize", 64);
+
+        //gzipのヘッダー・トレーラーはラッパー側で書くのでraw deflateを使う
+        pool = new DeflaterPool(level, true, poolSize);
+    }
+
+    /**
+     * 初期化パラメータを数値で取得する
+     * @param fConfig フィルターの設定
+     * @param name パラメータ名
+     * @param defaultValue 未設定・不正な場合の値
+     * @return パラメータの値
+     */
+    private static int intParam(FilterConfig fConfig, String name, int defaultValue) {
+        String value = fConfig.getInitParameter(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+}
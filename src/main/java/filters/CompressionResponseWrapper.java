@@ -0,0 +1,390 @@
+package filters;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import utils.DeflaterPool;
+
+/**
+ * レスポンスボディをgzip圧縮しながら送信するレスポンスラッパー
+ * 最初の minSize バイトだけバッファし、それを超えた時点で圧縮するかどうかを決めて以降は逐次送信する
+ * (レスポンス全体をメモリに溜めない)
+ */
+class CompressionResponseWrapper extends HttpServletResponseWrapper {
+
+    //gzipヘッダー(マジックナンバー、deflate、フラグなし、更新時刻なし、OS不明)
+    private static final byte[] GZIP_HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+
+    private final DeflaterPool pool;
+    private final int minSize;
+    private final Set<String> contentTypes;
+
+    private GzipOutputStream stream;
+    private PrintWriter writer;
+
+    /**
+     * 後続の処理で設定されたContent-Length(圧縮しない場合のみ元のレスポンスに設定する)
+     */
+    private long contentLength = -1;
+
+    /**
+     * コンストラクタ
+     * @param response 元のレスポンス
+     * @param pool Deflaterのプール
+     * @param minSize 圧縮する最小サイズ(バイト)
+     * @param contentTypes 圧縮対象のContent-Type
+     */
+    CompressionResponseWrapper(HttpServletResponse response, DeflaterPool pool, int minSize, Set<String> contentTypes) {
+        super(response);
+        this.pool = pool;
+        this.minSize = minSize;
+        this.contentTypes = contentTypes;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called");
+        }
+        return stream();
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            if (stream != null) {
+                throw new IllegalStateException("getOutputStream() has already been called");
+            }
+            writer = new PrintWriter(new OutputStreamWriter(stream(), getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        setContentLengthLong(len);
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        if (stream != null && stream.state == State.PASSTHROUGH) {
+            super.setContentLengthLong(len);
+        } else {
+            contentLength = len;
+        }
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if ("Content-Length".equalsIgnoreCase(name)) {
+            setContentLengthLong(Long.parseLong(value));
+        } else {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if ("Content-Length".equalsIgnoreCase(name)) {
+            setContentLengthLong(Long.parseLong(value));
+        } else {
+            super.addHeader(name, value);
+        }
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        if ("Content-Length".equalsIgnoreCase(name)) {
+            setContentLengthLong(value);
+        } else {
+            super.setIntHeader(name, value);
+        }
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+        resetPending();
+        super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+        resetPending();
+        super.sendError(sc);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+        resetPending();
+        super.sendRedirect(location);
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        } else if (stream != null) {
+            stream.flush();
+        }
+    }
+
+    @Override
+    public void resetBuffer() {
+        if (stream != null) {
+            stream.resetBuffer();
+        }
+        super.resetBuffer();
+    }
+
+    @Override
+    public void reset() {
+        if (stream != null) {
+            stream.resetBuffer();
+        }
+        contentLength = -1;
+        super.reset();
+    }
+
+    /**
+     * 残りのデータを送信し、圧縮を終了する(複数回呼び出しても問題ない)
+     * @throws IOException
+     */
+    void finish() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (stream != null) {
+            stream.finish();
+        }
+    }
+
+    /**
+     * エラー・リダイレクト時に、まだ送信していないバッファを破棄する
+     */
+    private void resetPending() {
+        if (stream != null && stream.state == State.PENDING) {
+            stream.resetBuffer();
+        }
+    }
+
+    private GzipOutputStream stream() throws IOException {
+        if (stream == null) {
+            stream = new GzipOutputStream(getResponse().getOutputStream());
+        }
+        return stream;
+    }
+
+    /**
+     * 圧縮するかどうかを判定する
+     * @return true: 圧縮する false: 圧縮しない
+     */
+    private boolean isCompressible() {
+        HttpServletResponse res = (HttpServletResponse) getResponse();
+        int status = res.getStatus();
+        if (status < 200 || status == SC_NO_CONTENT || status == SC_NOT_MODIFIED
+                || res.containsHeader("Content-Encoding")
+                || (contentLength >= 0 && contentLength < minSize)) {
+            return false;
+        }
+        String type = res.getContentType();
+        if (type == null) {
+            return false;
+        }
+        int semi = type.indexOf(';');
+        return contentTypes.contains((semi < 0 ? type : type.substring(0, semi)).trim().toLowerCase());
+    }
+
+    /**
+     * 送信状態
+     */
+    private enum State {
+        //最初のminSizeバイトをバッファ中(まだ何も送信していない)
+        PENDING,
+        //gzip圧縮して送信中
+        COMPRESSING,
+        //圧縮せずにそのまま送信中
+        PASSTHROUGH,
+        //送信完了
+        FINISHED
+    }
+
+    /**
+     * gzip形式で逐次圧縮して元のレスポンスに書き込むストリーム
+     */
+    private class GzipOutputStream extends ServletOutputStream {
+        private final ServletOutputStream out;
+        private final byte[] head = new byte[minSize];
+        private int headCount;
+        private State state = State.PENDING;
+
+        private Deflater deflater;
+        private CRC32 crc;
+        private byte[] buf;
+
+        GzipOutputStream(ServletOutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            switch (state) {
+            case PENDING:
+                if (headCount + len < head.length) {
+                    System.arraycopy(b, off, head, headCount, len);
+                    headCount += len;
+                    return;
+                }
+                decide();
+                write(b, off, len);
+                return;
+            case COMPRESSING:
+                crc.update(b, off, len);
+                deflater.setInput(b, off, len);
+                while (!deflater.needsInput()) {
+                    drain(Deflater.NO_FLUSH);
+                }
+                return;
+            case PASSTHROUGH:
+                out.write(b, off, len);
+                return;
+            default:
+                throw new IOException("response has already been finished");
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            switch (state) {
+            case PENDING:
+                //圧縮対象外(イベントストリーム等)は溜めずにすぐ送る
+                //圧縮対象はminSizeに達するまで保留する(少量なので遅延は問題にならない)
+                if (!isCompressible()) {
+                    decide();
+                    out.flush();
+                }
+                return;
+            case COMPRESSING:
+                drain(Deflater.SYNC_FLUSH);
+                out.flush();
+                return;
+            case PASSTHROUGH:
+                out.flush();
+                return;
+            default:
+                return;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+        }
+
+        @Override
+        public boolean isReady() {
+            return state == State.PENDING || out.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            out.setWriteListener(writeListener);
+        }
+
+        /**
+         * バッファした先頭部分をもとに圧縮するかどうかを決め、バッファの内容を送信する
+         */
+        private void decide() throws IOException {
+            if (isCompressible()) {
+                HttpServletResponse res = (HttpServletResponse) getResponse();
+                res.setHeader("Content-Encoding", "gzip");
+                state = State.COMPRESSING;
+                deflater = pool.acquire();
+                crc = new CRC32();
+                buf = new byte[8192];
+                out.write(GZIP_HEADER);
+            } else {
+                state = State.PASSTHROUGH;
+                if (contentLength >= 0) {
+                    getResponse().setContentLengthLong(contentLength);
+                }
+            }
+            int count = headCount;
+            headCount = 0;
+            write(head, 0, count);
+        }
+
+        private void drain(int flush) throws IOException {
+            int n;
+            do {
+                n = deflater.deflate(buf, 0, buf.length, flush);
+                if (n > 0) {
+                    out.write(buf, 0, n);
+                }
+            } while (n == buf.length);
+        }
+
+        void resetBuffer() {
+            if (state == State.PENDING) {
+                headCount = 0;
+            } else if (state == State.COMPRESSING) {
+                throw new IllegalStateException("compressed response has already been started");
+            }
+        }
+
+        void finish() throws IOException {
+            switch (state) {
+            case PENDING:
+                //minSize未満のレスポンスは圧縮せずにContent-Length付きで送信する
+                state = State.PASSTHROUGH;
+                if (headCount > 0) {
+                    if (!getResponse().isCommitted()) {
+                        getResponse().setContentLength(headCount);
+                    }
+                    out.write(head, 0, headCount);
+                }
+                break;
+            case COMPRESSING:
+                try {
+                    deflater.finish();
+                    while (!deflater.finished()) {
+                        drain(Deflater.NO_FLUSH);
+                    }
+                    writeTrailer();
+                } finally {
+                    pool.release(deflater);
+                    deflater = null;
+                }
+                break;
+            default:
+                break;
+            }
+            state = State.FINISHED;
+        }
+
+        private void writeTrailer() throws IOException {
+            long c = crc.getValue();
+            long size = deflater.getBytesRead();
+            byte[] t = new byte[8];
+            for (int i = 0; i < 4; i++) {
+                t[i] = (byte) (c >> (8 * i));
+                t[i + 4] = (byte) (size >> (8 * i));
+            }
+            out.write(t);
+        }
+    }
+
+}
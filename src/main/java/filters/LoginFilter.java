@@ -2,7 +2,7 @@ package filters;
 
 /**
  * 各ページや機能を「ログインしている人のみがページを閲覧できる（操作できる）」ようにするためのフィルター
- * 実装方法は、セッションに login_employee が格納されているかを見てログイン状況を判断し、
+ * 実装方法は、セッション(ステートレスモードの場合は署名付きCookie)に login_employee が格納されているかを見てログイン状況を判断し、
  * ログインしている場合のみ後続の処理（画面の表示やDB操作）を行えるようにするだけです。
  */
 
@@ -23,14 +23,38 @@ import javax.servlet.http.HttpSession;
 import actions.views.EmployeeView;
 import constants.AttributeConst;
 import constants.ForwardConst;
+import constants.PropertyConst;
+import utils.JsonWriter;
+import utils.StatelessSession;
 
 
 /**
  * Servlet Filter implementation class LoginFilter
  */
-@WebFilter("/*")
+@WebFilter(urlPatterns = "/*", asyncSupported = true)
 public class LoginFilter implements Filter {
 
+    /**
+     * ルートの分類表(初期化時に1回だけ作成する)
+     */
+    private RouteTable routes;
+
+    /**
+     * リダイレクト先(コンテキストパスより後ろの部分)
+     */
+    private String loginQuery;
+    private String topQuery;
+
+    /**
+     * エラー画面のjsp
+     */
+    private String errorPage;
+
+    /**
+     * ステートレスモードの処理を行うインスタンス
+     */
+    private StatelessSession stateless;
+
     /**
      * Default constructor.
      */
@@ -48,74 +72,122 @@ public class LoginFilter implements Filter {
      */
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
             throws IOException, ServletException {
-        String contextPath = ((HttpServletRequest) request).getContextPath();
-        String servletPath = ((HttpServletRequest) request).getServletPath();
+        HttpServletRequest req = (HttpServletRequest) request;
+        HttpServletResponse res = (HttpServletResponse) response;
 
-        if(servletPath.matches("/css.*")) {
-            //CSSフォルダ内は認証処理から除外する
+        if (routes.isStatic(req.getServletPath())) {
+            //CSS・JSフォルダ内は認証処理から除外する
             chain.doFilter(request, response);
+            return;
+        }
 
+        //クエリパラメータ(JSON APIの場合はパス)からactionとcommandを取得し、ルートの種別を判定
+        boolean api = routes.isApi(req.getServletPath());
+        ForwardConst action;
+        ForwardConst command;
+        if (api) {
+            action = ForwardConst.ACT_API;
+            command = routes.command(RouteTable.apiCommand(req.getPathInfo()));
         } else {
-            HttpSession session = ((HttpServletRequest) request).getSession();
+            action = routes.action(request.getParameter(ForwardConst.ACT.getValue()));
+            command = routes.command(request.getParameter(ForwardConst.CMD.getValue()));
+        }
+        RouteTable.Access access = routes.classify(action, command);
 
-            //クエリパラメータからactionとcommandを取得
-            String action = request.getParameter(ForwardConst.ACT.getValue());
-            String command = request.getParameter(ForwardConst.CMD.getValue());
+        //ログインしている従業員の情報を取得し、後続の処理のためにリクエストスコープに設定する
+        EmployeeView ev = loginEmployee(req);
+        if (ev != null) {
+            request.setAttribute(AttributeConst.LOGIN_EMP.getValue(), ev);
+        }
 
-            //セッションからログインしている従業員の情報を取得
-            EmployeeView ev = (EmployeeView) session.getAttribute(AttributeConst.LOGIN_EMP.getValue());
+        if (ev == null) {
+            //未ログイン
 
-            if(ev == null) {
-                //未ログイン
+            if (api) {
+                //JSON APIはリダイレクトせずに401を返す
+                apiError(res, HttpServletResponse.SC_UNAUTHORIZED, "login required");
+                return;
+            }
 
-                if(!(ForwardConst.ACT_AUTH.getValue().equals(action)
-                        && (ForwardConst.CMD_SHOW_LOGIN.getValue().equals(command)
-                                || ForwardConst.CMD_LOGIN.getValue().equals(command)))) {
+            if (access != RouteTable.Access.PUBLIC) {
+                //ログインページの表示またはログイン実行以外はログインページにリダイレクト
+                res.sendRedirect(req.getContextPath() + loginQuery);
+                return;
+            }
+        } else {
+            //ログイン済
+
+            if (access == RouteTable.Access.PUBLIC) {
+                if (command == ForwardConst.CMD_SHOW_LOGIN) {
+                    //ログインページの表示はトップ画面にリダイレクト
+                    res.sendRedirect(req.getContextPath() + topQuery);
+                } else {
+                    //上記以外の認証系Actionはエラー画面
+                    RequestDispatcher dispatcher = request.getRequestDispatcher(errorPage);
+                    dispatcher.forward(request, response);
+                }
+                return;
+            }
 
-                    //ログインページの表示またはログイン実行以外(上のif文の条件式)は
-                    //ログインページにリダイレクト(ログイン画面は、ログインしてない時でも表示できないといけないので)
-                    ((HttpServletResponse) response).sendRedirect(
-                            contextPath
-                                    + "?action=" + ForwardConst.ACT_AUTH.getValue()
-                                    + "&command=" + ForwardConst.CMD_SHOW_LOGIN.getValue());
+            if (access == RouteTable.Access.ADMIN
+                    && !AttributeConst.ROLE_ADMIN.getIntegerValue().equals(ev.getAdminFlag())) {
+                if (api) {
+                    apiError(res, HttpServletResponse.SC_FORBIDDEN, "forbidden");
                     return;
                 }
-            } else {
-                //ログイン済
-
-                if(ForwardConst.ACT_AUTH.getValue().equals(action)){
-                   //認証系Actionを行おうとしている場合
-                   if(ForwardConst.CMD_SHOW_LOGIN.getValue().equals(command)) {
-                       //ログインページの表示またはトップ画面にリダイレクト
-                       ((HttpServletResponse)response).sendRedirect(
-                               contextPath
-                               + "?action=" + ForwardConst.ACT_TOP.getValue()
-                               + "&command=" + ForwardConst.CMD_INDEX.getValue());
-                       return;
-                   } else if (ForwardConst.CMD_LOGOUT.getValue().equals(command)) {
-                       //ログアウトの実施は許可
-
-                   } else {
-                       //上記以外の認証系Actionはエラー画面
-
-                       String forward = String.format("/WEB-INF/views/%s.jsp","error/unknown");
-                       RequestDispatcher dispatcher = request.getRequestDispatcher(forward);
-                       dispatcher.forward(request,response);
-
-                       return;
-
-                   }
+                //管理者以外が管理者用の機能を使おうとした場合はエラー画面
+                RequestDispatcher dispatcher = request.getRequestDispatcher(errorPage);
+                dispatcher.forward(request, response);
+                return;
             }
         }
 
         //次のフィルターまたはサーブレットを呼び出し
         chain.doFilter(request, response);
     }
+
+    /**
+     * ログインしている従業員の情報を取得する
+     * ステートレスモードの場合は署名付きCookie、それ以外はセッション(セッションがなければ作成しない)から取得する
+     * @param req リクエスト
+     * @return ログインしている従業員 未ログインの場合null
+     */
+    private EmployeeView loginEmployee(HttpServletRequest req) {
+        if (stateless.isEnabled()) {
+            String token = StatelessSession.getCookie(req, AttributeConst.COOKIE_LOGIN.getValue());
+            return token == null ? null : stateless.readLogin(token, System.currentTimeMillis() / 1000);
+        }
+        HttpSession session = req.getSession(false);
+        return session == null ? null : (EmployeeView) session.getAttribute(AttributeConst.LOGIN_EMP.getValue());
+    }
+
+    /**
+     * JSON APIのエラーを返す
+     * @param res レスポンス
+     * @param status ステータスコード
+     * @param message エラーの内容
+     */
+    private void apiError(HttpServletResponse res, int status, String message) throws IOException {
+        res.setStatus(status);
+        res.setContentType("application/json");
+        res.setCharacterEncoding("UTF-8");
+        new JsonWriter(res.getWriter()).beginObject().name("error").value(message).endObject();
     }
+
     /**
      * @see Filter#init(FilterConfig)
      */
     public void init(FilterConfig fConfig) throws ServletException {
+        //ステートレスモードの設定を読み込み、Actionからも使えるようにアプリケーションスコープに保持する
+        stateless = StatelessSession.create(fConfig.getServletContext());
+        fConfig.getServletContext().setAttribute(PropertyConst.STATELESS_SESSION.getValue(), stateless);
+
+        routes = new RouteTable();
+        loginQuery = "?action=" + ForwardConst.ACT_AUTH.getValue()
+                + "&command=" + ForwardConst.CMD_SHOW_LOGIN.getValue();
+        topQuery = "?action=" + ForwardConst.ACT_TOP.getValue()
+                + "&command=" + ForwardConst.CMD_INDEX.getValue();
+        errorPage = String.format("/WEB-INF/views/%s.jsp", ForwardConst.FW_ERR_UNKNOWN.getValue());
     }
 
 }
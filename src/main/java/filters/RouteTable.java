@@ -0,0 +1,166 @@
+package filters;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+import constants.ForwardConst;
+
+/**
+ * リクエスト(パス、action、command)を、ログインが必要かどうか等の種別に分類するクラス
+ * フィルターの初期化時に1回だけ作成し、リクエストごとには正規表現や文字列の比較を繰り返さずに
+ * Map・EnumMapの参照だけで判定する
+ */
+public class RouteTable {
+
+    /**
+     * ルートの種別
+     */
+    public enum Access {
+        //静的ファイル(認証処理・セッションの対象外)
+        STATIC,
+        //未ログインでも利用できる(ログイン画面の表示・ログイン実行)
+        PUBLIC,
+        //ログインが必要
+        AUTHENTICATED,
+        //管理者権限が必要
+        ADMIN
+    }
+
+    /**
+     * 認証処理の対象外とするパスの先頭部分
+     */
+    private static final String[] STATIC_PREFIXES = { "/css/", "/js/" };
+
+    /**
+     * パラメータの値(文字列)→ForwardConstの逆引き
+     */
+    private final Map<String, ForwardConst> actions = new HashMap<>();
+    private final Map<String, ForwardConst> commands = new HashMap<>();
+
+    /**
+     * actionごとの種別(commandによらない)
+     */
+    private final EnumMap<ForwardConst, Access> actionAccess = new EnumMap<>(ForwardConst.class);
+
+    /**
+     * action・commandの組み合わせごとの種別(actionごとの種別より優先する)
+     */
+    private final EnumMap<ForwardConst, EnumMap<ForwardConst, Access>> commandAccess = new EnumMap<>(ForwardConst.class);
+
+    /**
+     * コンストラクタ
+     * ルートの種別の定義はここにまとめる(定義がないactionはログインが必要とする)
+     */
+    public RouteTable() {
+        for (ForwardConst fc : ForwardConst.values()) {
+            if (fc.name().startsWith("ACT_")) {
+                actions.put(fc.getValue(), fc);
+            } else if (fc.name().startsWith("CMD_")) {
+                commands.put(fc.getValue(), fc);
+            }
+        }
+
+        //ログイン画面の表示とログイン実行のみ未ログインで利用できる
+        put(ForwardConst.ACT_AUTH, ForwardConst.CMD_SHOW_LOGIN, Access.PUBLIC);
+        put(ForwardConst.ACT_AUTH, ForwardConst.CMD_LOGIN, Access.PUBLIC);
+
+        //従業員管理は管理者のみ(APIの従業員の参照も同じ)
+        actionAccess.put(ForwardConst.ACT_EMP, Access.ADMIN);
+        put(ForwardConst.ACT_API, ForwardConst.CMD_API_EMPLOYEE, Access.ADMIN);
+    }
+
+    /**
+     * パスがJSON API(イベントの配信を含む)かどうかを判定する
+     * @param servletPath サーブレットパス
+     * @return true: JSON API(actionはApi) false: それ以外
+     */
+    public boolean isApi(String servletPath) {
+        String api = ForwardConst.PATH_API.getValue();
+        return servletPath.startsWith(api)
+                && (servletPath.length() == api.length() || servletPath.charAt(api.length()) == '/');
+    }
+
+    /**
+     * JSON APIのパス(/api/コマンド名)からcommandの値を取得する
+     * @param pathInfo サーブレットパスより後ろの部分
+     * @return commandの値 パスにない場合null
+     */
+    public static String apiCommand(String pathInfo) {
+        return pathInfo == null || pathInfo.length() <= 1 ? null : pathInfo.substring(1);
+    }
+
+    /**
+     * パスが静的ファイルかどうかを判定する
+     * @param servletPath サーブレットパス
+     * @return true: 静的ファイル false: それ以外
+     */
+    public boolean isStatic(String servletPath) {
+        for (String prefix : STATIC_PREFIXES) {
+            if (servletPath.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * パラメータのactionの値に該当するForwardConstを返却する
+     * @param action パラメータの値
+     * @return ForwardConst 該当しない場合null
+     */
+    public ForwardConst action(String action) {
+        return action == null ? null : actions.get(action);
+    }
+
+    /**
+     * パラメータのcommandの値に該当するForwardConstを返却する
+     * @param command パラメータの値
+     * @return ForwardConst 該当しない場合null
+     */
+    public ForwardConst command(String command) {
+        return command == null ? null : commands.get(command);
+    }
+
+    /**
+     * リクエストを分類する
+     * @param servletPath サーブレットパス
+     * @param action パラメータのactionの値
+     * @param command パラメータのcommandの値
+     * @return ルートの種別
+     */
+    public Access classify(String servletPath, String action, String command) {
+        if (isStatic(servletPath)) {
+            return Access.STATIC;
+        }
+        return classify(action(action), command(command));
+    }
+
+    /**
+     * action・commandの組み合わせを分類する
+     * @param action action(該当なしの場合null)
+     * @param command command(該当なしの場合null)
+     * @return ルートの種別
+     */
+    public Access classify(ForwardConst action, ForwardConst command) {
+        if (action == null) {
+            return Access.AUTHENTICATED;
+        }
+        if (command != null) {
+            EnumMap<ForwardConst, Access> byCommand = commandAccess.get(action);
+            if (byCommand != null) {
+                Access access = byCommand.get(command);
+                if (access != null) {
+                    return access;
+                }
+            }
+        }
+        Access access = actionAccess.get(action);
+        return access != null ? access : Access.AUTHENTICATED;
+    }
+
+    private void put(ForwardConst action, ForwardConst command, Access access) {
+        commandAccess.computeIfAbsent(action, k -> new EnumMap<>(ForwardConst.class)).put(command, access);
+    }
+
+}
@@ -0,0 +1,252 @@
+package filters;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 静的ファイル(css/js)を配信するフィルター
+ * 後続のフィルター(ログインチェック等)やセッションを経由せずに、このフィルターで直接レスポンスを返す
+ * ・ファイル名にハッシュ値が付いているファイルは内容が変わらないため、1年間キャッシュさせる
+ * ・ブラウザが対応していれば、ビルド時に作成した圧縮版(.br / .gz)を返す
+ * ※web.xmlで他のフィルターより先に登録する
+ */
+public class StaticResourceFilter implements Filter {
+
+    //ハッシュ付きファイルのキャッシュ指定
+    private static final String CACHE_IMMUTABLE = "public, max-age=31536000, immutable";
+    //ハッシュなしファイルのキャッシュ指定(毎回ETagで確認させる)
+    private static final String CACHE_REVALIDATE = "no-cache";
+
+    //ビルド時に付けるハッシュ値の桁数
+    private static final int HASH_LENGTH = 12;
+
+    private ServletContext context;
+
+    /**
+     * パスごとのファイル情報(存在するファイルのみ登録する)
+     */
+    private final ConcurrentHashMap<String, Asset> assets = new ConcurrentHashMap<>();
+
+    /**
+     * Default constructor.
+     */
+    public StaticResourceFilter() {
+    }
+
+    /**
+     * @see Filter#destroy()
+     */
+    public void destroy() {
+    }
+
+    /**
+     * @see Filter#doFilter(ServletRequest, ServletResponse, FilterChain)
+     */
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest req = (HttpServletRequest) request;
+        HttpServletResponse res = (HttpServletResponse) response;
+
+        String method = req.getMethod();
+        boolean head = "HEAD".equals(method);
+        if (!head && !"GET".equals(method)) {
+            res.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+            return;
+        }
+
+        String path = req.getRequestURI().substring(req.getContextPath().length());
+        Asset asset = findAsset(path);
+        if (asset == null) {
+            res.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        res.setHeader("Cache-Control", asset.immutable ? CACHE_IMMUTABLE : CACHE_REVALIDATE);
+        res.setHeader("ETag", asset.etag);
+        if (asset.brotli || asset.gzip) {
+            res.setHeader("Vary", "Accept-Encoding");
+        }
+
+        if (asset.etag.equals(req.getHeader("If-None-Match"))) {
+            res.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        //圧縮版の選択(brotli → gzip → 非圧縮の順)
+        String acceptEncoding = req.getHeader("Accept-Encoding");
+        String variant = asset.path;
+        long length = asset.length;
+        if (asset.brotli && accepts(acceptEncoding, "br")) {
+            res.setHeader("Content-Encoding", "br");
+            variant = asset.path + ".br";
+            length = asset.brotliLength;
+        } else if (asset.gzip && accepts(acceptEncoding, "gzip")) {
+            res.setHeader("Content-Encoding", "gzip");
+            variant = asset.path + ".gz";
+            length = asset.gzipLength;
+        }
+
+        res.setContentType(asset.contentType);
+        res.setContentLengthLong(length);
+        if (head) {
+            return;
+        }
+
+        try (InputStream in = context.getResourceAsStream(variant)) {
+            ServletOutputStream out = res.getOutputStream();
+            in.transferTo(out);
+        }
+    }
+
+    /**
+     * @see Filter#init(FilterConfig)
+     */
+    public void init(FilterConfig fConfig) throws ServletException {
+        this.context = fConfig.getServletContext();
+    }
+
+    /**
+     * パスに該当するファイル情報を取得する(初回のみファイルを調べる)
+     * @param path コンテキストパスを除いたリクエストパス
+     * @return ファイル情報 存在しない場合null
+     * @throws IOException
+     */
+    private Asset findAsset(String path) throws IOException {
+        Asset asset = assets.get(path);
+        if (asset == null && !path.endsWith("/") && !path.contains("..")
+                && !path.endsWith(".gz") && !path.endsWith(".br")) {
+            URL url = context.getResource(path);
+            if (url != null) {
+                asset = new Asset(path, url);
+                assets.putIfAbsent(path, asset);
+            }
+        }
+        return asset;
+    }
+
+    /**
+     * Accept-Encodingヘッダーに指定の圧縮形式が含まれているか(q=0で拒否されていないか)を判定する
+     * @param header Accept-Encodingヘッダーの値
+     * @param coding 圧縮形式
+     * @return true: 対応している false: 対応していない
+     */
+    static boolean accepts(String header, String coding) {
+        if (header == null) {
+            return false;
+        }
+        int from = 0;
+        while (from < header.length()) {
+            int end = header.indexOf(',', from);
+            if (end < 0) {
+                end = header.length();
+            }
+            String token = header.substring(from, end).trim();
+            int semi = token.indexOf(';');
+            String name = semi < 0 ? token : token.substring(0, semi).trim();
+            if (name.equalsIgnoreCase(coding)) {
+                return semi < 0 || !isZeroQuality(token.substring(semi + 1).trim());
+            }
+            from = end + 1;
+        }
+        return false;
+    }
+
+    /**
+     * パラメータが q=0 (拒否)かどうかを判定する
+     */
+    private static boolean isZeroQuality(String param) {
+        if (!param.startsWith("q=")) {
+            return false;
+        }
+        try {
+            return Double.parseDouble(param.substring(2)) == 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 配信するファイルの情報
+     */
+    private class Asset {
+        final String path;
+        final String contentType;
+        final boolean immutable;
+        final long length;
+        final String etag;
+        final boolean gzip;
+        final long gzipLength;
+        final boolean brotli;
+        final long brotliLength;
+
+        Asset(String path, URL url) throws IOException {
+            this.path = path;
+
+            String mime = context.getMimeType(path);
+            if (mime == null) {
+                mime = "application/octet-stream";
+            } else if (mime.startsWith("text/") || mime.endsWith("javascript")) {
+                mime = mime + ";charset=UTF-8";
+            }
+            this.contentType = mime;
+            this.immutable = isFingerprinted(path);
+
+            URLConnection conn = url.openConnection();
+            this.length = conn.getContentLengthLong();
+            this.etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(conn.getLastModified()) + "\"";
+            conn.getInputStream().close();
+
+            this.gzipLength = variantLength(path + ".gz");
+            this.gzip = gzipLength >= 0;
+            this.brotliLength = variantLength(path + ".br");
+            this.brotli = brotliLength >= 0;
+        }
+
+        /**
+         * 圧縮版ファイルのサイズを取得する
+         * @return ファイルサイズ 存在しない場合-1
+         */
+        private long variantLength(String variant) throws IOException {
+            URL url = context.getResource(variant);
+            if (url == null) {
+                return -1;
+            }
+            URLConnection conn = url.openConnection();
+            long len = conn.getContentLengthLong();
+            conn.getInputStream().close();
+            return len;
+        }
+
+        /**
+         * ファイル名がビルド時に付けたハッシュ値を含むか(例: style.0123456789ab.css)を判定する
+         */
+        private boolean isFingerprinted(String path) {
+            int extDot = path.lastIndexOf('.');
+            int hashDot = extDot > 0 ? path.lastIndexOf('.', extDot - 1) : -1;
+            if (hashDot < 0 || extDot - hashDot - 1 != HASH_LENGTH) {
+                return false;
+            }
+            for (int i = hashDot + 1; i < extDot; i++) {
+                if (Character.digit(path.charAt(i), 16) < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+}
@@ -0,0 +1,75 @@
+package listeners;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import javax.servlet.ServletContext;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+import constants.PropertyConst;
+
+/**
+ * ビルド時に作成されたアセットマニフェスト(元のパス→ハッシュ付きパス)を読み込み、
+ * アプリケーションスコープに設定するリスナー
+ * マニフェストがない場合(IDEから直接起動した場合など)は元のパスをそのまま返す
+ */
+@WebListener
+public class AssetManifestListener implements ServletContextListener {
+
+    /**
+     * マニフェストファイルのパス
+     */
+    public static final String MANIFEST_PATH = "/WEB-INF/asset-manifest.properties";
+
+    public AssetManifestListener() {
+    }
+
+    /**
+     * Webアプリケーションのシャットダウン時に実行する処理
+     */
+    public void contextDestroyed(ServletContextEvent arg0) {
+    }
+
+    /**
+     * Webアプリケーションの起動時に実行する処理
+     */
+    public void contextInitialized(ServletContextEvent arg0) {
+        ServletContext context = arg0.getServletContext();
+
+        Map<String, String> assets = new AssetMap();
+
+        try (InputStream is = context.getResourceAsStream(MANIFEST_PATH)) {
+            if (is != null) {
+                Properties manifest = new Properties();
+                manifest.load(is);
+                for (String name : manifest.stringPropertyNames()) {
+                    assets.put(name, manifest.getProperty(name));
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        //JSPからは ${assets['/css/style.css']} のように参照する
+        context.setAttribute(PropertyConst.ASSETS.getValue(), assets);
+    }
+
+    /**
+     * マニフェストに登録されていないパスはそのまま返すMap
+     */
+    private static class AssetMap extends HashMap<String, String> {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public String get(Object key) {
+            String value = super.get(key);
+            return value != null ? value : (String) key;
+        }
+    }
+
+}
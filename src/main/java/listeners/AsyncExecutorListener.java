@@ -0,0 +1,91 @@
+package listeners;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.ServletContext;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+import constants.PropertyConst;
+
+/**
+ * 時間のかかる処理(ActionBase.runAsync)を実行するスレッドプールを作成し、
+ * アプリケーションスコープに設定するリスナー
+ * スレッド数・待ち行列の長さはシステムプロパティで指定する(待ち行列が埋まっている場合は503を返す)
+ *   drs.async.threads  スレッド数
+ *   drs.async.queue    実行待ちにできる件数
+ */
+@WebListener
+public class AsyncExecutorListener implements ServletContextListener {
+
+    private static final String PROP_THREADS = "drs.async.threads";
+    private static final String PROP_QUEUE = "drs.async.queue";
+
+    //スレッド数・待ち行列の長さの初期値
+    private static final int DEFAULT_THREADS = 4;
+    private static final int DEFAULT_QUEUE = 16;
+
+    //シャットダウン時に実行中の処理を待つ時間(秒)
+    private static final long SHUTDOWN_WAIT = 10;
+
+    private ThreadPoolExecutor executor;
+
+    public AsyncExecutorListener() {
+    }
+
+    /**
+     * Webアプリケーションのシャットダウン時に実行する処理
+     */
+    public void contextDestroyed(ServletContextEvent arg0) {
+        //実行中の処理を待ち、終わらない場合は割り込みをかけて停止する
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_WAIT, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Webアプリケーションの起動時に実行する処理
+     */
+    public void contextInitialized(ServletContextEvent arg0) {
+        ServletContext context = arg0.getServletContext();
+
+        int threads = Integer.getInteger(PROP_THREADS, DEFAULT_THREADS);
+        int queue = Integer.getInteger(PROP_QUEUE, DEFAULT_QUEUE);
+
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queue), new AsyncThreadFactory());
+        executor.allowCoreThreadTimeOut(true);
+
+        context.setAttribute(PropertyConst.ASYNC_EXECUTOR.getValue(), executor);
+    }
+
+    /**
+     * スレッドに名前を付け、Webアプリケーションのクラスローダーを設定するThreadFactory
+     * (スレッドが作成されるタイミングによらず、アプリのクラス・リソースを参照できるようにする)
+     */
+    private static class AsyncThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+        private final ClassLoader loader = AsyncExecutorListener.class.getClassLoader();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "drs-async-" + count.incrementAndGet());
+            t.setContextClassLoader(loader);
+            t.setDaemon(true);
+            return t;
+        }
+    }
+
+}
@@ -0,0 +1,123 @@
+package listeners;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+import actions.views.EmployeeConverter;
+import constants.PropertyConst;
+import utils.EmployeeSummaryCache;
+import utils.FragmentCache;
+import utils.TopPageCache;
+
+/**
+ * 画面の描画結果等のキャッシュを作成し、アプリケーションスコープに設定するリスナー
+ * 日報の作成者として表示する従業員の概要のキャッシュは、EmployeeConverterに設定する
+ * 統計情報はJMX(daily_report_system:type=FragmentCache, TopPageCache, EmployeeSummaryCache)で参照できる
+ *   drs.fragment.cache.bytes    描画済みHTMLのキャッシュの容量(バイト)
+ *   drs.top.cache.entries       トップページのキャッシュの件数の上限(従業員数)
+ *   drs.top.cache.idle.seconds  トップページのキャッシュを参照されなくなってから削除するまでの時間(秒)
+ *   drs.employee.cache.entries  従業員の概要のキャッシュの件数の上限(従業員数)
+ */
+@WebListener
+public class CacheListener implements ServletContextListener {
+
+    private static final String PROP_FRAGMENT_BYTES = "drs.fragment.cache.bytes";
+
+    //描画済みHTMLのキャッシュの容量の初期値(バイト)
+    private static final long DEFAULT_FRAGMENT_BYTES = 4 * 1024 * 1024;
+
+    private static final String PROP_TOP_ENTRIES = "drs.top.cache.entries";
+    private static final String PROP_TOP_IDLE_SECONDS = "drs.top.cache.idle.seconds";
+
+    //トップページのキャッシュの件数の上限・参照されなくなってから削除するまでの時間(秒)の初期値
+    private static final int DEFAULT_TOP_ENTRIES = 1000;
+    private static final long DEFAULT_TOP_IDLE_SECONDS = 600;
+
+    private static final String PROP_EMPLOYEE_ENTRIES = "drs.employee.cache.entries";
+
+    //従業員の概要のキャッシュの件数の上限の初期値(10万人で約18MB)
+    private static final int DEFAULT_EMPLOYEE_ENTRIES = 100000;
+
+    private ObjectName fragmentName;
+    private ObjectName topPageName;
+    private ObjectName employeeName;
+    private EmployeeSummaryCache employees;
+
+    public CacheListener() {
+    }
+
+    /**
+     * Webアプリケーションのシャットダウン時に実行する処理
+     */
+    public void contextDestroyed(ServletContextEvent arg0) {
+        ServletContext context = arg0.getServletContext();
+        context.log("fragment cache: " + context.getAttribute(PropertyConst.FRAGMENT_CACHE.getValue()));
+        context.log("top page cache: " + context.getAttribute(PropertyConst.TOP_PAGE_CACHE.getValue()));
+        context.log("employee summary cache: " + employees);
+        EmployeeConverter.setSummaryCache(null);
+        unregister(fragmentName);
+        unregister(topPageName);
+        unregister(employeeName);
+    }
+
+    /**
+     * Webアプリケーションの起動時に実行する処理
+     */
+    public void contextInitialized(ServletContextEvent arg0) {
+        ServletContext context = arg0.getServletContext();
+
+        FragmentCache fragments = new FragmentCache(Long.getLong(PROP_FRAGMENT_BYTES, DEFAULT_FRAGMENT_BYTES));
+        context.setAttribute(PropertyConst.FRAGMENT_CACHE.getValue(), fragments);
+        fragmentName = register(context, "FragmentCache", fragments);
+
+        TopPageCache topPages = new TopPageCache(Integer.getInteger(PROP_TOP_ENTRIES, DEFAULT_TOP_ENTRIES),
+                Long.getLong(PROP_TOP_IDLE_SECONDS, DEFAULT_TOP_IDLE_SECONDS));
+        context.setAttribute(PropertyConst.TOP_PAGE_CACHE.getValue(), topPages);
+        topPageName = register(context, "TopPageCache", topPages);
+
+        employees = new EmployeeSummaryCache(Integer.getInteger(PROP_EMPLOYEE_ENTRIES, DEFAULT_EMPLOYEE_ENTRIES));
+        EmployeeConverter.setSummaryCache(employees);
+        employeeName = register(context, "EmployeeSummaryCache", employees);
+    }
+
+    /**
+     * 統計情報をJMXに登録する(登録できない場合もアプリケーションの動作には影響しない)
+     * @param context サーブレットコンテキスト
+     * @param type 種類
+     * @param mbean 統計情報
+     * @return 登録した名前 登録できなかった場合null
+     */
+    private static ObjectName register(ServletContext context, String type, Object mbean) {
+        try {
+            ObjectName name = new ObjectName("daily_report_system:type=" + type
+                    + ",context=" + ObjectName.quote(context.getContextPath()));
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(mbean, name);
+            return name;
+        } catch (JMException e) {
+            context.log("failed to register " + type + " to JMX", e);
+            return null;
+        }
+    }
+
+    private static void unregister(ObjectName name) {
+        if (name == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        } catch (JMException e) {
+        }
+    }
+
+}
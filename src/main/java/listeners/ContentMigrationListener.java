@@ -0,0 +1,96 @@
+package listeners;
+
+import javax.servlet.ServletContext;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+import services.ReportService;
+
+/**
+ * 圧縮を導入する前に登録された日報の内容を、バックグラウンドで圧縮した形式に書き換えるリスナー
+ * (ReportService.migrateContent を一定件数ずつ、間隔を空けて最後の日報まで繰り返す)
+ * 書き換えの前後で内容は変わらず、どちらの形式も読み込めるため、画面の処理と並行して実行できる
+ *   drs.content.migrate           true: 起動時に移行を開始する(初期値はfalse)
+ *   drs.content.migrate.chunk     1回のトランザクションで処理する件数
+ *   drs.content.migrate.pause.ms  次の処理までの間隔(ミリ秒)
+ */
+@WebListener
+public class ContentMigrationListener implements ServletContextListener {
+
+    private static final String PROP_ENABLED = "drs.content.migrate";
+    private static final String PROP_CHUNK = "drs.content.migrate.chunk";
+    private static final String PROP_PAUSE = "drs.content.migrate.pause.ms";
+
+    //1回に処理する件数・次の処理までの間隔(ミリ秒)の初期値
+    private static final int DEFAULT_CHUNK = 200;
+    private static final long DEFAULT_PAUSE = 100;
+
+    private Thread worker;
+
+    public ContentMigrationListener() {
+    }
+
+    /**
+     * Webアプリケーションのシャットダウン時に実行する処理
+     */
+    public void contextDestroyed(ServletContextEvent arg0) {
+        //処理中のトランザクションが終わった時点で停止する
+        if (worker != null) {
+            worker.interrupt();
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Webアプリケーションの起動時に実行する処理
+     */
+    public void contextInitialized(ServletContextEvent arg0) {
+        if (!Boolean.getBoolean(PROP_ENABLED)) {
+            return;
+        }
+        ServletContext context = arg0.getServletContext();
+        int chunk = Integer.getInteger(PROP_CHUNK, DEFAULT_CHUNK);
+        long pause = Long.getLong(PROP_PAUSE, DEFAULT_PAUSE);
+
+        worker = new Thread(() -> migrate(context, chunk, pause), "drs-content-migration");
+        worker.setDaemon(true);
+        worker.setContextClassLoader(ContentMigrationListener.class.getClassLoader());
+        worker.start();
+    }
+
+    /**
+     * 最後の日報まで、または停止されるまで移行を繰り返す
+     * @param context サーブレットコンテキスト(ログの出力に使う)
+     * @param chunk 1回に処理する件数
+     * @param pause 次の処理までの間隔(ミリ秒)
+     */
+    private static void migrate(ServletContext context, int chunk, long pause) {
+        int lastId = 0;
+        context.log("content migration: started");
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                try (ReportService service = new ReportService()) {
+                    int id = service.migrateContent(lastId, chunk);
+                    if (id == 0) {
+                        context.log("content migration: finished");
+                        return;
+                    }
+                    lastId = id;
+                }
+                Thread.sleep(pause);
+            }
+        } catch (InterruptedException e) {
+            //シャットダウン
+        } catch (RuntimeException e) {
+            context.log("content migration: failed after id " + lastId, e);
+            return;
+        }
+        context.log("content migration: stopped after id " + lastId);
+    }
+
+}
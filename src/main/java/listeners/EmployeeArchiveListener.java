@@ -0,0 +1,103 @@
+package listeners;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletContext;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+import services.EmployeeService;
+
+/**
+ * 削除されてから一定期間が過ぎた従業員を、定期的にアーカイブテーブルに移すリスナー
+ * (EmployeeService.archiveDeleted を対象がなくなるまで一定件数ずつ繰り返す)
+ * 移した従業員は従業員一覧・件数・ログインの対象から外れ、日報の作成者としてのみ表示される
+ *   drs.employee.archive                 true: 定期的にアーカイブを行う(初期値はfalse)
+ *   drs.employee.archive.days            削除されてからアーカイブするまでの日数
+ *   drs.employee.archive.interval.hours  アーカイブを行う間隔(時間)
+ *   drs.employee.archive.chunk           1回のトランザクションで移す件数
+ */
+@WebListener
+public class EmployeeArchiveListener implements ServletContextListener {
+
+    private static final String PROP_ENABLED = "drs.employee.archive";
+    private static final String PROP_DAYS = "drs.employee.archive.days";
+    private static final String PROP_INTERVAL_HOURS = "drs.employee.archive.interval.hours";
+    private static final String PROP_CHUNK = "drs.employee.archive.chunk";
+
+    //アーカイブするまでの日数・間隔(時間)・1回に移す件数の初期値
+    private static final long DEFAULT_DAYS = 365;
+    private static final long DEFAULT_INTERVAL_HOURS = 24;
+    private static final int DEFAULT_CHUNK = 100;
+
+    //起動直後のアクセスと重ならないよう、初回はこの時間(分)が過ぎてから行う
+    private static final long INITIAL_DELAY_MINUTES = 1;
+
+    private ScheduledExecutorService scheduler;
+
+    public EmployeeArchiveListener() {
+    }
+
+    /**
+     * Webアプリケーションのシャットダウン時に実行する処理
+     */
+    public void contextDestroyed(ServletContextEvent arg0) {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Webアプリケーションの起動時に実行する処理
+     */
+    public void contextInitialized(ServletContextEvent arg0) {
+        if (!Boolean.getBoolean(PROP_ENABLED)) {
+            return;
+        }
+        ServletContext context = arg0.getServletContext();
+        long days = Long.getLong(PROP_DAYS, DEFAULT_DAYS);
+        int chunk = Integer.getInteger(PROP_CHUNK, DEFAULT_CHUNK);
+        long interval = TimeUnit.HOURS.toMinutes(Long.getLong(PROP_INTERVAL_HOURS, DEFAULT_INTERVAL_HOURS));
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "drs-employee-archive");
+            t.setDaemon(true);
+            t.setContextClassLoader(EmployeeArchiveListener.class.getClassLoader());
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> archive(context, days, chunk),
+                INITIAL_DELAY_MINUTES, interval, TimeUnit.MINUTES);
+    }
+
+    /**
+     * 対象の従業員がなくなるまでアーカイブを繰り返す
+     * @param context サーブレットコンテキスト(ログの出力に使う)
+     * @param days 削除されてからアーカイブするまでの日数
+     * @param chunk 1回に移す件数
+     */
+    private static void archive(ServletContext context, long days, int chunk) {
+        LocalDateTime deletedBefore = LocalDateTime.now().minusDays(days);
+        int total = 0;
+        try {
+            int count;
+            do {
+                try (EmployeeService service = new EmployeeService()) {
+                    count = service.archiveDeleted(deletedBefore, chunk);
+                }
+                total += count;
+            } while (count == chunk && !Thread.currentThread().isInterrupted());
+        } catch (RuntimeException e) {
+            //次の実行で続きから行う
+            context.log("employee archive: failed after " + total + " employees", e);
+            return;
+        }
+        if (total > 0) {
+            context.log("employee archive: " + total + " employees archived");
+        }
+    }
+
+}
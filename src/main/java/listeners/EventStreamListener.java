@@ -0,0 +1,72 @@
+package listeners;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletContext;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+import constants.PropertyConst;
+import services.ReportService;
+import utils.EventBroadcaster;
+
+/**
+ * 日報のイベント(Server-Sent Events)の配信を行うインスタンスを作成し、
+ * アプリケーションスコープとReportService(コミット後に配信する)に設定するリスナー
+ *   drs.sse.max.connections    同時接続数の上限
+ *   drs.sse.buffer.events      接続ごとに送信待ちにできるイベントの件数(超えた接続は切断する)
+ *   drs.sse.heartbeat.seconds  接続を維持するためのコメントを送る間隔(秒)
+ */
+@WebListener
+public class EventStreamListener implements ServletContextListener {
+
+    private static final String PROP_MAX_CONNECTIONS = "drs.sse.max.connections";
+    private static final String PROP_BUFFER_EVENTS = "drs.sse.buffer.events";
+    private static final String PROP_HEARTBEAT_SECONDS = "drs.sse.heartbeat.seconds";
+
+    //同時接続数・送信待ちの件数・コメントを送る間隔(秒)の初期値
+    private static final int DEFAULT_MAX_CONNECTIONS = 1000;
+    private static final int DEFAULT_BUFFER_EVENTS = 32;
+    private static final long DEFAULT_HEARTBEAT_SECONDS = 30;
+
+    private EventBroadcaster broadcaster;
+    private ScheduledExecutorService heartbeat;
+
+    public EventStreamListener() {
+    }
+
+    /**
+     * Webアプリケーションのシャットダウン時に実行する処理
+     */
+    public void contextDestroyed(ServletContextEvent arg0) {
+        heartbeat.shutdownNow();
+        ReportService.setEventBroadcaster(null);
+        arg0.getServletContext().log("event stream: " + broadcaster);
+        broadcaster.close();
+    }
+
+    /**
+     * Webアプリケーションの起動時に実行する処理
+     */
+    public void contextInitialized(ServletContextEvent arg0) {
+        ServletContext context = arg0.getServletContext();
+
+        broadcaster = new EventBroadcaster(
+                Integer.getInteger(PROP_MAX_CONNECTIONS, DEFAULT_MAX_CONNECTIONS),
+                Integer.getInteger(PROP_BUFFER_EVENTS, DEFAULT_BUFFER_EVENTS));
+        context.setAttribute(PropertyConst.EVENT_BROADCASTER.getValue(), broadcaster);
+        ReportService.setEventBroadcaster(broadcaster);
+
+        long interval = Long.getLong(PROP_HEARTBEAT_SECONDS, DEFAULT_HEARTBEAT_SECONDS);
+        heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "drs-sse-heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
+        heartbeat.scheduleWithFixedDelay(broadcaster::heartbeat, interval, interval, TimeUnit.SECONDS);
+    }
+
+}
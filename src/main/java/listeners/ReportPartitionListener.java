@@ -0,0 +1,106 @@
+package listeners;
+
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletContext;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+import services.ReportService;
+
+/**
+ * 日報の日付の範囲で分割した日報テーブル(MySQL)の分割を、定期的に管理するリスナー
+ * (ReportService.maintainPartitions で先の期間の分割を追加し、指定した場合は古い分割を別のテーブルに切り離す)
+ * 日報の一覧・件数は常に日付の範囲を条件にするため、分割している場合は範囲外の分割を読まない
+ *   drs.report.partition                 true: 定期的に分割を管理する(初期値はfalse)
+ *   drs.report.partition.unit            1つの分割の期間(month: 月ごと year: 年ごと)
+ *   drs.report.partition.ahead           今月(今年)より後に用意しておく分割の数
+ *   drs.report.partition.retain          今月(今年)を含めて日報テーブルに残す分割の数(0: 切り離さない)
+ *   drs.report.partition.interval.hours  分割を管理する間隔(時間)
+ * ※分割は既存の日報テーブルに対して一度だけ手動で行う(MySQLの分割テーブルは外部キーを持てず、
+ *   主キーに分割に使う列を含める必要がある)
+ *   ALTER TABLE likes DROP FOREIGN KEY (likes.report_idの外部キー名);
+ *   ALTER TABLE reports DROP FOREIGN KEY (reports.employee_idの外部キー名);
+ *   ALTER TABLE reports DROP PRIMARY KEY, ADD PRIMARY KEY (id, report_date);
+ *   ALTER TABLE reports PARTITION BY RANGE COLUMNS(report_date)
+ *       (PARTITION p202601 VALUES LESS THAN ('2026-02-01'), PARTITION pmax VALUES LESS THAN (MAXVALUE));
+ */
+@WebListener
+public class ReportPartitionListener implements ServletContextListener {
+
+    private static final String PROP_ENABLED = "drs.report.partition";
+    private static final String PROP_UNIT = "drs.report.partition.unit";
+    private static final String PROP_AHEAD = "drs.report.partition.ahead";
+    private static final String PROP_RETAIN = "drs.report.partition.retain";
+    private static final String PROP_INTERVAL_HOURS = "drs.report.partition.interval.hours";
+
+    //先に用意しておく分割の数・残す分割の数・管理する間隔(時間)の初期値
+    private static final int DEFAULT_AHEAD = 3;
+    private static final int DEFAULT_RETAIN = 0;
+    private static final long DEFAULT_INTERVAL_HOURS = 24;
+
+    //起動直後のアクセスと重ならないよう、初回はこの時間(分)が過ぎてから行う
+    private static final long INITIAL_DELAY_MINUTES = 1;
+
+    private ScheduledExecutorService scheduler;
+
+    public ReportPartitionListener() {
+    }
+
+    /**
+     * Webアプリケーションのシャットダウン時に実行する処理
+     */
+    public void contextDestroyed(ServletContextEvent arg0) {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Webアプリケーションの起動時に実行する処理
+     */
+    public void contextInitialized(ServletContextEvent arg0) {
+        if (!Boolean.getBoolean(PROP_ENABLED)) {
+            return;
+        }
+        ServletContext context = arg0.getServletContext();
+        ChronoUnit unit = "year".equals(System.getProperty(PROP_UNIT)) ? ChronoUnit.YEARS : ChronoUnit.MONTHS;
+        int ahead = Integer.getInteger(PROP_AHEAD, DEFAULT_AHEAD);
+        int retain = Integer.getInteger(PROP_RETAIN, DEFAULT_RETAIN);
+        long interval = TimeUnit.HOURS.toMinutes(Long.getLong(PROP_INTERVAL_HOURS, DEFAULT_INTERVAL_HOURS));
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "drs-report-partition");
+            t.setDaemon(true);
+            t.setContextClassLoader(ReportPartitionListener.class.getClassLoader());
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> maintain(context, unit, ahead, retain),
+                INITIAL_DELAY_MINUTES, interval, TimeUnit.MINUTES);
+    }
+
+    /**
+     * 分割の管理を行い、実行したSQLをログに出力する
+     * @param context サーブレットコンテキスト(ログの出力に使う)
+     * @param unit 1つの分割の期間
+     * @param ahead 今月(今年)より後に用意しておく分割の数
+     * @param retain 今月(今年)を含めて日報テーブルに残す分割の数
+     */
+    private static void maintain(ServletContext context, ChronoUnit unit, int ahead, int retain) {
+        try (ReportService service = new ReportService()) {
+            List<String> statements = service.maintainPartitions(unit, ahead, retain);
+            for (String sql : statements) {
+                context.log("report partition: " + sql);
+            }
+        } catch (RuntimeException e) {
+            //次の実行で改めて行う
+            context.log("report partition: failed", e);
+        }
+    }
+
+}
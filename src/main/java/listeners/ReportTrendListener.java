@@ -0,0 +1,113 @@
+package listeners;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletContext;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+import constants.PropertyConst;
+import services.ReportService;
+import utils.ReportTrends;
+
+/**
+ * 日報の閲覧数・いいねの件数の集計(ReportTrends)を作成し、アプリケーションスコープに設定するリスナー
+ * 起動時に保存した直近1週間分の集計を読み込み、1分ごとに記録する日を切り替え、定期的に集計をDBに保存する
+ * (停止時にも保存する 集計はサーバーごとに行うため、複数台構成では各サーバーの集計を上書きし合う)
+ *   drs.trends.width          閲覧数・いいねの件数を数えるCountMinSketchの列の数
+ *   drs.trends.candidates     日ごとに保持する上位の候補の数
+ *   drs.trends.save.minutes   集計をDBに保存する間隔(分)
+ */
+@WebListener
+public class ReportTrendListener implements ServletContextListener {
+
+    private static final String PROP_WIDTH = "drs.trends.width";
+    private static final String PROP_CANDIDATES = "drs.trends.candidates";
+    private static final String PROP_SAVE_MINUTES = "drs.trends.save.minutes";
+
+    //列の数・候補の数・保存する間隔(分)の初期値
+    //(列の数2048で1日あたりのカウンタは 2 × 4行 × 2048列 × 4バイト = 64KB、1日10万回の閲覧で誤差は約130回まで)
+    private static final int DEFAULT_WIDTH = 2048;
+    private static final int DEFAULT_CANDIDATES = 64;
+    private static final long DEFAULT_SAVE_MINUTES = 5;
+
+    private ScheduledExecutorService scheduler;
+    private ReportTrends trends;
+    private ServletContext context;
+
+    public ReportTrendListener() {
+    }
+
+    /**
+     * Webアプリケーションのシャットダウン時に実行する処理
+     */
+    public void contextDestroyed(ServletContextEvent arg0) {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            try {
+                scheduler.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            save();
+        }
+    }
+
+    /**
+     * Webアプリケーションの起動時に実行する処理
+     */
+    public void contextInitialized(ServletContextEvent arg0) {
+        context = arg0.getServletContext();
+        trends = new ReportTrends(Integer.getInteger(PROP_WIDTH, DEFAULT_WIDTH),
+                Integer.getInteger(PROP_CANDIDATES, DEFAULT_CANDIDATES));
+        context.setAttribute(PropertyConst.REPORT_TRENDS.getValue(), trends);
+
+        long saveMinutes = Long.getLong(PROP_SAVE_MINUTES, DEFAULT_SAVE_MINUTES);
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "drs-report-trends");
+            t.setDaemon(true);
+            t.setContextClassLoader(ReportTrendListener.class.getClassLoader());
+            return t;
+        });
+        //起動を待たせないよう、保存した集計はスケジューラのスレッドで読み込む
+        scheduler.execute(this::load);
+        scheduler.scheduleAtFixedRate(() -> trends.rotate(LocalDate.now()), 1, 1, TimeUnit.MINUTES);
+        scheduler.scheduleWithFixedDelay(this::save, saveMinutes, saveMinutes, TimeUnit.MINUTES);
+    }
+
+    /**
+     * 保存した直近1週間分の集計を読み込む
+     */
+    private void load() {
+        try (ReportService service = new ReportService()) {
+            Map<LocalDate, byte[]> data = service.getTrendData(LocalDate.now().minusDays(ReportTrends.DAYS - 1));
+            for (Map.Entry<LocalDate, byte[]> e : data.entrySet()) {
+                if (!trends.restore(e.getKey(), e.getValue())) {
+                    context.log("report trends: skipped " + e.getKey());
+                }
+            }
+        } catch (RuntimeException | IOException e) {
+            //読み込めなかった場合は0から数える
+            context.log("report trends: load failed", e);
+        }
+    }
+
+    /**
+     * 直近1週間分の集計を保存し、それより前の集計を削除する
+     */
+    private void save() {
+        try (ReportService service = new ReportService()) {
+            service.saveTrendData(trends.snapshot(), LocalDate.now().minusDays(ReportTrends.DAYS - 1));
+        } catch (RuntimeException e) {
+            //次の保存で改めて行う
+            context.log("report trends: save failed", e);
+        }
+    }
+
+}
@@ -0,0 +1,78 @@
+package models;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import constants.JpaConst;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * アーカイブした従業員データのDTOモデル
+ * 削除されてから一定期間が過ぎた従業員の登録内容を従業員テーブルから移したもの
+ * (従業員テーブルには日報の作成者として表示するための社員番号・氏名等のみ残し、idは同じ値を使う)
+ */
+@Table(name = JpaConst.TABLE_EMP_ARCHIVE)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+public class ArchivedEmployee {
+
+    /**
+     * id(従業員テーブルのid)
+     */
+    @Id
+    @Column(name = JpaConst.EMP_COL_ID)
+    private Integer id;
+
+    /**
+     * 社員番号
+     */
+    @Column(name = JpaConst.EMP_COL_CODE, nullable = false)
+    private String code;
+
+    /**
+     * 氏名
+     */
+    @Column(name = JpaConst.EMP_COL_NAME, nullable = false)
+    private String name;
+
+    /**
+     * パスワード
+     */
+    @Column(name = JpaConst.EMP_COL_PASS, length = 64, nullable = false)
+    private String password;
+
+    /**
+     * 管理者権限があるかどうか（一般：０、管理者：１）
+     */
+    @Column(name = JpaConst.EMP_COL_ADMIN_FLAG, nullable = false)
+    private Integer adminFlag;
+
+    /**
+     * 登録日時
+     */
+    @Column(name = JpaConst.EMP_COL_CREATED_AT, nullable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * 更新日時(削除した日時)
+     */
+    @Column(name = JpaConst.EMP_COL_UPDATED_AT, nullable = false)
+    private LocalDateTime updatedAt;
+
+    /**
+     * アーカイブした日時
+     */
+    @Column(name = JpaConst.EMP_COL_ARCHIVED_AT, nullable = false)
+    private LocalDateTime archivedAt;
+
+}
@@ -7,9 +7,13 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
 import javax.persistence.Table;
+import javax.persistence.Version;
+
+import org.hibernate.annotations.DynamicUpdate;
 
 import constants.JpaConst;
 import lombok.AllArgsConstructor;
@@ -26,11 +30,19 @@ import lombok.Setter;
  *
  */
 
-@Table(name = JpaConst.TABLE_EMP)
+//一覧は削除フラグごとにidの降順で取得するため、削除フラグ・idの索引の順のまま1ページ分だけを読む(件数もこの索引だけで数える)
+//アーカイブの対象(削除済みで、更新日時が一定より前)は、削除フラグ・更新日時の索引から範囲内の従業員だけを読む
+@Table(name = JpaConst.TABLE_EMP, indexes = {
+        @Index(columnList = JpaConst.EMP_COL_DELETE_FLAG + ", " + JpaConst.EMP_COL_ID + " DESC"),
+        @Index(columnList = JpaConst.EMP_COL_DELETE_FLAG + ", " + JpaConst.EMP_COL_UPDATED_AT)
+})
 @NamedQueries({//SELECT文。指定した内容をDBから取得して一覧として表示される
     @NamedQuery(
-            name = JpaConst.Q_EMP_GET_ALL,//クエリの名前。コントローラーのほうでメソッド名として指定する用
-            query = JpaConst.Q_EMP_GET_ALL_DEF),//クエリの実行内容。JPQL。
+            name = JpaConst.Q_EMP_GET_BY_DEL_FLAG,//クエリの名前。コントローラーのほうでメソッド名として指定する用
+            query = JpaConst.Q_EMP_GET_BY_DEL_FLAG_DEF),//クエリの実行内容。JPQL。
+    @NamedQuery(
+            name = JpaConst.Q_EMP_COUNT_BY_DEL_FLAG,
+            query = JpaConst.Q_EMP_COUNT_BY_DEL_FLAG_DEF),
     @NamedQuery(
             name = JpaConst.Q_EMP_COUNT,
             query = JpaConst.Q_EMP_COUNT_DEF),
@@ -42,13 +54,20 @@ import lombok.Setter;
             query = JpaConst.Q_EMP_GET_BY_CODE_AND_PASS_DEF),
     @NamedQuery(
             name = JpaConst.Q_EMP_GET_BY_CODE,
-            query = JpaConst.Q_EMP_GET_BY_CODE_DEF)
+            query = JpaConst.Q_EMP_GET_BY_CODE_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_EMP_GET_DELETED_BEFORE,
+            query = JpaConst.Q_EMP_GET_DELETED_BEFORE_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_EMP_UPDATE,
+            query = JpaConst.Q_EMP_UPDATE_DEF)
 })
 
 @Getter //全てのクラスフィールドについてgetterを自動生成する(Lombok) 便利なんだが
 @Setter //全てのクラスフィールドについてsetterを自動生成する(Lombok)
 @NoArgsConstructor //引数なしコンストラクタを自動生成する(Lombok)
 @AllArgsConstructor //全てのクラスフィールドを引数にもつ引数ありコンストラクタを自動生成する(Lombok)
+@DynamicUpdate //UPDATE文には変更した項目だけを含める
 @Entity
 public class Employee {
 
@@ -101,9 +120,16 @@ public class Employee {
     private LocalDateTime updatedAt;
 
     /**
-     * 削除された従業員かどうか（現役：０、削除済み：１）
+     * 削除された従業員かどうか（現役：０、削除済み：１、アーカイブ済み：２）
      */
     @Column(name = JpaConst.EMP_COL_DELETE_FLAG,nullable = false)
     private Integer deleteFlag;
 
+    /**
+     * バージョン(更新のたびに1増やし、画面を表示した後に他の更新があったかどうかの確認に使う)
+     */
+    @Version
+    @Column(name = JpaConst.EMP_COL_VERSION, nullable = false)
+    private Integer version;
+
 }
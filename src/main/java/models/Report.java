@@ -3,30 +3,44 @@ package models;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
+import javax.persistence.Basic;
 import javax.persistence.Column;
+import javax.persistence.Convert;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.Lob;
 import javax.persistence.ManyToOne;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
 import javax.persistence.Table;
+import javax.persistence.Version;
+
+import org.hibernate.annotations.DynamicUpdate;
 
 import constants.JpaConst;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import models.converters.ReportContentConverter;
 
 
 /**
  * 日報データのDTOモデル（DBとマッピングする）
  *
  */
-@Table(name = JpaConst.TABLE_REP)
+//一覧・件数は日付の範囲(と作成者)を条件にするため、条件の順に並べた索引から範囲内の日報だけを読む
+//(一覧は索引と同じ日付・idの降順に並べるため、並べ替えずに1ページ分を読んだところで止まる 件数は索引だけで数えられる
+// 日付で分割する場合の手順はReportPartitionListenerを参照)
+@Table(name = JpaConst.TABLE_REP, indexes = {
+        @Index(columnList = JpaConst.REP_COL_REP_DATE + " DESC, " + JpaConst.REP_COL_ID + " DESC"),
+        @Index(columnList = JpaConst.REP_COL_EMP + ", " + JpaConst.REP_COL_REP_DATE + " DESC, " + JpaConst.REP_COL_ID + " DESC")
+})
 @NamedQueries({
     @NamedQuery(
             name = JpaConst.Q_REP_GET_ALL,
@@ -34,17 +48,45 @@ import lombok.Setter;
     @NamedQuery(
             name = JpaConst.Q_REP_COUNT,
             query = JpaConst.Q_REP_COUNT_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_REP_GET_BY_EMP_CODE,
+            query = JpaConst.Q_REP_GET_BY_EMP_CODE_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_REP_COUNT_BY_EMP_CODE,
+            query = JpaConst.Q_REP_COUNT_BY_EMP_CODE_DEF),
     @NamedQuery(
             name = JpaConst.Q_REP_GET_ALL_MINE,
             query = JpaConst.Q_REP_GET_ALL_MINE_DEF),
     @NamedQuery(
             name = JpaConst.Q_REP_COUNT_ALL_MINE,
-            query = JpaConst.Q_REP_COUNT_ALL_MINE_DEF)
+            query = JpaConst.Q_REP_COUNT_ALL_MINE_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_REP_GET_CALENDAR,
+            query = JpaConst.Q_REP_GET_CALENDAR_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_REP_GET_BEFORE,
+            query = JpaConst.Q_REP_GET_BEFORE_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_REP_GET_MINE_BEFORE,
+            query = JpaConst.Q_REP_GET_MINE_BEFORE_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_REP_GET_BEFORE_WITH_CONTENT,
+            query = JpaConst.Q_REP_GET_BEFORE_WITH_CONTENT_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_REP_GET_MINE_BEFORE_WITH_CONTENT,
+            query = JpaConst.Q_REP_GET_MINE_BEFORE_WITH_CONTENT_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_REP_UPDATE,
+            query = JpaConst.Q_REP_UPDATE_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_REP_GET_AUTHOR_VERSION,
+            query = JpaConst.Q_REP_GET_AUTHOR_VERSION_DEF)
 })
 @Getter //全てのクラスフィールドについてgetterを自動生成する(Lombok)
 @Setter //全てのクラスフィールドについてsetterを自動生成する(Lombok)
 @NoArgsConstructor //引数なしコンストラクタを自動生成する(Lombok)
 @AllArgsConstructor //全てのクラスフィールドを引数にもつ引数ありコンストラクタを自動生成する(Lombok)
+@DynamicUpdate //UPDATE文には変更した項目だけを含める(変更していない内容を書き込まない)
 @Entity
 public class Report {
     /**
@@ -75,11 +117,18 @@ public class Report {
     private String title;
 
     /**
-     * 日報の内容
+     * 日報の内容(一定の長さ以上は圧縮したバイト列で保存する 形式はContentCodecを参照)
+     * ※既存のDBは、文字列の列からバイナリの列への変更が必要
+     *   ALTER TABLE reports MODIFY content LONGBLOB NOT NULL;
+     *   (変更前に登録された内容はUTF-8のまま残り、そのまま読み込める。圧縮はContentMigrationListenerで行う)
+     * 一覧では使わないため、参照されたときに読み込む(バイトコード拡張が必要 pom.xmlのhibernate-enhance-maven-pluginを参照)
+     * 内容も必要な一覧は、FETCH ALL PROPERTIES を指定したクエリ(〜WithContent)で取得する
      */
+    @Basic(fetch = FetchType.LAZY)
     @Lob //フォームに入力された改行の情報もDBに保存してくれるアノテーション
+    @Convert(converter = ReportContentConverter.class)
     @Column(name = JpaConst.REP_COL_CONTENT, nullable = false)
-    private String content;
+    private ReportContent content;
 
     /**
      * 登録日時
@@ -93,4 +142,11 @@ public class Report {
     @Column(name = JpaConst.REP_COL_UPDATED_AT, nullable = false)
     private LocalDateTime updatedAt;
 
+    /**
+     * バージョン(更新のたびに1増やし、画面を表示した後に他の更新があったかどうかの確認に使う)
+     */
+    @Version
+    @Column(name = JpaConst.REP_COL_VERSION, nullable = false)
+    private Integer version;
+
 }
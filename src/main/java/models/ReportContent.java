@@ -0,0 +1,94 @@
+package models;
+
+import java.io.Serializable;
+
+import org.hibernate.annotations.Immutable;
+
+import utils.ContentCodec;
+
+/**
+ * 日報の内容(DBには圧縮した形式で保存する)
+ * 保存されたバイト列からの復元・保存する形式への変換は、内容・バイト列が初めて必要になったときに行う
+ * (一覧のように内容を表示しない処理では復元しない)
+ * 生成後に変更しないため、Hibernateは変更の検知のために複製を作らない
+ */
+@Immutable
+public final class ReportContent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 保存する形式のバイト列(未変換の場合null)
+     */
+    private byte[] data;
+
+    /**
+     * 内容(未復元の場合null)
+     */
+    private String text;
+
+    private ReportContent(byte[] data, String text) {
+        this.data = data;
+        this.text = text;
+    }
+
+    /**
+     * 内容からインスタンスを作成する
+     * @param text 内容
+     * @return インスタンス 内容がnullの場合null
+     */
+    public static ReportContent ofText(String text) {
+        return text == null ? null : new ReportContent(null, text);
+    }
+
+    /**
+     * DBに保存されたバイト列からインスタンスを作成する
+     * @param data 保存されたバイト列
+     * @return インスタンス バイト列がnullの場合null
+     */
+    public static ReportContent ofData(byte[] data) {
+        return data == null ? null : new ReportContent(data, null);
+    }
+
+    /**
+     * 内容を取得する(初回のみ復元する)
+     * @return 内容
+     */
+    public synchronized String getText() {
+        if (text == null) {
+            text = ContentCodec.decode(data);
+        }
+        return text;
+    }
+
+    /**
+     * 保存する形式のバイト列を取得する(初回のみ変換する)
+     * ※返却した配列は変更しないこと
+     * @return バイト列
+     */
+    public synchronized byte[] getData() {
+        if (data == null) {
+            data = ContentCodec.encode(text);
+        }
+        return data;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        return obj instanceof ReportContent && getText().equals(((ReportContent) obj).getText());
+    }
+
+    @Override
+    public int hashCode() {
+        return getText().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return getText();
+    }
+
+}
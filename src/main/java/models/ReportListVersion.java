@@ -0,0 +1,49 @@
+package models;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+
+import constants.JpaConst;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 日報一覧(全従業員分)の内容のバージョンのDTOモデル
+ * 一覧画面の描画結果のキャッシュのキーに使う(全サーバーで同じ値を参照するため、DBに1行だけ保持する)
+ */
+@Table(name = JpaConst.TABLE_LIST_VERSION)
+@NamedQueries({
+    @NamedQuery(
+            name = JpaConst.Q_LIST_VERSION_GET,
+            query = JpaConst.Q_LIST_VERSION_GET_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_LIST_VERSION_INCREMENT,
+            query = JpaConst.Q_LIST_VERSION_INCREMENT_DEF)
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+public class ReportListVersion {
+
+    /**
+     * id(常にJpaConst.LIST_VERSION_ID)
+     */
+    @Id
+    @Column(name = JpaConst.LIST_VERSION_COL_ID)
+    private Integer id;
+
+    /**
+     * バージョン(日報の登録・更新、従業員の氏名の変更のコミット後に1増やす)
+     */
+    @Column(name = JpaConst.LIST_VERSION_COL_VERSION, nullable = false)
+    private Long version;
+
+}
@@ -0,0 +1,60 @@
+package models;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Lob;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+
+import constants.JpaConst;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 日報の閲覧数・いいねの件数の集計データのDTOモデル
+ * ReportTrendsの1日分の内容(閲覧数・いいねの件数のカウンタと上位の候補)を圧縮したバイト列として保存する
+ */
+@Table(name = JpaConst.TABLE_TREND)
+@NamedQueries({
+    @NamedQuery(
+            name = JpaConst.Q_TREND_GET_SINCE,
+            query = JpaConst.Q_TREND_GET_SINCE_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_TREND_DELETE_BEFORE,
+            query = JpaConst.Q_TREND_DELETE_BEFORE_DEF)
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+public class ReportTrend {
+
+    /**
+     * 集計した日
+     */
+    @Id
+    @Column(name = JpaConst.TREND_COL_DATE)
+    private LocalDate trendDate;
+
+    /**
+     * 集計した内容(ReportTrends.snapshotで変換したもの)
+     */
+    @Lob
+    @Column(name = JpaConst.TREND_COL_DATA, nullable = false)
+    private byte[] data;
+
+    /**
+     * 更新日時
+     */
+    @Column(name = JpaConst.TREND_COL_UPDATED_AT, nullable = false)
+    private LocalDateTime updatedAt;
+
+}
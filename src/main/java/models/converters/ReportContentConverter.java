@@ -0,0 +1,25 @@
+package models.converters;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+import models.ReportContent;
+
+/**
+ * 日報の内容⇔DBに保存するバイト列の変換を行うクラス
+ * 読み込み時は復元せずにバイト列のまま保持し、内容が参照されたときに復元する
+ */
+@Converter
+public class ReportContentConverter implements AttributeConverter<ReportContent, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(ReportContent content) {
+        return content == null ? null : content.getData();
+    }
+
+    @Override
+    public ReportContent convertToEntityAttribute(byte[] data) {
+        return ReportContent.ofData(data);
+    }
+
+}
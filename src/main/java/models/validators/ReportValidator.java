@@ -9,7 +9,7 @@ import constants.MessageConst;
 
 /**
  * 日報インスタンスに設定されている値のバリデーションを行うクラス
- * (空欄ならエラーにする)
+ * (空欄、または日付が正しくない場合はエラーにする)
  */
 
 public class ReportValidator {
@@ -23,6 +23,11 @@ public class ReportValidator {
     public static List<String> validate(ReportView rv){
         List<String> errors = new ArrayList<String>();
 
+        //日付のチェック
+        if (rv.getReportDate() == null) {
+            errors.add(MessageConst.E_NODATE.getMessage());
+        }
+
         //タイトルのチェック
         String titleError = validateTitle(rv.getTitle());
         if(!titleError.equals("")) {
@@ -1,6 +1,7 @@
 package services;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import javax.persistence.NoResultException;
@@ -8,6 +9,8 @@ import javax.persistence.NoResultException;
 import actions.views.EmployeeConverter;
 import actions.views.EmployeeView;
 import constants.JpaConst;
+import constants.MessageConst;
+import models.ArchivedEmployee;
 import models.Employee;
 import models.validators.EmployeeValidator;
 import utils.EncryptUtil;
@@ -23,19 +26,43 @@ public class EmployeeService extends ServiceBase {
 
     /**
      * 指定されたページ数の一覧画面に表示するデータを取得し、EmployeeView（画面からEmployee情報いじるやつ）のリストで返却する
+     * 現役の従業員をidの降順に表示し、その後に削除済みの従業員をidの降順に表示する(アーカイブ済みは表示しない)
+     * (削除フラグごとに取得し、どちらも削除フラグ・idの索引を並べ替えずに読む)
      * @param page ページ数
      * @return 表示するデータのリスト
      */
 
     public List<EmployeeView> getPerPage(int page){
-        List<Employee> employees = em.createNamedQuery(JpaConst.Q_EMP_GET_ALL, Employee.class)
-                .setFirstResult(JpaConst.ROW_PER_PAGE * (page - 1))
-                .setMaxResults(JpaConst.ROW_PER_PAGE)
-                .getResultList();
+        int first = JpaConst.ROW_PER_PAGE * (page - 1);
+        List<Employee> employees = new ArrayList<>(getByDeleteFlag(JpaConst.EMP_DEL_FALSE, first, JpaConst.ROW_PER_PAGE));
+
+        if (employees.size() < JpaConst.ROW_PER_PAGE) {
+            //現役の従業員で1ページに満たない場合は、続きを削除済みの従業員から取得する
+            long active = readEm().createNamedQuery(JpaConst.Q_EMP_COUNT_BY_DEL_FLAG, Long.class)
+                    .setParameter(JpaConst.JPQL_PARM_DELETE_FLAG, JpaConst.EMP_DEL_FALSE)
+                    .getSingleResult();
+            employees.addAll(getByDeleteFlag(JpaConst.EMP_DEL_TRUE, (int) Math.max(0, first - active),
+                    JpaConst.ROW_PER_PAGE - employees.size()));
+        }
 
         return EmployeeConverter.toViewList(employees);
     }
 
+    /**
+     * 指定した削除フラグの従業員をidの降順に取得する
+     * @param deleteFlag 削除フラグ
+     * @param first 何件目から取得するか(0から数える)
+     * @param max 最大件数
+     * @return 従業員のリスト
+     */
+    private List<Employee> getByDeleteFlag(int deleteFlag, int first, int max) {
+        return readEm().createNamedQuery(JpaConst.Q_EMP_GET_BY_DEL_FLAG, Employee.class)
+                .setParameter(JpaConst.JPQL_PARM_DELETE_FLAG, deleteFlag)
+                .setFirstResult(first)
+                .setMaxResults(max)
+                .getResultList();
+    }
+
     /**
      * 従業員テーブルのデータの件数を取得し、返却する
      * @return 従業員テーブルのデータの件数
@@ -43,7 +70,7 @@ public class EmployeeService extends ServiceBase {
      */
 
     public long countAll() {
-        long empCount = (long) em.createNamedQuery(JpaConst.Q_EMP_COUNT,Long.class)
+        long empCount = (long) readEm().createNamedQuery(JpaConst.Q_EMP_COUNT,Long.class)
                 .getSingleResult();
 
         return empCount;
@@ -51,6 +78,7 @@ public class EmployeeService extends ServiceBase {
 
     /**
      * 社員番号、パスワードを条件に取得したデータをEmployeeViewのインスタンスで返却する
+     * (認証に使うため、削除・パスワード変更の直後でも最新の値で判定できるようプライマリから取得する)
      *@param code 社員番号
      *@param plainPass パスワード文字列
      *@param pepper pepper文字列
@@ -78,7 +106,7 @@ public class EmployeeService extends ServiceBase {
      * @return 取得データのインスタンス
      */
     public EmployeeView findOne(int id) {//これもメソッドのオーバーロードだ
-        Employee e = findOneInternal(id);
+        Employee e = readEm().find(Employee.class, id);
         return EmployeeConverter.toView(e);
     }
 
@@ -93,7 +121,7 @@ public class EmployeeService extends ServiceBase {
         try {
 
             // 社員番号を条件に従業員を1件取得する
-            e = em.createNamedQuery(JpaConst.Q_EMP_GET_BY_CODE,Employee.class)
+            e = readEm().createNamedQuery(JpaConst.Q_EMP_GET_BY_CODE,Employee.class)
                     .setParameter(JpaConst.JPQL_PARM_CODE, code)
                     .getSingleResult();
         } catch (NoResultException ex){
@@ -110,7 +138,7 @@ public class EmployeeService extends ServiceBase {
      */
     public long countByCode(String code) {
 
-        //指定した社員番号を保持する従業員の件数を取得する
+        //指定した社員番号を保持する従業員の件数を取得する(重複チェックに使うため、プライマリから取得する)
         long employees_count = (long) em.createNamedQuery(JpaConst.Q_EMP_COUNT_REGISTERED_BY_CODE, Long.class)
                 .setParameter(JpaConst.JPQL_PARM_CODE, code)
                 .getSingleResult();
@@ -154,8 +182,8 @@ public class EmployeeService extends ServiceBase {
      */
     public List<String> update(EmployeeView ev, String pepper) {
 
-        //idを条件に登録済みの従業員情報を取得する
-        EmployeeView savedEmp = findOne(ev.getId());
+        //idを条件に登録済みの従業員情報を取得する(更新前の最新の値が必要なため、プライマリから取得する)
+        EmployeeView savedEmp = EmployeeConverter.toView(findOneInternal(ev.getId()));
 
         boolean validateCode = false;
         if (!savedEmp.getCode().equals(ev.getCode())) {
@@ -179,6 +207,8 @@ public class EmployeeService extends ServiceBase {
                     EncryptUtil.getPasswordEncrypt(ev.getPassword(), pepper));
         }
 
+        //氏名は日報一覧にも表示されるため、変更の有無を記録しておく
+        boolean nameChanged = !savedEmp.getName().equals(ev.getName());
         savedEmp.setName(ev.getName()); //変更後の氏名を設定する
         savedEmp.setAdminFlag(ev.getAdminFlag()); //変更後の管理者フラグを設定する
 
@@ -189,9 +219,14 @@ public class EmployeeService extends ServiceBase {
         //更新内容についてバリデーションを行う
         List<String> errors = EmployeeValidator.validate(this, savedEmp, validateCode, validatePass);
 
-        //バリデーションエラーがなければデータを更新する
+        //バリデーションエラーがなければ、編集画面を表示したときのバージョンのままの場合のみデータを更新する
         if (errors.size() == 0) {
-            update(savedEmp);
+            savedEmp.setVersion(ev.getVersion());
+            if (!update(savedEmp)) {
+                errors.add(MessageConst.E_CONFLICT.getMessage());
+            } else if (nameChanged) {
+                ReportService.changeListVersion(em);
+            }
         }
 
         //エラーを返却（エラーがなければ0件の空リスト）
@@ -204,19 +239,54 @@ public class EmployeeService extends ServiceBase {
      */
     public void destroy(Integer id) {
 
-        //idを条件に登録済みの従業員情報を取得する
-        EmployeeView savedEmp = findOne(id);
+        em.getTransaction().begin();
+
+        //idを条件に登録済みの従業員を取得し、管理状態のまま直接更新する(Viewへの変換を経由しない)
+        Employee e = findOneInternal(id);
 
         //更新日時に現在時刻を設定する
-        LocalDateTime today = LocalDateTime.now();
-        savedEmp.setUpdatedAt(today);
+        e.setUpdatedAt(LocalDateTime.now());
 
         //論理削除フラグをたてる
-        savedEmp.setDeleteFlag(JpaConst.EMP_DEL_TRUE);
+        e.setDeleteFlag(JpaConst.EMP_DEL_TRUE);
 
-        //更新処理を行う
-        update(savedEmp);
+        em.getTransaction().commit();
+        markWrite();
+        EmployeeConverter.refreshSummary(e); //日報の作成者として表示する概要も削除済みにする
+
+    }
+
+    /**
+     * 削除されてから指定した日時より前の従業員を、アーカイブテーブルに移す
+     * 従業員テーブルには日報の作成者として表示する項目だけを残し、パスワードを消してアーカイブ済みにする
+     * (日報・いいねはidで従業員テーブルを参照するため、行自体は削除しない)
+     * @param deletedBefore この日時より前に削除された従業員を対象にする
+     * @param max 1回に移す最大件数
+     * @return 移した件数
+     */
+    public int archiveDeleted(LocalDateTime deletedBefore, int max) {
+
+        em.getTransaction().begin();
+        List<Employee> employees = em.createNamedQuery(JpaConst.Q_EMP_GET_DELETED_BEFORE, Employee.class)
+                .setParameter(JpaConst.JPQL_PARM_UPDATED_AT, deletedBefore)
+                .setMaxResults(max)
+                .getResultList();
 
+        LocalDateTime now = LocalDateTime.now();
+        for (Employee e : employees) {
+            em.persist(new ArchivedEmployee(e.getId(), e.getCode(), e.getName(), e.getPassword(),
+                    e.getAdminFlag(), e.getCreatedAt(), e.getUpdatedAt(), now));
+            e.setPassword("");
+            e.setDeleteFlag(JpaConst.EMP_DEL_ARCHIVED);
+        }
+        em.getTransaction().commit();
+        if (!employees.isEmpty()) {
+            markWrite();
+        }
+        for (Employee e : employees) {
+            EmployeeConverter.refreshSummary(e);
+        }
+        return employees.size();
     }
 
     /**
@@ -262,22 +332,42 @@ public class EmployeeService extends ServiceBase {
      */
     private void create(EmployeeView ev) {//Lesson2以来に出てきたメソッドのオーバーロード
 
+        Employee e = EmployeeConverter.toModel(ev);
         em.getTransaction().begin();//継承元クラスServiceBaseでインスタンス化しているemが、DBのテーブルに情報を登録してくれる
-        em.persist(EmployeeConverter.toModel(ev));
+        em.persist(e);
         em.getTransaction().commit();
+        markWrite();
+        EmployeeConverter.refreshSummary(e); //採番されたid・バージョンで概要を登録する
 
     }
 
     /**
-     * 従業員データを更新する
-     * @param ev 画面から入力された従業員の登録内容
+     * 従業員データを、編集画面を表示したときのバージョンのままの場合のみ1件のUPDATE文で更新する
+     * @param ev 更新内容(編集画面を表示したときのバージョンを含む)
+     * @return true: 更新した false: 他の更新と競合したため更新していない
      */
-    private void update(EmployeeView ev) {
+    private boolean update(EmployeeView ev) {
 
+        Employee e = EmployeeConverter.toModel(ev);
         em.getTransaction().begin();
-        Employee e = findOneInternal(ev.getId());
-        EmployeeConverter.copyViewToModel(e, ev);
+        int count = em.createNamedQuery(JpaConst.Q_EMP_UPDATE)
+                .setParameter(JpaConst.JPQL_PARM_CODE, e.getCode())
+                .setParameter(JpaConst.JPQL_PARM_NAME, e.getName())
+                .setParameter(JpaConst.JPQL_PARM_PASSWORD, e.getPassword())
+                .setParameter(JpaConst.JPQL_PARM_ADMIN_FLAG, e.getAdminFlag())
+                .setParameter(JpaConst.JPQL_PARM_UPDATED_AT, e.getUpdatedAt())
+                .setParameter(JpaConst.JPQL_PARM_ID, e.getId())
+                .setParameter(JpaConst.JPQL_PARM_VERSION, e.getVersion())
+                .executeUpdate();
         em.getTransaction().commit();
+        if (count == 0) {
+            return false;
+        }
+        markWrite();
+        ev.setVersion(ev.getVersion() + 1);
+        e.setVersion(ev.getVersion());
+        EmployeeConverter.refreshSummary(e); //変更後の社員番号・氏名・管理者権限で概要を置き換える
+        return true;
 
     }
 
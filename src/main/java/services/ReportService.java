@@ -1,19 +1,46 @@
 package services;
 
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
+import javax.persistence.PersistenceException;
+import javax.persistence.TypedQuery;
+
+import org.hibernate.Session;
 
-import actions.views.EmployeeConverter;
 import actions.views.EmployeeView;
+import actions.views.ReportCalendarView;
 import actions.views.ReportConverter;
 import actions.views.ReportView;
 import constants.JpaConst;
+import constants.MessageConst;
 import models.Employee;
 import models.Like;
 import models.Report;
+import models.ReportContent;
+import models.ReportListVersion;
+import models.ReportTrend;
 import models.validators.ReportValidator;
+import utils.ContentCodec;
+import utils.EventBroadcaster;
+import utils.JsonWriter;
 
 
 
@@ -23,32 +50,211 @@ import models.validators.ReportValidator;
  */
 
 public class ReportService extends ServiceBase{
+
+    /**
+     * 日報の登録・更新・いいねをコミット後に配信するインスタンス(EventStreamListenerで設定する 未設定の場合は配信しない)
+     */
+    private static volatile EventBroadcaster eventBroadcaster;
+
+    /**
+     * 圧縮を導入する前に登録された内容の移行に使うSQL(圧縮の対象になる長さの日報をidの昇順に取得し、
+     * 取得後に更新されていない場合のみ書き換える)
+     */
+    private static final String SQL_CONTENT_SELECT = "SELECT " + JpaConst.REP_COL_ID + ", " + JpaConst.REP_COL_CONTENT
+            + ", " + JpaConst.REP_COL_UPDATED_AT + " FROM " + JpaConst.TABLE_REP
+            + " WHERE " + JpaConst.REP_COL_ID + " > ? AND LENGTH(" + JpaConst.REP_COL_CONTENT + ") >= ?"
+            + " ORDER BY " + JpaConst.REP_COL_ID + " LIMIT ?";
+    private static final String SQL_CONTENT_UPDATE = "UPDATE " + JpaConst.TABLE_REP
+            + " SET " + JpaConst.REP_COL_CONTENT + " = ?"
+            + " WHERE " + JpaConst.REP_COL_ID + " = ? AND " + JpaConst.REP_COL_UPDATED_AT + " = ?";
+
+    /**
+     * 日報テーブルの分割の一覧を取得するSQL(名前・分割の方法・分割に使う列・上限を分割の順に取得する
+     * 分割していない場合は名前がnullの1行になる)
+     */
+    private static final String SQL_PARTITION_SELECT = "SELECT PARTITION_NAME, PARTITION_METHOD, PARTITION_EXPRESSION,"
+            + " PARTITION_DESCRIPTION FROM information_schema.PARTITIONS"
+            + " WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? ORDER BY PARTITION_ORDINAL_POSITION";
+
+    /**
+     * 分割の名前に使う期間の書式
+     */
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final DateTimeFormatter PARTITION_YEAR = DateTimeFormatter.ofPattern("yyyy");
+
+    /**
+     * 日付の範囲を指定しない場合に使う日付(MySQLのDATE型の範囲)
+     */
+    private static final LocalDate DATE_MIN = LocalDate.of(1000, 1, 1);
+    private static final LocalDate DATE_MAX = LocalDate.of(9999, 12, 31);
+
+    /**
+     * 日報一覧(全従業員分)の内容のバージョンを取得する(一覧画面の描画結果のキャッシュのキーに使う)
+     * 他のサーバーでの書き込みも反映されるようDBに保持し、レプリカの遅れの影響を受けないようプライマリから読み取る
+     * @return バージョン(まだ書き込みがない場合0)
+     */
+    public long getListVersion() {
+        List<Long> versions = em.createNamedQuery(JpaConst.Q_LIST_VERSION_GET, Long.class)
+                .getResultList();
+        return versions.isEmpty() ? 0 : versions.get(0);
+    }
+
+    /**
+     * 日報一覧の内容が変わったことを記録する(日報の登録・更新、従業員の氏名の変更のコミット後に呼び出す)
+     * (書き込んだ内容のコミット後に増やすため、増えたバージョンを読んだ時点でプライマリには書き込んだ内容がある)
+     * @param em プライマリのEntityManager(トランザクションを開始していないもの)
+     */
+    static void changeListVersion(EntityManager em) {
+        try {
+            incrementListVersion(em, true);
+        } catch (PersistenceException e) {
+            //初めての登録が他のサーバーと競合した場合は、登録された行を増やす
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.clear();
+            incrementListVersion(em, false);
+        }
+    }
+
+    /**
+     * 日報一覧の内容のバージョンを1増やす
+     * @param em プライマリのEntityManager
+     * @param insert true: 行がまだない場合は登録する
+     */
+    private static void incrementListVersion(EntityManager em, boolean insert) {
+        em.getTransaction().begin();
+        int count = em.createNamedQuery(JpaConst.Q_LIST_VERSION_INCREMENT).executeUpdate();
+        if (count == 0 && insert) {
+            em.persist(new ReportListVersion(JpaConst.LIST_VERSION_ID, 1L));
+        }
+        em.getTransaction().commit();
+    }
+
+    /**
+     * 日報のイベントの配信先を設定する
+     * @param broadcaster 配信を行うインスタンス(nullの場合は配信しない)
+     */
+    public static void setEventBroadcaster(EventBroadcaster broadcaster) {
+        eventBroadcaster = broadcaster;
+    }
+
+    /**
+     * 日報の登録・更新を配信する(コミット後に呼び出す)
+     * @param event イベント名
+     * @param rv 日報データ
+     */
+    private static void publishReport(String event, ReportView rv) {
+        EventBroadcaster broadcaster = eventBroadcaster;
+        if (broadcaster == null || broadcaster.getConnections() == 0) {
+            return;
+        }
+        StringWriter sw = new StringWriter();
+        new JsonWriter(new PrintWriter(sw)).beginObject()
+                .name("id").value(rv.getId())
+                .name("employee_id").value(rv.getEmployee().getId())
+                .name("employee_name").value(rv.getEmployee().getName())
+                .name("report_date").value(rv.getReportDate())
+                .name("title").value(rv.getTitle())
+                .endObject();
+        broadcaster.publish(event, sw.toString());
+    }
+
+    /**
+     * いいねの登録・削除を配信する(コミット後に呼び出す)
+     * @param employeeId いいねした従業員id
+     * @param reportId 日報id
+     * @param liked true: 登録 false: 削除
+     */
+    private static void publishLike(int employeeId, int reportId, boolean liked) {
+        EventBroadcaster broadcaster = eventBroadcaster;
+        if (broadcaster == null || broadcaster.getConnections() == 0) {
+            return;
+        }
+        StringWriter sw = new StringWriter();
+        new JsonWriter(new PrintWriter(sw)).beginObject()
+                .name("id").value(reportId)
+                .name("employee_id").value(employeeId)
+                .name("liked").value(liked)
+                .endObject();
+        broadcaster.publish("liked", sw.toString());
+    }
+
+    /**
+     * 日報の一覧に最初に表示する期間の開始日を取得する(この日付より前の日報は「以前の日報」として表示する)
+     * @return 期間の開始日
+     */
+    public static LocalDate getRecentSince() {
+        return LocalDate.now().minusDays(JpaConst.REP_RECENT_DAYS);
+    }
+
+    /**
+     * 日付の範囲の条件をクエリに設定する
+     * (範囲を指定しない側にも日付を設定し、日付で分割した日報テーブルでは常に範囲外の分割を読まないようにする)
+     * @param query クエリ
+     * @param from この日付以降の日報を対象にする(nullの場合は指定しない)
+     * @param to この日付より前の日報を対象にする(nullの場合は指定しない)
+     * @return クエリ
+     */
+    private static <T> TypedQuery<T> setDateRange(TypedQuery<T> query, LocalDate from, LocalDate to) {
+        return query.setParameter(JpaConst.JPQL_PARM_DATE_FROM, from == null ? DATE_MIN : from)
+                .setParameter(JpaConst.JPQL_PARM_DATE_TO, to == null ? DATE_MAX : to);
+    }
+
     /**
      * 指定した従業員が作成した日報データを、指定されたページ数の一覧画面に表示する分取得しReportViewのリストで返却する
      * (山田太郎さんの日報データ一覧の3ページ目を表示したい※このPGでは1ページあたり最大15件表示するようにしている)
      * @param employee 従業員
+     * @param from この日付以降の日報を対象にする(nullの場合は指定しない)
+     * @param to この日付より前の日報を対象にする(nullの場合は指定しない)
+     * @param page ページ数
+     * @return 一覧画面に表示するデータのリスト
+     */
+    public List<ReportView> getMinePerPage(EmployeeView employee, LocalDate from, LocalDate to, int page){
+        return getMinePerPage(employee.getId(), from, to, page);
+    }
+
+    /**
+     * 従業員idを条件に、その従業員が作成した日報データを指定されたページ数の一覧画面に表示する分取得しReportViewのリストで返却する
+     * (検索条件にはgetReferenceで取得した参照を使い、従業員データそのものは読み込まない)
+     * @param employeeId 従業員id
+     * @param from この日付以降の日報を対象にする(nullの場合は指定しない)
+     * @param to この日付より前の日報を対象にする(nullの場合は指定しない)
      * @param page ページ数
      * @return 一覧画面に表示するデータのリスト
      */
-    public List<ReportView> getMinePerPage(EmployeeView employee, int page){
+    public List<ReportView> getMinePerPage(int employeeId, LocalDate from, LocalDate to, int page){
 
-        List<Report> reports = em.createNamedQuery(JpaConst.Q_REP_GET_ALL_MINE, Report.class)
-                .setParameter(JpaConst.JPQL_PARM_EMPLOYEE, EmployeeConverter.toModel(employee))
+        List<Report> reports = setDateRange(readEm().createNamedQuery(JpaConst.Q_REP_GET_ALL_MINE, Report.class), from, to)
+                .setParameter(JpaConst.JPQL_PARM_EMPLOYEE, readEm().getReference(Employee.class, employeeId))
                 .setFirstResult(JpaConst.ROW_PER_PAGE * (page - 1))//DTOの、日報のprimary key（id）の何番目から取得するか、というSQL文（例：1ページに最大15件表示する場合は、3ページ目を指定すると、15*（3-1）なのでid30番目から表示させる）
                 .setMaxResults(JpaConst.ROW_PER_PAGE)//↑で指定したところから、最大何件まで取得するか、というSQL文
                 .getResultList();//取得した指定分のデータをリストにする
-        return ReportConverter.toViewList(reports);
+        return ReportConverter.toSummaryViewList(reports);
     }
 
     /**
      * 指定した従業員が作成した日報データの件数を取得し、返却する
      * @param employee
+     * @param from この日付以降の日報を対象にする(nullの場合は指定しない)
+     * @param to この日付より前の日報を対象にする(nullの場合は指定しない)
      * @return 日報データの件数
      */
-    public long countAllMine(EmployeeView employee) {//引数に指定する従業員をセット
+    public long countAllMine(EmployeeView employee, LocalDate from, LocalDate to) {//引数に指定する従業員をセット
+        return countAllMine(employee.getId(), from, to);
+    }
+
+    /**
+     * 従業員idを条件に、その従業員が作成した日報データの件数を取得し、返却する
+     * @param employeeId 従業員id
+     * @param from この日付以降の日報を対象にする(nullの場合は指定しない)
+     * @param to この日付より前の日報を対象にする(nullの場合は指定しない)
+     * @return 日報データの件数
+     */
+    public long countAllMine(int employeeId, LocalDate from, LocalDate to) {
 
-        long count = (long)em.createNamedQuery(JpaConst.Q_REP_COUNT_ALL_MINE,Long.class)
-                .setParameter(JpaConst.JPQL_PARM_EMPLOYEE,EmployeeConverter.toModel(employee))
+        long count = (long)setDateRange(readEm().createNamedQuery(JpaConst.Q_REP_COUNT_ALL_MINE,Long.class), from, to)
+                .setParameter(JpaConst.JPQL_PARM_EMPLOYEE, readEm().getReference(Employee.class, employeeId))
                 .getSingleResult();
         return count;
 
@@ -56,25 +262,111 @@ public class ReportService extends ServiceBase{
 
     /**
      * 指定されたページ数の一覧画面に表示する日報データを取得し、ReportViewのリストで返却する
-     * ↑の従業員指定しない版
+     * ↑の従業員指定しない版(一覧には表示しないため、どちらも内容はnull)
+     * 社員番号を指定した場合は、その従業員が作成した日報に絞り込む
+     * @param employeeCode 作成した従業員の社員番号(nullの場合は指定しない)
+     * @param from この日付以降の日報を対象にする(nullの場合は指定しない)
+     * @param to この日付より前の日報を対象にする(nullの場合は指定しない)
      * @param page ページ数
      * @return 一覧画面に表示するデータのリスト
      */
-    public List<ReportView> getAllPerPage(int page){
-
-        List<Report> reports = em.createNamedQuery(JpaConst.Q_REP_GET_ALL, Report.class)
+    public List<ReportView> getAllPerPage(String employeeCode, LocalDate from, LocalDate to, int page){
+
+        TypedQuery<Report> query;
+        if (employeeCode == null) {
+            query = readEm().createNamedQuery(JpaConst.Q_REP_GET_ALL, Report.class);
+        } else {
+            query = readEm().createNamedQuery(JpaConst.Q_REP_GET_BY_EMP_CODE, Report.class)
+                    .setParameter(JpaConst.JPQL_PARM_CODE, employeeCode);
+        }
+        List<Report> reports = setDateRange(query, from, to)
                 .setFirstResult(JpaConst.ROW_PER_PAGE * (page - 1))
                 .setMaxResults(JpaConst.ROW_PER_PAGE)
                 .getResultList();
-        return ReportConverter.toViewList(reports);
+        return ReportConverter.toSummaryViewList(reports);
     }
 
     /**
-     * 日報テーブルのデータの件数を取得し、返却する
+     * 指定した従業員が作成した、指定した月の日報の日付・id・いいねの件数を1回のクエリで取得し、カレンダーとして返却する
+     * (日報・いいねのエンティティは読み込まず、日ごとの件数を集計した結果だけを取得する)
+     * @param employee 従業員
+     * @param month 年月
+     * @return カレンダー
+     */
+    public ReportCalendarView getCalendar(EmployeeView employee, YearMonth month) {
+
+        List<Object[]> rows = setDateRange(readEm().createNamedQuery(JpaConst.Q_REP_GET_CALENDAR, Object[].class),
+                month.atDay(1), month.plusMonths(1).atDay(1))
+                .setParameter(JpaConst.JPQL_PARM_EMPLOYEE, readEm().getReference(Employee.class, employee.getId()))
+                .getResultList();
+
+        int[] days = new int[rows.size()];
+        int[] reportIds = new int[rows.size()];
+        int[] likeCounts = new int[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            Object[] row = rows.get(i);
+            days[i] = ((LocalDate) row[0]).getDayOfMonth();
+            reportIds[i] = (Integer) row[1];
+            likeCounts[i] = ((Long) row[2]).intValue();
+        }
+        return new ReportCalendarView(month, employee, days, reportIds, likeCounts);
+    }
+
+    /**
+     * 指定したidより前(idが小さい)の日報データをidの降順に取得し、1件ずつReportViewに変換して処理する
+     * (リストを作成せず、取得した順に処理する 繰り返し呼び出しても取得済みのエンティティがメモリに溜まらないよう、処理後に永続性コンテキストをクリアする)
+     * @param employeeId 作成した従業員のid 全従業員分の場合null
+     * @param beforeId このidより小さい日報を取得する(先頭から取得する場合はInteger.MAX_VALUE)
+     * @param max 最大件数
+     * @param withContent true: 内容を含める false: 内容はnull(保存されている内容の復元を行わない)
+     * @param action 1件ごとの処理
+     * @return 処理した件数
+     */
+    public int forEachBefore(Integer employeeId, int beforeId, int max, boolean withContent,
+            Consumer<ReportView> action){
+
+        EntityManager rem = readEm();
+        TypedQuery<Report> query;
+        if (employeeId == null) {
+            query = rem.createNamedQuery(
+                    withContent ? JpaConst.Q_REP_GET_BEFORE_WITH_CONTENT : JpaConst.Q_REP_GET_BEFORE, Report.class);
+        } else {
+            query = rem.createNamedQuery(
+                    withContent ? JpaConst.Q_REP_GET_MINE_BEFORE_WITH_CONTENT : JpaConst.Q_REP_GET_MINE_BEFORE, Report.class)
+                    .setParameter(JpaConst.JPQL_PARM_EMPLOYEE, rem.getReference(Employee.class, employeeId));
+        }
+        query.setParameter(JpaConst.JPQL_PARM_ID, beforeId)
+                .setMaxResults(max);
+
+        int count = 0;
+        try (Stream<Report> reports = query.getResultStream()) {
+            for (Report r : (Iterable<Report>) reports::iterator) {
+                action.accept(withContent ? ReportConverter.toView(r) : ReportConverter.toSummaryView(r));
+                count++;
+            }
+        } finally {
+            rem.clear();
+        }
+        return count;
+    }
+
+    /**
+     * 日報テーブルのデータのうち、指定した日付の範囲の件数を取得し、返却する
+     * 社員番号を指定した場合は、その従業員が作成した日報の件数を取得する
+     * @param employeeCode 作成した従業員の社員番号(nullの場合は指定しない)
+     * @param from この日付以降の日報を対象にする(nullの場合は指定しない)
+     * @param to この日付より前の日報を対象にする(nullの場合は指定しない)
      * @return データの件数
      */
-    public long countAll() {
-        long reports_count = (long) em.createNamedQuery(JpaConst.Q_REP_COUNT, Long.class)
+    public long countAll(String employeeCode, LocalDate from, LocalDate to) {
+        TypedQuery<Long> query;
+        if (employeeCode == null) {
+            query = readEm().createNamedQuery(JpaConst.Q_REP_COUNT, Long.class);
+        } else {
+            query = readEm().createNamedQuery(JpaConst.Q_REP_COUNT_BY_EMP_CODE, Long.class)
+                    .setParameter(JpaConst.JPQL_PARM_CODE, employeeCode);
+        }
+        long reports_count = (long) setDateRange(query, from, to)
                 .getSingleResult();
         return reports_count;
     }
@@ -85,7 +377,7 @@ public class ReportService extends ServiceBase{
      * @return 取得データのインスタンス
      */
     public ReportView findOne(int id) {
-        return ReportConverter.toView(findOneInternal(id));
+        return ReportConverter.toView(readEm().find(Report.class, id));
     }
 
     /**
@@ -105,9 +397,37 @@ public class ReportService extends ServiceBase{
         return errors;
         }
     /**
-     * 画面から入力された日報の登録内容を元に、日報データを登録する
-     * @param rv 日報の更新内容
-     * @return バリデーションで発生したエラーのリスト
+     * 画面から入力された複数の日報の登録内容を元に、1つのトランザクションでまとめて日報テーブルに登録する
+     * すべての日報をバリデーションし、1件でもエラーがある場合は1件も登録しない
+     * @param rvs 日報の登録内容のリスト
+     * @return 日報ごとのバリデーションで発生したエラーのリスト(rvsと同じ順 エラーがない日報は空のリスト)
+     */
+    public List<List<String>> createAll(List<ReportView> rvs){
+        List<List<String>> errors = new ArrayList<>(rvs.size());
+        boolean valid = true;
+        for (ReportView rv : rvs) {
+            List<String> e = ReportValidator.validate(rv);
+            errors.add(e);
+            valid = valid && e.isEmpty();
+        }
+        if (valid && !rvs.isEmpty()) {
+            LocalDateTime ldt = LocalDateTime.now();
+            for (ReportView rv : rvs) {
+                rv.setCreatedAt(ldt);
+                rv.setUpdatedAt(ldt);
+            }
+            createAllInternal(rvs);
+        }
+        return errors;
+    }
+
+    /**
+     * 画面から入力された日報の更新内容を元に、日報データを更新する
+     * (更新前のデータは取得せず、1件のUPDATE文で更新する)
+     * 他の更新と競合した場合は、再度更新できるように日報の更新内容のバージョンを現在のバージョンにする
+     * @param rv 日報の更新内容(id・作成者・編集画面を表示したときのバージョンを含む)
+     * @return バリデーションで発生したエラー、または他の更新と競合した場合のエラーのリスト
+     *         日報が存在しない、または作成者の日報ではない場合はnull
      */
     public List<String> update(ReportView rv){
         List<String> errors = ReportValidator.validate(rv);
@@ -116,20 +436,22 @@ public class ReportService extends ServiceBase{
             LocalDateTime ldt = LocalDateTime.now();
             rv.setUpdatedAt(ldt);
 
-            updateInternal(rv);
+            if (!updateInternal(rv)) {
+                //更新されなかった原因を、プライマリの現在の日報で判別する
+                List<Object[]> rows = em.createNamedQuery(JpaConst.Q_REP_GET_AUTHOR_VERSION, Object[].class)
+                        .setParameter(JpaConst.JPQL_PARM_ID, rv.getId())
+                        .getResultList();
+                if (rows.isEmpty() || !rv.getEmployee().getId().equals(rows.get(0)[0])) {
+                    return null;
+                }
+                rv.setVersion((Integer) rows.get(0)[1]);
+                errors.add(MessageConst.E_CONFLICT.getMessage());
+            }
         }
         //バリデーションで発生したエラーを返却
         return errors;
 
     }
-    /**
-     * idを条件にデータを1件取得する
-     * @param id
-     * @return 取得データのインスタンス
-     */
-    private Report findOneInternal(int id) {
-        return em.find(Report.class, id);
-    }
 
     /**
      * 日報データを1件登録する
@@ -137,53 +459,340 @@ public class ReportService extends ServiceBase{
      */
     private void createInternal(ReportView rv) {
         em.getTransaction().begin();
-        em.persist(ReportConverter.toModel(rv));//persist=永続化=DBにレコードとして保存
+
+        //作成者は参照だけを設定する(従業員データをViewから組み立て直さない)
+        Report r = new Report();
+        r.setEmployee(em.getReference(Employee.class, rv.getEmployee().getId()));
+        ReportConverter.copyEditableViewToModel(r, rv);
+        r.setCreatedAt(rv.getCreatedAt());
+
+        em.persist(r);//persist=永続化=DBにレコードとして保存
+        em.getTransaction().commit();
+        markWrite();
+        changeListVersion(em);
+        rv.setId(r.getId());
+        publishReport("created", rv);
+
+    }
+
+    /**
+     * 複数の日報データを1つのトランザクションで登録する
+     * (日報のidはIDENTITYで採番するため、INSERTはJDBCのバッチにはならないがコミットは1回になる)
+     * @param rvs 日報データのリスト
+     */
+    private void createAllInternal(List<ReportView> rvs) {
+        em.getTransaction().begin();
+
+        List<Report> reports = new ArrayList<>(rvs.size());
+        for (ReportView rv : rvs) {
+            Report r = new Report();
+            r.setEmployee(em.getReference(Employee.class, rv.getEmployee().getId()));
+            ReportConverter.copyEditableViewToModel(r, rv);
+            r.setCreatedAt(rv.getCreatedAt());
+            em.persist(r);
+            reports.add(r);
+        }
         em.getTransaction().commit();
+        markWrite();
+        changeListVersion(em);
 
+        for (int i = 0; i < rvs.size(); i++) {
+            rvs.get(i).setId(reports.get(i).getId());
+            publishReport("created", rvs.get(i));
+        }
     }
 
     /**
-     * 日報データを更新する
+     * 日報データを、編集画面を表示したときのバージョンのままの場合のみ更新する
      * @param rv 日報データ
+     * @return true: 更新した false: 他の更新と競合した、または作成者の日報ではない(存在しない)ため更新していない
      */
-    private void updateInternal(ReportView rv) {
+    private boolean updateInternal(ReportView rv) {
         em.getTransaction().begin();
-        Report r = findOneInternal(rv.getId());
-        ReportConverter.copyViewToModel(r, rv);//rv(画面で入力した日報内容)をr（findOneInternalで取得した、DBの元々の日報に上書き）
+        int count = em.createNamedQuery(JpaConst.Q_REP_UPDATE)
+                .setParameter(JpaConst.JPQL_PARM_REP_DATE, rv.getReportDate())
+                .setParameter(JpaConst.JPQL_PARM_TITLE, rv.getTitle())
+                .setParameter(JpaConst.JPQL_PARM_CONTENT, ReportContent.ofText(rv.getContent()))
+                .setParameter(JpaConst.JPQL_PARM_UPDATED_AT, rv.getUpdatedAt())
+                .setParameter(JpaConst.JPQL_PARM_ID, rv.getId())
+                .setParameter(JpaConst.JPQL_PARM_EMPLOYEE, em.getReference(Employee.class, rv.getEmployee().getId()))
+                .setParameter(JpaConst.JPQL_PARM_VERSION, rv.getVersion())
+                .executeUpdate();
         em.getTransaction().commit();
+        if (count == 0) {
+            return false;
+        }
+        markWrite();
+        changeListVersion(em);
+        rv.setVersion(rv.getVersion() + 1);
+        publishReport("updated", rv);
+        return true;
     }
+
     /**
-     * ログイン従業員idとshow画面の日報idを条件にいいね登録を検索する
-     * @param employee ログイン従業員
-     * @param report いいね対象の日報
+     * 圧縮を導入する前に登録された内容のうち、圧縮の対象になる長さのものを圧縮した形式に書き換える
+     * (指定したidより後の日報を最大件数分処理する 内容自体は変わらないため、更新日時・一覧のバージョンは変更しない)
+     * @param afterId このidより大きい日報を対象にする(先頭から処理する場合は0)
+     * @param max 最大件数
+     * @return 最後に処理した日報のid 対象がなかった場合0
+     */
+    public int migrateContent(int afterId, int max) {
+        em.getTransaction().begin();
+        int lastId = em.unwrap(Session.class).doReturningWork(con -> {
+            int last = 0;
+            try (PreparedStatement select = con.prepareStatement(SQL_CONTENT_SELECT);
+                    PreparedStatement update = con.prepareStatement(SQL_CONTENT_UPDATE)) {
+                select.setInt(1, afterId);
+                select.setInt(2, ContentCodec.getThreshold());
+                select.setInt(3, max);
+                boolean batched = false;
+                try (ResultSet rs = select.executeQuery()) {
+                    //列がまだ文字列の場合(ALTER TABLE前)は書き換えない
+                    int type = rs.getMetaData().getColumnType(2);
+                    if (type != Types.BLOB && type != Types.LONGVARBINARY && type != Types.VARBINARY && type != Types.BINARY) {
+                        throw new IllegalStateException(JpaConst.TABLE_REP + "." + JpaConst.REP_COL_CONTENT
+                                + " is not a binary column");
+                    }
+                    while (rs.next()) {
+                        last = rs.getInt(1);
+                        byte[] data = rs.getBytes(2);
+                        if (!ContentCodec.needsMigration(data)) {
+                            continue;
+                        }
+                        byte[] encoded = ContentCodec.encode(ContentCodec.decode(data));
+                        if (ContentCodec.isCompressed(encoded)) {
+                            update.setBytes(1, encoded);
+                            update.setInt(2, last);
+                            update.setTimestamp(3, rs.getTimestamp(3));
+                            update.addBatch();
+                            batched = true;
+                        }
+                    }
+                }
+                if (batched) {
+                    update.executeBatch();
+                }
+            }
+            return last;
+        });
+        em.getTransaction().commit();
+        return lastId;
+    }
+
+    /**
+     * 日付の範囲で分割した日報テーブルの分割を管理する
+     * 今月(今年)から指定した数だけ先の分割までを用意し、残す期間より前の分割は日報テーブルから別のテーブルに切り離す
+     * (MySQL以外のDB、または日報テーブルを分割していない場合は何もしない 分割は期間の初日で区切っていること)
+     * @param unit 1つの分割の期間(ChronoUnit.MONTHS: 月ごと ChronoUnit.YEARS: 年ごと)
+     * @param ahead 今月(今年)より後に用意しておく分割の数
+     * @param retain 今月(今年)を含めて日報テーブルに残す分割の数(0の場合は切り離さない)
+     * @return 実行したSQLのリスト
+     */
+    public List<String> maintainPartitions(ChronoUnit unit, int ahead, int retain) {
+        em.getTransaction().begin();
+        List<String> executed = em.unwrap(Session.class).doReturningWork(con -> {
+            List<String> statements = new ArrayList<>();
+            if (!con.getMetaData().getDatabaseProductName().contains("MySQL")) {
+                return statements;
+            }
+
+            //分割の名前と上限(この日付より前の日報を格納する MAXVALUEの場合null)を分割の順に取得する
+            Map<String, LocalDate> partitions = new LinkedHashMap<>();
+            try (PreparedStatement select = con.prepareStatement(SQL_PARTITION_SELECT)) {
+                select.setString(1, JpaConst.TABLE_REP);
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        String name = rs.getString(1);
+                        if (name == null) {
+                            //分割していない
+                            return statements;
+                        }
+                        if (!"RANGE COLUMNS".equals(rs.getString(2)) || !rs.getString(3).contains(JpaConst.REP_COL_REP_DATE)) {
+                            throw new IllegalStateException(JpaConst.TABLE_REP + " is not partitioned by RANGE COLUMNS("
+                                    + JpaConst.REP_COL_REP_DATE + ")");
+                        }
+                        String bound = rs.getString(4);
+                        partitions.put(name, "MAXVALUE".equals(bound) ? null : LocalDate.parse(bound.replace("'", "")));
+                    }
+                }
+            }
+            if (partitions.isEmpty()) {
+                return statements;
+            }
+
+            LocalDate start = periodStart(LocalDate.now(), unit);
+            String add = addPartitionsSql(partitions, start, start.plus(ahead + 1L, unit), unit);
+            if (add != null) {
+                statements.add(add);
+            }
+            if (retain > 0) {
+                statements.addAll(detachPartitionsSql(partitions, start.minus(retain - 1L, unit)));
+            }
+
+            try (Statement st = con.createStatement()) {
+                for (String sql : statements) {
+                    st.execute(sql);
+                }
+            }
+            return statements;
+        });
+        em.getTransaction().commit();
+        return executed;
+    }
+
+    /**
+     * 指定した日付までの分割を追加するSQLを作成する(MAXVALUEの分割がある場合は、その前に追加する)
+     * @param partitions 分割の名前と上限
+     * @param start 今月(今年)の初日(分割が1つもない場合の最初の分割の開始日)
+     * @param until この日付より前の日報を格納する分割までを用意する
+     * @param unit 1つの分割の期間
+     * @return SQL 追加する分割がない場合null
+     */
+    private static String addPartitionsSql(Map<String, LocalDate> partitions, LocalDate start, LocalDate until,
+            ChronoUnit unit) {
+        String maxName = null;
+        LocalDate last = null;
+        for (Map.Entry<String, LocalDate> p : partitions.entrySet()) {
+            if (p.getValue() == null) {
+                maxName = p.getKey();
+            } else {
+                last = p.getValue();
+            }
+        }
+
+        StringBuilder defs = new StringBuilder();
+        LocalDate lower = last == null ? start : last;
+        while (last == null || last.isBefore(until)) {
+            last = periodStart(lower, unit).plus(1, unit);
+            if (defs.length() > 0) {
+                defs.append(", ");
+            }
+            defs.append("PARTITION ").append(partitionName(lower, unit))
+                    .append(" VALUES LESS THAN ('").append(last).append("')");
+            lower = last;
+        }
+        if (defs.length() == 0) {
+            return null;
+        }
+        if (maxName == null) {
+            return "ALTER TABLE " + JpaConst.TABLE_REP + " ADD PARTITION (" + defs + ")";
+        }
+        return "ALTER TABLE " + JpaConst.TABLE_REP + " REORGANIZE PARTITION " + maxName + " INTO (" + defs
+                + ", PARTITION " + maxName + " VALUES LESS THAN (MAXVALUE))";
+    }
+
+    /**
+     * 指定した日付より前の日報だけを格納する分割を、日報テーブルから切り離すSQLを作成する
+     * (分割と同じ構成のテーブル「日報テーブル名_分割名」を作成して分割と交換し、空になった分割を削除する)
+     * @param partitions 分割の名前と上限
+     * @param before この日付以前が上限の分割を切り離す
+     * @return SQLのリスト
+     */
+    private static List<String> detachPartitionsSql(Map<String, LocalDate> partitions, LocalDate before) {
+        List<String> statements = new ArrayList<>();
+        for (Map.Entry<String, LocalDate> p : partitions.entrySet()) {
+            if (p.getValue() == null || p.getValue().isAfter(before)) {
+                continue;
+            }
+            String table = JpaConst.TABLE_REP + "_" + p.getKey();
+            statements.add("CREATE TABLE " + table + " LIKE " + JpaConst.TABLE_REP);
+            statements.add("ALTER TABLE " + table + " REMOVE PARTITIONING");
+            statements.add("ALTER TABLE " + JpaConst.TABLE_REP + " EXCHANGE PARTITION " + p.getKey() + " WITH TABLE " + table);
+            statements.add("ALTER TABLE " + JpaConst.TABLE_REP + " DROP PARTITION " + p.getKey());
+        }
+        return statements;
+    }
+
+    /**
+     * 指定した日付を含む期間の初日を取得する
+     * @param date 日付
+     * @param unit 期間(ChronoUnit.MONTHS: 月 ChronoUnit.YEARS: 年)
+     * @return 期間の初日
+     */
+    private static LocalDate periodStart(LocalDate date, ChronoUnit unit) {
+        return unit == ChronoUnit.YEARS ? date.withDayOfYear(1) : date.withDayOfMonth(1);
+    }
+
+    /**
+     * 指定した日付から始まる分割の名前を作成する(月ごと: p202401 年ごと: p2024)
+     * @param lower 分割の開始日
+     * @param unit 1つの分割の期間
+     * @return 分割の名前
+     */
+    private static String partitionName(LocalDate lower, ChronoUnit unit) {
+        return "p" + (unit == ChronoUnit.YEARS ? PARTITION_YEAR : PARTITION_MONTH).format(lower);
+    }
+
+    /**
+     * 指定した日以降の、日報の閲覧数・いいねの件数の集計を取得する
+     * (保存した直後に読み込むことがあるため、プライマリから取得する)
+     * @param from この日以降の集計を取得する
+     * @return 集計した日→集計した内容(日付の昇順)
      */
+    public Map<LocalDate, byte[]> getTrendData(LocalDate from) {
+        Map<LocalDate, byte[]> data = new LinkedHashMap<>();
+        for (ReportTrend t : em.createNamedQuery(JpaConst.Q_TREND_GET_SINCE, ReportTrend.class)
+                .setParameter(JpaConst.JPQL_PARM_TREND_DATE, from)
+                .getResultList()) {
+            data.put(t.getTrendDate(), t.getData());
+        }
+        return data;
+    }
 
-    public Like likeFind(Employee employee,Report report) {
+    /**
+     * 日報の閲覧数・いいねの件数の集計を日ごとに保存し、指定した日より前の集計を削除する
+     * @param data 集計した日→集計した内容
+     * @param deleteBefore この日より前の集計を削除する
+     */
+    public void saveTrendData(Map<LocalDate, byte[]> data, LocalDate deleteBefore) {
+        LocalDateTime now = LocalDateTime.now();
+        em.getTransaction().begin();
+        for (Map.Entry<LocalDate, byte[]> e : data.entrySet()) {
+            em.merge(new ReportTrend(e.getKey(), e.getValue(), now));
+        }
+        em.createNamedQuery(JpaConst.Q_TREND_DELETE_BEFORE)
+                .setParameter(JpaConst.JPQL_PARM_TREND_DATE, deleteBefore)
+                .executeUpdate();
+        em.getTransaction().commit();
+        em.clear();
+    }
+    /**
+     * ログイン従業員idとshow画面の日報idを条件にいいね登録を検索する
+     * (いいねの削除に使うため、プライマリから取得する)
+     * @param employeeId ログイン従業員id
+     * @param reportId いいね対象の日報id
+     * @return 取得データのインスタンス 取得できない場合null
+     */
+    public Like likeFind(int employeeId, int reportId) {
         Like l = null;
         try {
 
             // ログインしている従業員idと詳細を開いた日報を条件に1件取得する
             l = em.createNamedQuery(JpaConst.Q_LIKE_GET_BY_EMP_AND_REP,Like.class)
-                    .setParameter(JpaConst.JPQL_PARM_EMPLOYEE, employee)
-                    .setParameter(JpaConst.JPQL_PARM_REPORT,report)
+                    .setParameter(JpaConst.JPQL_PARM_EMPLOYEE, em.getReference(Employee.class, employeeId))
+                    .setParameter(JpaConst.JPQL_PARM_REPORT, em.getReference(Report.class, reportId))
                     .getSingleResult();
         } catch (NoResultException ex){
         }
         return l ;//DBから取得した情報を返却
+    }
 
-
-}
     /** employee_idとreport_idを条件に検索し、データが取得できるかどうかで認証結果を返却する
-     * @param employee_id ログイン従業員
-     * @param report_id showで開いた日報
+     * @param employeeId ログイン従業員id
+     * @param reportId showで開いた日報id
      * @return 認証結果を返却す(成功:true 失敗:false)
      */
-   public Boolean isLiked(Employee employee,Report report) {
+   public Boolean isLiked(int employeeId, int reportId) {
 
        boolean isLiked = false; //そもそもはfalseを返すようにする
-           Like l = likeFind(employee, report);//パラメータを元にDBからデータを検索してlにセット
+           //パラメータを元にDBからデータを検索する
+           List<Like> likes = readEm().createNamedQuery(JpaConst.Q_LIKE_GET_BY_EMP_AND_REP,Like.class)
+                   .setParameter(JpaConst.JPQL_PARM_EMPLOYEE, readEm().getReference(Employee.class, employeeId))
+                   .setParameter(JpaConst.JPQL_PARM_REPORT, readEm().getReference(Report.class, reportId))
+                   .setMaxResults(1)
+                   .getResultList();
 
-           if (l != null && l.getId() != null) {//lの中身が空でない（引数と同じ内容のレコードを持ったLikeがDBに存在する）か確認
+           if (!likes.isEmpty()) {//lの中身が空でない（引数と同じ内容のレコードを持ったLikeがDBに存在する）か確認
 
                //データが取得できた場合、認証成功
                isLiked = true;//認証できたときにtrueを返すようにする
@@ -195,29 +804,51 @@ public class ReportService extends ServiceBase{
 
    /**
     * 指定した日報のいいね件数を取得し、返却する
-    * @param report
+    * @param reportId 日報id
     * @return その日報のいいねの件数
     */
-   public long countAllMine(Report report) {//引数に指定する日報をセット
+   public long likeCount(int reportId) {
 
-       long count = (long)em.createNamedQuery(JpaConst.Q_LIKE_COUNT_ALL_MINE,Long.class)
-               .setParameter(JpaConst.JPQL_PARM_REPORT,report)
+       long count = (long)readEm().createNamedQuery(JpaConst.Q_LIKE_COUNT_ALL_MINE,Long.class)
+               .setParameter(JpaConst.JPQL_PARM_REPORT, readEm().getReference(Report.class, reportId))
                .getSingleResult();
        return count;
 
    }
 
-   public void likeCreate(Like l) {
-       LocalDateTime ldt = LocalDateTime.now();
-       l.setCreated_at(ldt);
+   /**
+    * 従業員idと日報idを元にいいねデータを1件登録する
+    * @param employeeId いいねする従業員id
+    * @param reportId いいねされる日報id
+    */
+   public void likeCreate(int employeeId, int reportId) {
        em.getTransaction().begin();
+       Like l = new Like(
+               null,
+               em.getReference(Employee.class, employeeId),
+               em.getReference(Report.class, reportId),
+               LocalDateTime.now());
        em.persist(l);//persist=永続化=DBにレコードとして保存
        em.getTransaction().commit();
-}
+       markWrite();
+       publishLike(employeeId, reportId, true);
+   }
 
-   public void likeDestroy(Like l) {
+   /**
+    * 従業員idと日報idを条件にいいねデータを削除する(該当データがなければ何もしない)
+    * @param employeeId いいねした従業員id
+    * @param reportId いいねされた日報id
+    */
+   public void likeDestroy(int employeeId, int reportId) {
        em.getTransaction().begin();
-       em.remove(l);       // データ削除
+       Like l = likeFind(employeeId, reportId);
+       if (l != null) {
+           em.remove(l);       // データ削除
+       }
        em.getTransaction().commit();
+       markWrite();
+       if (l != null) {
+           publishLike(employeeId, reportId, false);
+       }
    }
 }
\ No newline at end of file
@@ -3,27 +3,90 @@ package services;
 import javax.persistence.EntityManager;
 
 import utils.DBUtil;
+import utils.ReadConsistency;
 
 /**
  * DB接続に関わる共通処理を行うクラス
  * 今まで各サーブレットてEntityManagerを生成してはcloseしていたが、このクラスを各serviceクラスが継承することでその処理がここに集約
  */
 
-public class ServiceBase {
+public class ServiceBase implements AutoCloseable {
 
     /**
-     * EntityManagerインスタンス
+     * EntityManagerインスタンス(プライマリ 書き込みと、書き込みの前後で最新の値が必要な読み取りに使う)
      */
     protected EntityManager em = DBUtil.createEntityManager();
 
     /**
-     * EntityManagerのクローズ
+     * 読み取りに使うEntityManagerインスタンス(初めて使うときに決め、以降は同じものを使う)
+     */
+    private EntityManager readEm;
+
+    /**
+     * サービスを作成したリクエストのクライアントが最後に書き込んだ時刻(リクエスト以外で作成した場合null)
+     */
+    private final ReadConsistency consistency = ReadConsistency.current();
+
+    /**
+     * このインスタンスで書き込みを行ったかどうか
      */
+    private boolean written;
 
+    /**
+     * 読み取り専用のメソッドで使うEntityManagerを取得する
+     * このインスタンスで書き込んだ後、またはリクエストのクライアントが一定時間内に書き込んでいた場合はプライマリ、それ以外はレプリカ
+     * (初めて呼び出したときに決め、書き込むまでは同じものを返すため、1つのクエリとその条件の参照は同じEntityManagerから取得される)
+     * ※取得したエンティティは読み取り専用のため、更新・削除には使わないこと
+     * @return EntityManagerインスタンス
+     */
+    protected EntityManager readEm() {
+        if (readEm == null) {
+            readEm = !DBUtil.isReplicaEnabled() || written
+                    || (consistency != null && consistency.isRecentlyWritten())
+                            ? em
+                            : DBUtil.createReadOnlyEntityManager();
+        }
+        return readEm;
+    }
+
+    /**
+     * 以降の読み取りをプライマリで行う
+     * (読み取った内容を他のクライアントと共有するキャッシュに保存する場合等、レプリカの遅れた内容を読んではいけないときに呼び出す)
+     */
+    public void readFromPrimary() {
+        if (readEm != null && readEm != em) {
+            readEm.close();
+        }
+        readEm = em;
+    }
+
+    /**
+     * 書き込みを行ったことを記録する(コミット後に呼び出す)
+     * 以降の読み取りはプライマリで行い、リクエストのクライアントにも書き込んだ時刻を記録する
+     */
+    protected void markWrite() {
+        written = true;
+        if (readEm != null && readEm != em) {
+            readEm.close();
+        }
+        readEm = em;
+        if (consistency != null) {
+            consistency.markWrite();
+        }
+    }
+
+    /**
+     * EntityManagerのクローズ
+     * (try-with-resources文で使える)
+     */
+    @Override
     public void close() {
         if(em.isOpen()) {
             em.close();
         }
+        if(readEm != null && readEm != em && readEm.isOpen()) {
+            readEm.close();
+        }
     }
 
 }
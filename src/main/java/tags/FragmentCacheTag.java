@@ -0,0 +1,59 @@
+package tags;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import javax.servlet.jsp.JspException;
+import javax.servlet.jsp.PageContext;
+import javax.servlet.jsp.tagext.SimpleTagSupport;
+
+import constants.PropertyConst;
+import utils.FragmentCache;
+
+/**
+ * 本体の描画結果をFragmentCacheに登録するタグ
+ * Action側でキャッシュを参照し、取得できた場合は cached に渡す(本体は描画しない)
+ * 取得できなかった場合は本体を描画して出力し、同じ内容を key で登録する
+ * 例) &lt;drs:cache key="${fragment_key}" cached="${fragment}"&gt;...&lt;/drs:cache&gt;
+ */
+public class FragmentCacheTag extends SimpleTagSupport {
+
+    private String key;
+    private String cached;
+
+    /**
+     * @param key キャッシュのキー(FragmentCache.keyで作成したもの)
+     */
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    /**
+     * @param cached キャッシュから取得したHTML(キャッシュになかった場合null ELでは空文字になるため空文字も同様に扱う)
+     */
+    public void setCached(String cached) {
+        this.cached = cached;
+    }
+
+    @Override
+    public void doTag() throws JspException, IOException {
+        if (cached != null && !cached.isEmpty()) {
+            getJspContext().getOut().write(cached);
+            return;
+        }
+
+        StringWriter body = new StringWriter();
+        if (getJspBody() != null) {
+            getJspBody().invoke(body);
+        }
+        String html = body.toString();
+
+        FragmentCache cache = (FragmentCache) getJspContext().getAttribute(
+                PropertyConst.FRAGMENT_CACHE.getValue(), PageContext.APPLICATION_SCOPE);
+        if (cache != null && key != null) {
+            cache.put(key, html);
+        }
+        getJspContext().getOut().write(html);
+    }
+
+}
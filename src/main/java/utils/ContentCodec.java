@@ -0,0 +1,164 @@
+package utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 日報の内容をDBに保存する形式(バイト列)に変換するクラス
+ * 一定の長さ以上の内容は圧縮して保存する
+ * 形式:
+ *   先頭が0xFF以外  UTF-8の文字列そのまま(圧縮しない内容・圧縮を導入する前に登録された内容)
+ *   0xFF 0x01 元の長さ(4バイト) 圧縮データ  raw deflateで圧縮した内容
+ * 0xFFはUTF-8の文字列には現れないため、先頭の1バイトで区別できる。2バイト目は圧縮方式で、方式を追加する場合は新しい値を割り当てる
+ *   drs.content.compress.threshold  圧縮する内容の長さ(UTF-8のバイト数)の下限
+ */
+public class ContentCodec {
+
+    private static final String PROP_THRESHOLD = "drs.content.compress.threshold";
+
+    //圧縮する内容の長さの下限の初期値(これより短い内容は圧縮しても効果が小さいため、そのまま保存する)
+    private static final int DEFAULT_THRESHOLD = 1024;
+
+    /**
+     * 形式を示す先頭のバイト
+     */
+    private static final byte MARKER = (byte) 0xFF;
+
+    /**
+     * 圧縮方式: raw deflate
+     */
+    private static final byte CODEC_DEFLATE = 0x01;
+
+    /**
+     * raw deflateで圧縮した内容のヘッダーの長さ(先頭・圧縮方式・元の長さ)
+     */
+    private static final int DEFLATE_HEADER = 6;
+
+    private static final int threshold = Integer.getInteger(PROP_THRESHOLD, DEFAULT_THRESHOLD);
+
+    /**
+     * 圧縮に使うDeflater(日報の登録・更新のたびに確保・解放しないよう使い回す)
+     */
+    private static final DeflaterPool deflaters = new DeflaterPool(Deflater.BEST_SPEED, true, 16);
+
+    private ContentCodec() {
+    }
+
+    /**
+     * 圧縮する内容の長さの下限を取得する
+     * @return 長さ(UTF-8のバイト数)
+     */
+    public static int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * 内容を保存する形式に変換する(長さが下限以上で、圧縮して小さくなる場合のみ圧縮する)
+     * @param text 内容
+     * @return 保存するバイト列
+     */
+    public static byte[] encode(String text) {
+        byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+        if (raw.length >= threshold) {
+            byte[] compressed = deflate(raw);
+            if (compressed != null) {
+                return compressed;
+            }
+        }
+        return raw;
+    }
+
+    /**
+     * 保存されたバイト列から内容を復元する
+     * @param data 保存されたバイト列
+     * @return 内容
+     */
+    public static String decode(byte[] data) {
+        if (!isCompressed(data)) {
+            return new String(data, StandardCharsets.UTF_8);
+        }
+        if (data[1] != CODEC_DEFLATE || data.length < DEFLATE_HEADER) {
+            throw new IllegalStateException("unknown report content format: " + (data[1] & 0xFF));
+        }
+        return new String(inflate(data), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 圧縮されたバイト列かどうか
+     * @param data 保存されたバイト列
+     * @return true: 圧縮されている false: UTF-8の文字列そのまま
+     */
+    public static boolean isCompressed(byte[] data) {
+        return data.length > 1 && data[0] == MARKER;
+    }
+
+    /**
+     * 圧縮されていないバイト列のうち、圧縮の対象になる長さかどうか(圧縮を導入する前に登録された内容の移行に使う)
+     * @param data 保存されたバイト列
+     * @return true: 圧縮の対象 false: 圧縮済み、または下限より短い
+     */
+    public static boolean needsMigration(byte[] data) {
+        return !isCompressed(data) && data.length >= threshold;
+    }
+
+    /**
+     * raw deflateで圧縮し、ヘッダーを付ける
+     * @param raw 元のバイト列
+     * @return 圧縮したバイト列 元より小さくならない場合null
+     */
+    private static byte[] deflate(byte[] raw) {
+        //元より小さくならない場合は途中でやめるため、出力先は元の長さ分だけ用意する
+        byte[] out = new byte[raw.length];
+        out[0] = MARKER;
+        out[1] = CODEC_DEFLATE;
+        out[2] = (byte) (raw.length >>> 24);
+        out[3] = (byte) (raw.length >>> 16);
+        out[4] = (byte) (raw.length >>> 8);
+        out[5] = (byte) raw.length;
+
+        Deflater deflater = deflaters.acquire();
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            int length = DEFLATE_HEADER + deflater.deflate(out, DEFLATE_HEADER, out.length - DEFLATE_HEADER);
+            if (!deflater.finished() || length >= raw.length) {
+                return null;
+            }
+            return Arrays.copyOf(out, length);
+        } finally {
+            deflaters.release(deflater);
+        }
+    }
+
+    /**
+     * ヘッダーの元の長さを使い、raw deflateで圧縮されたデータを復元する
+     * @param data 圧縮したバイト列
+     * @return 元のバイト列
+     */
+    private static byte[] inflate(byte[] data) {
+        int length = (data[2] & 0xFF) << 24 | (data[3] & 0xFF) << 16 | (data[4] & 0xFF) << 8 | (data[5] & 0xFF);
+        byte[] out = new byte[length];
+
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(data, DEFLATE_HEADER, data.length - DEFLATE_HEADER);
+            int offset = 0;
+            while (offset < length) {
+                int n = inflater.inflate(out, offset, length - offset);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("truncated report content");
+                }
+                offset += n;
+            }
+            return out;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("broken report content", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+}
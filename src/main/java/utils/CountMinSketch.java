@@ -0,0 +1,101 @@
+package utils;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * int型のキーごとの出現回数を、固定の容量で近似的に数えるクラス(Count-Min Sketch)
+ * ・キーごとに行の数だけカウンタを増やし、最小値を回数の推定値にする(実際の回数より少なくはならない)
+ * ・推定値の誤差は、全体の回数の 約2.7 / 列の数 倍まで
+ * ・カウンタはロックを使わずに増やすため、複数のスレッドから同時に呼び出せる
+ * ・ハッシュ関数は固定のため、保存したカウンタを再起動後に読み込んで続きから数えられる
+ */
+public class CountMinSketch {
+
+    /**
+     * 行の数(ハッシュ関数の数)
+     */
+    public static final int DEPTH = 4;
+
+    //行ごとのハッシュ関数(multiply-shift)の係数(奇数)と加算する値
+    private static final int[] MULTIPLIERS = { 0x9E3779B1, 0x85EBCA77, 0xC2B2AE3D, 0x27D4EB2F };
+    private static final int[] OFFSETS = { 0x165667B1, 0x61C88647, 0x7FEB352D, 0x846CA68B };
+
+    private final int width;
+    private final int shift;
+    private final AtomicIntegerArray counters;
+
+    /**
+     * コンストラクタ
+     * @param width 列の数(2のべき乗に切り上げる)
+     */
+    public CountMinSketch(int width) {
+        int bits = 32 - Integer.numberOfLeadingZeros(Math.max(width, 2) - 1);
+        this.width = 1 << bits;
+        this.shift = 32 - bits;
+        this.counters = new AtomicIntegerArray(DEPTH * this.width);
+    }
+
+    /**
+     * 列の数を取得する
+     * @return 列の数
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * キーの回数を1増やす
+     * @param key キー
+     * @return 増やした後の回数の推定値
+     */
+    public int add(int key) {
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            min = Math.min(min, counters.incrementAndGet(index(row, key)));
+        }
+        return min;
+    }
+
+    /**
+     * キーの回数の推定値を取得する
+     * @param key キー
+     * @return 回数の推定値
+     */
+    public int estimate(int key) {
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            min = Math.min(min, counters.get(index(row, key)));
+        }
+        return min;
+    }
+
+    /**
+     * カウンタを書き出す
+     * @param out 出力先
+     * @throws IOException
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        for (int i = 0; i < counters.length(); i++) {
+            out.writeInt(counters.get(i));
+        }
+    }
+
+    /**
+     * writeToで書き出したカウンタを読み込み、現在の回数に加える(列の数が同じインスタンスで書き出したもの)
+     * @param in 入力元
+     * @throws IOException
+     */
+    public void addFrom(DataInput in) throws IOException {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.addAndGet(i, in.readInt());
+        }
+    }
+
+    private int index(int row, int key) {
+        return row * width + ((key * MULTIPLIERS[row] + OFFSETS[row]) >>> shift);
+    }
+
+}
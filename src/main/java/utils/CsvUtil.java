@@ -0,0 +1,55 @@
+package utils;
+
+/**
+ * CSV形式の文字列を作成するクラス
+ */
+public class CsvUtil {
+
+    /**
+     * 値をCSVの1行にする(RFC 4180 区切り文字・改行・ダブルクォートを含む値はダブルクォートで囲む)
+     * 文字列の値が表計算ソフトで数式として解釈される文字(= + - @ タブ CR)で始まる場合は、
+     * 先頭に ' を付けてダブルクォートで囲む(入力されたタイトル・内容等を開いたときに数式として実行させない)
+     * @param values 値(nullは空文字として扱う)
+     * @return 改行コード(CRLF)を含む1行
+     */
+    public static String line(Object... values) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            if (values[i] instanceof CharSequence && isFormula((CharSequence) values[i])) {
+                appendQuoted(sb, "'" + values[i]);
+            } else {
+                appendValue(sb, values[i] == null ? "" : values[i].toString());
+            }
+        }
+        return sb.append("\r\n").toString();
+    }
+
+    private static boolean isFormula(CharSequence value) {
+        if (value.length() == 0) {
+            return false;
+        }
+        char c = value.charAt(0);
+        return c == '=' || c == '+' || c == '-' || c == '@' || c == '\t' || c == '\r';
+    }
+
+    private static void appendValue(StringBuilder sb, String value) {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            sb.append(value);
+            return;
+        }
+        appendQuoted(sb, value);
+    }
+
+    private static void appendQuoted(StringBuilder sb, String value) {
+        sb.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+}
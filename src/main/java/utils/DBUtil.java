@@ -1,27 +1,172 @@
 package utils;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.Persistence;
 
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+
 import constants.JpaConst;
 
+/**
+ * EntityManagerを生成するクラス
+ * 書き込み用(プライマリ)と読み取り専用(レプリカ)の2つのpersistence-unitを扱う
+ *
+ * persistence.xmlの設定値はシステムプロパティで上書きできる(環境ごとに接続先を変える場合や、ローカルでH2を使う場合)
+ *   drs.jpa.〈プロパティ名〉         プライマリの設定 例: -Ddrs.jpa.javax.persistence.jdbc.url=jdbc:h2:mem:primary
+ *   drs.replica.jpa.〈プロパティ名〉 レプリカの設定
+ *   drs.replica.enabled              trueの場合のみレプリカを使う(未設定の場合は読み取りもプライマリで行う)
+ *   drs.replica.stickiness.ms        書き込んだクライアントの読み取りをプライマリで行う時間(ミリ秒 レプリカの反映遅延より長くする)
+ *
+ * 仮想スレッドモード(virtual-threadsプロファイルでビルドしたWARのみ)
+ *   drs.virtual.enabled              trueの場合、リクエストを仮想スレッドで処理し、コネクションプールにHikariCPを使う
+ *   drs.db.max.concurrency           DBを使う処理の同時実行数の上限(=コネクションプールの最大数)
+ *   drs.db.acquire.timeout.ms        上限に達している場合に待つ時間(ミリ秒 超えた場合は503を返す)
+ */
 public class DBUtil {
 
+    //システムプロパティ名
+    private static final String PROP_PRIMARY_PREFIX = "drs.jpa.";
+    private static final String PROP_REPLICA_PREFIX = "drs.replica.jpa.";
+    private static final String PROP_REPLICA_ENABLED = "drs.replica.enabled";
+    private static final String PROP_REPLICA_STICKINESS = "drs.replica.stickiness.ms";
+    private static final String PROP_VIRTUAL_ENABLED = "drs.virtual.enabled";
+    private static final String PROP_MAX_CONCURRENCY = "drs.db.max.concurrency";
+    private static final String PROP_ACQUIRE_TIMEOUT = "drs.db.acquire.timeout.ms";
+
+    //書き込み後、読み取りをプライマリで行う時間の初期値(ミリ秒)
+    private static final long DEFAULT_STICKINESS = 2000;
+    //DBを使う処理の同時実行数の初期値(HikariCPの最大プールサイズの初期値と同じ)
+    private static final int DEFAULT_MAX_CONCURRENCY = 10;
+    //同時実行数の上限に達している場合に待つ時間の初期値(ミリ秒)
+    private static final long DEFAULT_ACQUIRE_TIMEOUT = 5000;
+
+    //仮想スレッドモードで使うコネクションプール(Hibernate付属のプールはsynchronizedで仮想スレッドをキャリアスレッドに固定するため)
+    private static final String HIKARI_PROVIDER = "org.hibernate.hikaricp.internal.HikariCPConnectionProvider";
+
     private static EntityManagerFactory emf;
+    private static EntityManagerFactory replicaEmf;
+
+    private static final boolean replicaEnabled = Boolean.getBoolean(PROP_REPLICA_ENABLED);
+    private static final long stickiness = Long.getLong(PROP_REPLICA_STICKINESS, DEFAULT_STICKINESS);
+    private static final boolean virtualEnabled = Boolean.getBoolean(PROP_VIRTUAL_ENABLED);
+    private static final int maxConcurrency = Integer.getInteger(PROP_MAX_CONCURRENCY, DEFAULT_MAX_CONCURRENCY);
+    private static final long acquireTimeout = Long.getLong(PROP_ACQUIRE_TIMEOUT, DEFAULT_ACQUIRE_TIMEOUT);
 
     //EntityManagerインスタンスを生成
     public static EntityManager createEntityManager() {
         return _getEntityManagerFactory().createEntityManager();
     }
 
+    /**
+     * 読み取り専用のEntityManagerインスタンスを生成する
+     * レプリカが有効な場合はレプリカに接続し、取得したエンティティは変更の追跡(スナップショット)を行わない
+     * @return EntityManagerインスタンス
+     */
+    public static EntityManager createReadOnlyEntityManager() {
+        EntityManager em = replicaEnabled
+                ? _getReplicaEntityManagerFactory().createEntityManager()
+                : _getEntityManagerFactory().createEntityManager();
+        Session session = em.unwrap(Session.class);
+        session.setDefaultReadOnly(true);
+        session.setHibernateFlushMode(FlushMode.MANUAL);
+        return em;
+    }
+
+    /**
+     * レプリカを使うかどうか
+     * @return true: レプリカを使う false: 読み取りもプライマリで行う
+     */
+    public static boolean isReplicaEnabled() {
+        return replicaEnabled;
+    }
+
+    /**
+     * 書き込んだクライアントの読み取りをプライマリで行う時間(ミリ秒)
+     * @return 時間
+     */
+    public static long getReplicaStickiness() {
+        return stickiness;
+    }
+
+    /**
+     * 仮想スレッドモードかどうか
+     * @return true: リクエストを仮想スレッドで処理する false: コンテナのスレッドで処理する
+     */
+    public static boolean isVirtualThreadsEnabled() {
+        return virtualEnabled;
+    }
+
+    /**
+     * DBを使う処理の同時実行数の上限
+     * @return 上限
+     */
+    public static int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * 同時実行数の上限に達している場合に待つ時間(ミリ秒)
+     * @return 時間
+     */
+    public static long getAcquireTimeout() {
+        return acquireTimeout;
+    }
+
+    /**
+     * EntityManagerFactoryを閉じる(コネクションプールを停止する)
+     */
+    public static synchronized void close() {
+        if (emf != null) {
+            emf.close();
+            emf = null;
+        }
+        if (replicaEmf != null) {
+            replicaEmf.close();
+            replicaEmf = null;
+        }
+    }
+
     //EntityManagerFactoryインスタンスを生成
-    private static EntityManagerFactory _getEntityManagerFactory() {
+    private static synchronized EntityManagerFactory _getEntityManagerFactory() {
         if(emf == null) {
-            emf = Persistence.createEntityManagerFactory(JpaConst.PERSISTENCE_UNIT_NAME);
+            emf = Persistence.createEntityManagerFactory(JpaConst.PERSISTENCE_UNIT_NAME, overrides(PROP_PRIMARY_PREFIX));
         }
 
     return emf;
     }
 
+    //レプリカのEntityManagerFactoryインスタンスを生成
+    private static synchronized EntityManagerFactory _getReplicaEntityManagerFactory() {
+        if(replicaEmf == null) {
+            replicaEmf = Persistence.createEntityManagerFactory(JpaConst.PERSISTENCE_UNIT_NAME_REPLICA, overrides(PROP_REPLICA_PREFIX));
+        }
+
+        return replicaEmf;
+    }
+
+    /**
+     * 指定した接頭辞で始まるシステムプロパティを、persistence.xmlの設定値を上書きするMapにする
+     * @param prefix 接頭辞
+     * @return 接頭辞を除いたプロパティ名→値
+     */
+    private static Map<String, String> overrides(String prefix) {
+        Map<String, String> props = new HashMap<>();
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith(prefix)) {
+                props.put(name.substring(prefix.length()), System.getProperty(name));
+            }
+        }
+        if (virtualEnabled) {
+            //プールの最大数を同時実行数の上限に合わせる(個別に指定されている場合はそちらを優先する)
+            props.putIfAbsent("hibernate.connection.provider_class", HIKARI_PROVIDER);
+            props.putIfAbsent("hibernate.hikari.maximumPoolSize", String.valueOf(maxConcurrency));
+        }
+        return props;
+    }
+
 }
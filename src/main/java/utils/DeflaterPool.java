@@ -0,0 +1,70 @@
+package utils;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.zip.Deflater;
+
+/**
+ * Deflater(zlibのネイティブメモリを持つ)を使い回すためのプール
+ * リクエストごとにDeflaterを生成・破棄するとネイティブメモリの確保・解放が毎回発生するため、
+ * 使い終わったものをreset()してプールに戻す
+ */
+public class DeflaterPool {
+
+    /**
+     * 圧縮レベル
+     */
+    private final int level;
+
+    /**
+     * ヘッダー・トレーラーなし(raw deflate)で圧縮するかどうか
+     */
+    private final boolean nowrap;
+
+    /**
+     * 返却されたDeflater(最大数を超えた分は破棄する)
+     */
+    private final ArrayBlockingQueue<Deflater> idle;
+
+    /**
+     * コンストラクタ
+     * @param level 圧縮レベル(Deflater.BEST_SPEED 等)
+     * @param nowrap true: raw deflate(gzip等、呼び出し側でヘッダーを付ける場合) false: zlib形式
+     * @param maxIdle プールに保持する最大数
+     */
+    public DeflaterPool(int level, boolean nowrap, int maxIdle) {
+        this.level = level;
+        this.nowrap = nowrap;
+        this.idle = new ArrayBlockingQueue<>(maxIdle);
+    }
+
+    /**
+     * Deflaterを取得する(プールが空の場合は新規に生成する)
+     * @return Deflaterのインスタンス
+     */
+    public Deflater acquire() {
+        Deflater d = idle.poll();
+        return d != null ? d : new Deflater(level, nowrap);
+    }
+
+    /**
+     * 使い終わったDeflaterをプールに戻す
+     * @param d acquire()で取得したDeflater
+     */
+    public void release(Deflater d) {
+        d.reset();
+        if (!idle.offer(d)) {
+            d.end();
+        }
+    }
+
+    /**
+     * プールに保持しているDeflaterをすべて破棄する
+     */
+    public void close() {
+        Deflater d;
+        while ((d = idle.poll()) != null) {
+            d.end();
+        }
+    }
+
+}
@@ -0,0 +1,167 @@
+package utils;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import actions.views.EmployeeView;
+
+/**
+ * 日報の作成者として表示する従業員の概要(id・社員番号・氏名・管理者権限・削除フラグ・バージョン)を、idごとに保持するキャッシュ
+ * ・idはint型の配列に持つオープンアドレス法のハッシュ表で、参照はロックもボクシングも行わない(登録・全件削除のみロックする)
+ * ・件数の上限に達した後は新しい従業員を登録しない(保持している従業員の置き換えは行う)
+ * ・ハッシュ表は件数の上限の2倍以上の2のべき乗で作成し、使用率を1/2以下に保つ
+ *   (上限10万件で、ハッシュ表は262,144要素 × (id 4バイト + 参照 4バイト) = 約2MB、
+ *    概要1件あたりEmployeeView・社員番号・氏名等で約170バイト、10万件登録した状態の実測で合計約18MB)
+ * ・保持するEmployeeViewは複数の画面で共有するため、取得した側で変更しないこと
+ * ・サーバー(JVM)ごとのキャッシュのため、他のサーバーでの更新はバージョンを比べて検出する(EmployeeConverter.toSummaryView)
+ */
+public class EmployeeSummaryCache implements EmployeeSummaryCacheMXBean {
+
+    //idを散らすための係数(黄金比)
+    private static final int HASH_MULTIPLIER = 0x9E3779B9;
+
+    private final int maxEntries;
+    private final int mask;
+    private final int shift;
+
+    /**
+     * id(0は空き 従業員の登録後に設定する)
+     */
+    private final AtomicIntegerArray keys;
+
+    /**
+     * 従業員の概要(keysと同じ位置)
+     */
+    private final AtomicReferenceArray<EmployeeView> values;
+
+    private int size;
+    private long rejections;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * コンストラクタ
+     * @param maxEntries 件数の上限
+     */
+    public EmployeeSummaryCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        int bits = 32 - Integer.numberOfLeadingZeros(Math.max(maxEntries, 1) * 2 - 1);
+        this.mask = (1 << bits) - 1;
+        this.shift = 32 - bits;
+        this.keys = new AtomicIntegerArray(1 << bits);
+        this.values = new AtomicReferenceArray<>(1 << bits);
+    }
+
+    /**
+     * idに該当する従業員の概要を取得する
+     * @param id 従業員のid
+     * @return 従業員の概要 キャッシュにない場合null
+     */
+    public EmployeeView get(int id) {
+        if (id > 0) {
+            for (int i = slot(id);; i = (i + 1) & mask) {
+                int key = keys.get(i);
+                if (key == id) {
+                    EmployeeView ev = values.get(i);
+                    if (ev != null) {
+                        hits.increment();
+                        return ev;
+                    }
+                    break; //全件削除の途中
+                }
+                if (key == 0) {
+                    break;
+                }
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * 従業員の概要を登録する(同じidの概要は置き換える)
+     * @param ev 従業員の概要(idは1以上)
+     */
+    public synchronized void put(EmployeeView ev) {
+        int id = ev.getId();
+        for (int i = slot(id);; i = (i + 1) & mask) {
+            int key = keys.get(i);
+            if (key == id) {
+                values.set(i, ev);
+                return;
+            }
+            if (key == 0) {
+                if (size >= maxEntries) {
+                    rejections++;
+                    return;
+                }
+                //概要を設定してからidを設定する(idが見つかった時点で概要も参照できる)
+                values.set(i, ev);
+                keys.set(i, id);
+                size++;
+                return;
+            }
+        }
+    }
+
+    private int slot(int id) {
+        return (id * HASH_MULTIPLIER) >>> shift;
+    }
+
+    @Override
+    public synchronized void clear() {
+        for (int i = 0; i < keys.length(); i++) {
+            keys.set(i, 0);
+        }
+        for (int i = 0; i < values.length(); i++) {
+            values.set(i, null);
+        }
+        size = 0;
+    }
+
+    @Override
+    public long getHits() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public synchronized long getRejections() {
+        return rejections;
+    }
+
+    @Override
+    public double getHitRatio() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    @Override
+    public synchronized int getEntries() {
+        return size;
+    }
+
+    @Override
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    @Override
+    public long getTableBytes() {
+        //配列のヘッダ16バイト × 2 + 1要素あたりid 4バイト・参照 4バイト(圧縮された参照の場合)
+        return 32 + 8L * keys.length();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("entries=%d/%d, hits=%d, misses=%d, rejections=%d",
+                size, maxEntries, hits.sum(), misses.sum(), rejections);
+    }
+
+}
@@ -0,0 +1,47 @@
+package utils;
+
+/**
+ * EmployeeSummaryCacheの統計情報(JMXで参照する)
+ */
+public interface EmployeeSummaryCacheMXBean {
+
+    /**
+     * @return キャッシュから返した回数
+     */
+    long getHits();
+
+    /**
+     * @return キャッシュになかった回数
+     */
+    long getMisses();
+
+    /**
+     * @return 件数の上限に達していたため登録しなかった回数
+     */
+    long getRejections();
+
+    /**
+     * @return ヒット率(0～1 まだ参照がない場合は0)
+     */
+    double getHitRatio();
+
+    /**
+     * @return 保持している件数
+     */
+    int getEntries();
+
+    /**
+     * @return 件数の上限
+     */
+    int getMaxEntries();
+
+    /**
+     * @return ハッシュ表(idと従業員の配列)のサイズ(バイト)
+     */
+    long getTableBytes();
+
+    /**
+     * 全件削除する
+     */
+    void clear();
+}
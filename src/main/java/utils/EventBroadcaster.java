@@ -0,0 +1,254 @@
+package utils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+
+/**
+ * Server-Sent Eventsの接続を保持し、イベントを全接続に配信するクラス(アプリケーションで1つ)
+ * ・送信はノンブロッキングI/O(WriteListener)で行い、配信する側のスレッドは接続ごとの送信を待たない
+ * ・接続ごとに送信待ちのイベントを上限件数まで保持し、上限を超えた(受信が追いつかない)接続は切断する
+ *   (ブラウザのEventSourceは自動で再接続する)
+ * ・サーバー(JVM)ごとの配信のため、複数台構成では同じサーバーで登録・更新されたイベントのみ届く
+ */
+public class EventBroadcaster {
+
+    /**
+     * 接続直後に送る内容(再接続までの時間の指定)
+     */
+    private static final byte[] HELLO = "retry: 10000\n\n".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * 接続を維持するためのコメント
+     */
+    private static final byte[] HEARTBEAT = ": ping\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final int maxConnections;
+    private final int bufferEvents;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+
+    /**
+     * コンストラクタ
+     * @param maxConnections 同時接続数の上限
+     * @param bufferEvents 接続ごとに送信待ちにできるイベントの件数
+     */
+    public EventBroadcaster(int maxConnections, int bufferEvents) {
+        this.maxConnections = maxConnections;
+        this.bufferEvents = bufferEvents;
+    }
+
+    /**
+     * 非同期処理を開始したリクエストを配信先として登録する
+     * Content-Type等のヘッダーは呼び出し側で設定しておくこと
+     * @param async 非同期処理のコンテキスト(タイムアウトなしにしておくこと)
+     * @return true: 登録した false: 同時接続数の上限に達している
+     * @throws IOException
+     */
+    public boolean subscribe(AsyncContext async) throws IOException {
+        if (subscribers.size() >= maxConnections) {
+            return false;
+        }
+        ServletOutputStream out = async.getResponse().getOutputStream();
+        Subscriber s = new Subscriber(async, out);
+        subscribers.add(s);
+        async.addListener(s);
+        s.offer(HELLO);
+        //送信可能になるとonWritePossibleが呼ばれ、送信待ちのイベントを送る
+        out.setWriteListener(s);
+        return true;
+    }
+
+    /**
+     * イベントを全接続に配信する
+     * @param event イベント名
+     * @param data データ(改行を含まないこと)
+     */
+    public void publish(String event, String data) {
+        byte[] frame = ("event: " + event + "\ndata: " + data + "\n\n").getBytes(StandardCharsets.UTF_8);
+        published.incrementAndGet();
+        for (Subscriber s : subscribers) {
+            s.offer(frame);
+        }
+    }
+
+    /**
+     * 全接続にコメントを送る(定期的に呼び出し、切断済みの接続を検出する)
+     */
+    public void heartbeat() {
+        for (Subscriber s : subscribers) {
+            s.offer(HEARTBEAT);
+        }
+    }
+
+    /**
+     * 全接続を切断する(アプリケーションの停止時)
+     */
+    public void close() {
+        for (Subscriber s : subscribers) {
+            s.close();
+        }
+    }
+
+    /**
+     * @return 接続数
+     */
+    public int getConnections() {
+        return subscribers.size();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("connections=%d/%d, published=%d, evicted=%d",
+                subscribers.size(), maxConnections, published.get(), evicted.get());
+    }
+
+    /**
+     * 1接続分の送信待ちのイベントと送信処理
+     * (配信する側のスレッドとコンテナのスレッド(onWritePossible)から呼ばれるため、インスタンスで同期する)
+     */
+    private class Subscriber implements WriteListener, AsyncListener {
+
+        private final AsyncContext async;
+        private final ServletOutputStream out;
+        private final ArrayDeque<byte[]> queue = new ArrayDeque<>();
+
+        /**
+         * setWriteListenerの後、最初のonWritePossibleが呼ばれた場合true(それまではisReadyを呼べない)
+         */
+        private boolean started;
+
+        /**
+         * 書き込み済みでフラッシュしていない内容がある場合true
+         */
+        private boolean dirty;
+
+        private volatile boolean closed;
+
+        Subscriber(AsyncContext async, ServletOutputStream out) {
+            this.async = async;
+            this.out = out;
+        }
+
+        void offer(byte[] frame) {
+            boolean ok;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                ok = queue.size() < bufferEvents;
+                if (ok) {
+                    queue.add(frame);
+                    ok = !started || drain();
+                } else {
+                    //受信が追いつかない接続は切断する
+                    evicted.incrementAndGet();
+                }
+            }
+            //非同期処理の完了はロックの外で行う
+            if (!ok) {
+                close();
+            }
+        }
+
+        @Override
+        public void onWritePossible() {
+            boolean ok;
+            synchronized (this) {
+                started = true;
+                ok = drain();
+            }
+            if (!ok) {
+                close();
+            }
+        }
+
+        /**
+         * 送信可能な間、送信待ちのイベントを書き込み、最後にフラッシュする
+         * 送信できなくなった場合(isReadyがfalse)は、再び送信可能になるとonWritePossibleが呼ばれる
+         * @return false: 送信に失敗した(切断された)
+         */
+        private boolean drain() {
+            try {
+                while (!closed && out.isReady()) {
+                    byte[] frame = queue.poll();
+                    if (frame != null) {
+                        out.write(frame);
+                        dirty = true;
+                    } else if (dirty) {
+                        dirty = false;
+                        out.flush();
+                    } else {
+                        break;
+                    }
+                }
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            close();
+        }
+
+        /**
+         * 配信先から外し、非同期処理を完了する
+         */
+        void close() {
+            if (!detach()) {
+                return;
+            }
+            try {
+                async.complete();
+            } catch (IllegalStateException e) {
+                //既に完了している
+            }
+        }
+
+        /**
+         * 配信先から外す(コンテナから呼ばれるリスナーではロックを取らない)
+         * @return true: 今回外した false: 既に外れている
+         */
+        private boolean detach() {
+            if (closed) {
+                return false;
+            }
+            closed = true;
+            return subscribers.remove(this);
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            detach();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            detach();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+
+}
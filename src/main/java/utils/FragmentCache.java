@@ -0,0 +1,150 @@
+package utils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 描画済みのHTML(画面の一部分)を保持するキャッシュ
+ * ・キーには、内容が変わったときに変わる値(バージョン)を含めること(古いバージョンのエントリは参照されなくなり、LRUで削除される)
+ * ・保持するHTMLの合計サイズの上限を超えた場合は、最後に参照されてから最も時間が経ったものから削除する(LRU)
+ * ・サーバー(JVM)ごとのキャッシュのため、複数台構成ではサーバーごとに作成される
+ */
+public class FragmentCache implements FragmentCacheMXBean {
+
+    //1エントリあたりのキー・管理情報の推定サイズ(バイト)
+    private static final int ENTRY_OVERHEAD = 64;
+
+    private final long maxBytes;
+
+    /**
+     * キー→HTML(参照順 最初が最も古い)
+     */
+    private final LinkedHashMap<String, String> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * コンストラクタ
+     * @param maxBytes 保持するHTMLの合計サイズの上限(バイト)
+     */
+    public FragmentCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * キーを作成する
+     * @param parts キーを構成する値(画面の種類、ページ数、バージョン等)
+     * @return キー
+     */
+    public static String key(Object... parts) {
+        StringBuilder sb = new StringBuilder();
+        for (Object part : parts) {
+            if (sb.length() > 0) {
+                sb.append(':');
+            }
+            sb.append(part);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * キーに該当するHTMLを取得する
+     * @param key キー
+     * @return HTML キャッシュにない場合null
+     */
+    public synchronized String get(String key) {
+        String html = entries.get(key);
+        if (html == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return html;
+    }
+
+    /**
+     * HTMLを登録する(1件で上限を超える場合は登録しない)
+     * @param key キー
+     * @param html HTML
+     */
+    public synchronized void put(String key, String html) {
+        long size = sizeOf(key, html);
+        if (size > maxBytes) {
+            return;
+        }
+        String old = entries.put(key, html);
+        if (old != null) {
+            bytes -= sizeOf(key, old);
+        }
+        bytes += size;
+
+        //上限を下回るまで古いものから削除する
+        Iterator<Map.Entry<String, String>> it = entries.entrySet().iterator();
+        while (bytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, String> eldest = it.next();
+            bytes -= sizeOf(eldest.getKey(), eldest.getValue());
+            it.remove();
+            evictions++;
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    @Override
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    @Override
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    @Override
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized double getHitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public synchronized int getEntries() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("entries=%d, bytes=%d/%d, hits=%d, misses=%d, evictions=%d",
+                entries.size(), bytes, maxBytes, hits, misses, evictions);
+    }
+
+    /**
+     * エントリの推定サイズ(Stringは1文字2バイトとして計算する)
+     */
+    private static long sizeOf(String key, String html) {
+        return ENTRY_OVERHEAD + 2L * (key.length() + html.length());
+    }
+
+}
@@ -0,0 +1,47 @@
+package utils;
+
+/**
+ * FragmentCacheの統計情報(JMXで参照する)
+ */
+public interface FragmentCacheMXBean {
+
+    /**
+     * @return キャッシュから返した回数
+     */
+    long getHits();
+
+    /**
+     * @return キャッシュになかった回数
+     */
+    long getMisses();
+
+    /**
+     * @return 容量の上限を超えたため削除した件数
+     */
+    long getEvictions();
+
+    /**
+     * @return ヒット率(0～1 まだ参照がない場合は0)
+     */
+    double getHitRatio();
+
+    /**
+     * @return 保持している件数
+     */
+    int getEntries();
+
+    /**
+     * @return 保持しているHTMLの推定サイズ(バイト)
+     */
+    long getBytes();
+
+    /**
+     * @return 容量の上限(バイト)
+     */
+    long getMaxBytes();
+
+    /**
+     * 全件削除する
+     */
+    void clear();
+}
@@ -0,0 +1,175 @@
+package utils;
+
+import java.io.PrintWriter;
+
+/**
+ * JSONを先頭から順に出力するクラス(値をメモリに溜めずにそのままレスポンスに書き込む)
+ * 例: w.beginObject().name("id").value(1).name("tags").beginArray().value("a").endArray().endObject()
+ */
+public class JsonWriter {
+
+    private final PrintWriter out;
+
+    /**
+     * 現在のオブジェクト・配列にまだ要素を出力していない場合true(区切りのカンマを出力しない)
+     */
+    private boolean first = true;
+
+    /**
+     * 直前に名前を出力した場合true(次の値の前にカンマを出力しない)
+     */
+    private boolean afterName;
+
+    /**
+     * コンストラクタ
+     * @param out 出力先
+     */
+    public JsonWriter(PrintWriter out) {
+        this.out = out;
+    }
+
+    public JsonWriter beginObject() {
+        separator();
+        out.write('{');
+        first = true;
+        return this;
+    }
+
+    public JsonWriter endObject() {
+        out.write('}');
+        first = false;
+        return this;
+    }
+
+    public JsonWriter beginArray() {
+        separator();
+        out.write('[');
+        first = true;
+        return this;
+    }
+
+    public JsonWriter endArray() {
+        out.write(']');
+        first = false;
+        return this;
+    }
+
+    /**
+     * オブジェクトのメンバーの名前を出力する(続けて値を出力すること)
+     * @param name 名前
+     * @return このインスタンス
+     */
+    public JsonWriter name(String name) {
+        separator();
+        string(name);
+        out.write(':');
+        afterName = true;
+        return this;
+    }
+
+    /**
+     * 文字列を出力する
+     * @param value 値(nullの場合null)
+     * @return このインスタンス
+     */
+    public JsonWriter value(String value) {
+        separator();
+        if (value == null) {
+            out.write("null");
+        } else {
+            string(value);
+        }
+        return this;
+    }
+
+    /**
+     * 数値を出力する
+     * @param value 値(nullの場合null)
+     * @return このインスタンス
+     */
+    public JsonWriter value(Number value) {
+        separator();
+        out.write(value == null ? "null" : value.toString());
+        return this;
+    }
+
+    /**
+     * 真偽値を出力する
+     * @param value 値
+     * @return このインスタンス
+     */
+    public JsonWriter value(boolean value) {
+        separator();
+        out.write(value ? "true" : "false");
+        return this;
+    }
+
+    /**
+     * 値を文字列(toStringの結果)として出力する 日付・日時はISO-8601形式になる
+     * @param value 値(nullの場合null)
+     * @return このインスタンス
+     */
+    public JsonWriter value(Object value) {
+        return value(value == null ? null : value.toString());
+    }
+
+    /**
+     * @return 出力先でエラーが発生した(クライアントが切断した等)場合true
+     */
+    public boolean checkError() {
+        return out.checkError();
+    }
+
+    private void separator() {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (!first) {
+            out.write(',');
+        }
+        first = false;
+    }
+
+    /**
+     * 文字列をエスケープしてダブルクォートで囲んで出力する(RFC 8259)
+     * HTMLやJavaScriptに埋め込まれた場合に備えて < > & と U+2028、U+2029 もエスケープする
+     */
+    private void string(String value) {
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String escaped;
+            switch (c) {
+            case '"':
+                escaped = "\\\"";
+                break;
+            case '\\':
+                escaped = "\\\\";
+                break;
+            case '\n':
+                escaped = "\\n";
+                break;
+            case '\r':
+                escaped = "\\r";
+                break;
+            case '\t':
+                escaped = "\\t";
+                break;
+            default:
+                if (c < 0x20 || c == '<' || c == '>' || c == '&' || c == 0x2028 || c == 0x2029) {
+                    escaped = String.format("\\u%04x", (int) c);
+                } else {
+                    continue;
+                }
+            }
+            out.write(value, start, i - start);
+            out.write(escaped);
+            start = i + 1;
+        }
+        out.write(value, start, value.length() - start);
+        out.write('"');
+    }
+
+}
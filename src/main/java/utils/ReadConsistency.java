@@ -0,0 +1,97 @@
+package utils;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 書き込んだクライアント(ブラウザ)の直後の読み取りだけを、プライマリで行うための情報
+ * ・最後に書き込んだ時刻をCookieで保持するため、ログインの方式(HttpSession・署名したCookie)やサーバーの台数によらず、
+ *   書き込んだクライアントの次のリクエスト(登録後のリダイレクト先の画面等)では書き込んだ内容が見える
+ * ・他のクライアントの読み取りは、書き込みがあってもレプリカで行う
+ * ・FrontControllerでリクエストを処理するスレッドに設定し、ServiceBaseがサービスの作成時に参照する
+ *   (設定されていないスレッドで作成したサービスは、そのインスタンスで書き込んだ後のみプライマリで読み取る)
+ */
+public class ReadConsistency {
+
+    //最後に書き込んだ時刻(エポックミリ秒)を保持するCookie名
+    private static final String COOKIE_NAME = "drs_written";
+
+    private static final ThreadLocal<ReadConsistency> CURRENT = new ThreadLocal<>();
+
+    private final HttpServletRequest request;
+    private final HttpServletResponse response;
+
+    /**
+     * このクライアントが最後に書き込んだ時刻(エポックミリ秒 書き込んでいない場合0)
+     */
+    private volatile long writtenAt;
+
+    private ReadConsistency(HttpServletRequest request, HttpServletResponse response, long writtenAt) {
+        this.request = request;
+        this.response = response;
+        this.writtenAt = writtenAt;
+    }
+
+    /**
+     * リクエストのCookieから、クライアントが最後に書き込んだ時刻を読み込む
+     * @param request リクエスト
+     * @param response レスポンス(書き込んだ時刻をCookieに設定する)
+     * @return インスタンス
+     */
+    public static ReadConsistency of(HttpServletRequest request, HttpServletResponse response) {
+        long writtenAt = 0;
+        String value = StatelessSession.getCookie(request, COOKIE_NAME);
+        if (value != null) {
+            try {
+                writtenAt = Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                //書き込んでいないものとして扱う
+            }
+        }
+        return new ReadConsistency(request, response, writtenAt);
+    }
+
+    /**
+     * 現在のスレッドに設定する
+     * @param consistency 設定するインスタンス(nullの場合は解除する)
+     */
+    public static void bind(ReadConsistency consistency) {
+        if (consistency == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(consistency);
+        }
+    }
+
+    /**
+     * 現在のスレッドに設定されているインスタンスを取得する
+     * @return インスタンス 設定されていない場合null
+     */
+    public static ReadConsistency current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * このクライアントが、レプリカに反映されていない可能性がある時間内に書き込んだかどうか
+     * (未来の時刻はCookieの改ざんとみなし、書き込んでいないものとして扱う)
+     * @return true: 読み取りをプライマリで行う false: レプリカで行ってよい
+     */
+    public boolean isRecentlyWritten() {
+        long elapsed = System.currentTimeMillis() - writtenAt;
+        return elapsed >= 0 && elapsed < DBUtil.getReplicaStickiness();
+    }
+
+    /**
+     * このクライアントが書き込んだことを記録する(コミット後に呼び出す)
+     * レプリカを使う場合のみ、レスポンスが確定していなければCookieにも設定する
+     */
+    public void markWrite() {
+        long now = System.currentTimeMillis();
+        writtenAt = now;
+        if (DBUtil.isReplicaEnabled() && !response.isCommitted()) {
+            StatelessSession.setCookie(request, response, COOKIE_NAME, Long.toString(now),
+                    DBUtil.getReplicaStickiness() / 1000 + 1);
+        }
+    }
+
+}
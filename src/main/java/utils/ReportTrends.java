@@ -0,0 +1,387 @@
+package utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import actions.views.ReportTrendView;
+import actions.views.ReportView;
+
+/**
+ * 日報の閲覧・いいねを日ごとに数え、直近1週間によく見られた・いいねされた日報を求めるクラス
+ * ・日ごとに、閲覧数・いいねの件数を数えるCountMinSketchと、点数(閲覧数 + いいねの件数 × LIKE_WEIGHT)の上位の候補を持つ
+ * ・記録はカウンタを増やすだけで、点数が候補の最下位を超えた日報の場合のみロックして候補を入れ替える
+ * ・直近DAYS日分を保持し、rotateで日付が変わったときに最も古い日の分を捨てる
+ * ・日ごとの内容は圧縮したバイト列に変換して保存し、再起動後に読み込める(ReportTrendListener)
+ * ・サーバー(JVM)ごとに数えるため、複数台構成ではサーバーごとの値になる
+ */
+public class ReportTrends {
+
+    /**
+     * 保持する日数
+     */
+    public static final int DAYS = 7;
+
+    /**
+     * 点数を求めるときの、いいね1件あたりの閲覧数
+     */
+    public static final int LIKE_WEIGHT = 5;
+
+    //保存する形式のバージョン
+    private static final int FORMAT = 1;
+
+    /**
+     * 候補の日報の表示内容(閲覧された時点のもの)
+     */
+    private static final class Label {
+        private final String title;
+        private final String employeeName;
+        private final LocalDate reportDate;
+
+        private Label(String title, String employeeName, LocalDate reportDate) {
+            this.title = title;
+            this.employeeName = employeeName;
+            this.reportDate = reportDate;
+        }
+    }
+
+    /**
+     * 上位の候補(入れ替えのたびに作り直し、記録する側はロックせずに参照する)
+     */
+    private static final class Top {
+        private final int[] ids;
+        private final Label[] labels; //閲覧されていない候補はnull
+        private final int threshold; //候補に入るために超える必要がある点数(候補が上限に満たない場合0)
+
+        private Top(int[] ids, Label[] labels, int threshold) {
+            this.ids = ids;
+            this.labels = labels;
+            this.threshold = threshold;
+        }
+    }
+
+    /**
+     * 1日分の閲覧数・いいねの件数と上位の候補
+     */
+    private static final class Bucket {
+        private final LocalDate day;
+        private final CountMinSketch views;
+        private final CountMinSketch likes;
+        private volatile Top top = new Top(new int[0], new Label[0], 0);
+
+        private Bucket(LocalDate day, int width) {
+            this.day = day;
+            this.views = new CountMinSketch(width);
+            this.likes = new CountMinSketch(width);
+        }
+
+        private int score(int id) {
+            return views.estimate(id) + LIKE_WEIGHT * likes.estimate(id);
+        }
+    }
+
+    private final int width;
+    private final int candidates;
+
+    /**
+     * 日ごとの内容(日付のエポック日をDAYSで割った余りの位置 rotate・読み込みはthisでロックする)
+     */
+    private final Bucket[] buckets = new Bucket[DAYS];
+
+    /**
+     * 今日の分
+     */
+    private volatile Bucket current;
+
+    /**
+     * コンストラクタ
+     * @param width CountMinSketchの列の数
+     * @param candidates 日ごとに保持する上位の候補の数
+     */
+    public ReportTrends(int width, int candidates) {
+        this.width = width;
+        this.candidates = candidates;
+        rotate(LocalDate.now());
+    }
+
+    /**
+     * 日報の閲覧を記録する
+     * @param rv 閲覧された日報
+     */
+    public void recordView(ReportView rv) {
+        Bucket b = current;
+        int id = rv.getId();
+        int score = b.views.add(id) + LIKE_WEIGHT * b.likes.estimate(id);
+        if (needsOffer(b.top, id, score, true)) {
+            offer(b, id, score, new Label(rv.getTitle(), rv.getEmployee().getName(), rv.getReportDate()));
+        }
+    }
+
+    /**
+     * 日報へのいいねを記録する(いいねの解除は数えない)
+     * @param reportId いいねされた日報のid
+     */
+    public void recordLike(int reportId) {
+        Bucket b = current;
+        int score = b.views.estimate(reportId) + LIKE_WEIGHT * b.likes.add(reportId);
+        if (needsOffer(b.top, reportId, score, false)) {
+            offer(b, reportId, score, null);
+        }
+    }
+
+    /**
+     * 候補の入れ替え(または表示内容の設定)が必要かどうか
+     * @param top 上位の候補
+     * @param id 日報のid
+     * @param score 日報の点数
+     * @param labeled 表示内容があるかどうか
+     * @return true: 必要 false: 不要
+     */
+    private static boolean needsOffer(Top top, int id, int score, boolean labeled) {
+        if (score <= top.threshold) {
+            return false;
+        }
+        int idx = indexOf(top.ids, id);
+        return idx < 0 || (labeled && top.labels[idx] == null);
+    }
+
+    /**
+     * 日報を候補に加える(上限に達している場合は、点数が最も低い候補より高い場合に入れ替える)
+     * @param b 1日分の内容
+     * @param id 日報のid
+     * @param score 日報の点数
+     * @param label 日報の表示内容(ない場合null)
+     */
+    private void offer(Bucket b, int id, int score, Label label) {
+        synchronized (b) {
+            Top top = b.top;
+            int idx = indexOf(top.ids, id);
+            if (idx >= 0) {
+                //候補に入っている場合は、表示内容がなければ設定する
+                if (label != null && top.labels[idx] == null) {
+                    Label[] labels = top.labels.clone();
+                    labels[idx] = label;
+                    b.top = new Top(top.ids, labels, top.threshold);
+                }
+                return;
+            }
+
+            int[] ids;
+            Label[] labels;
+            if (top.ids.length < candidates) {
+                idx = top.ids.length;
+                ids = Arrays.copyOf(top.ids, idx + 1);
+                labels = Arrays.copyOf(top.labels, idx + 1);
+            } else {
+                int minScore = Integer.MAX_VALUE;
+                for (int i = 0; i < top.ids.length; i++) {
+                    int s = b.score(top.ids[i]);
+                    if (s < minScore) {
+                        minScore = s;
+                        idx = i;
+                    }
+                }
+                if (score <= minScore) {
+                    //候補の点数が増えているため、入るために超える点数を更新するだけ
+                    b.top = new Top(top.ids, top.labels, minScore);
+                    return;
+                }
+                ids = top.ids.clone();
+                labels = top.labels.clone();
+            }
+            ids[idx] = id;
+            labels[idx] = label;
+            b.top = new Top(ids, labels, ids.length < candidates ? 0 : minScore(b, ids));
+        }
+    }
+
+    private static int minScore(Bucket b, int[] ids) {
+        int min = Integer.MAX_VALUE;
+        for (int id : ids) {
+            min = Math.min(min, b.score(id));
+        }
+        return min;
+    }
+
+    private static int indexOf(int[] ids, int id) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 記録する日を切り替える(日付が変わった場合は、DAYS日前の分を捨てて今日の分を作成する)
+     * @param today 今日の日付
+     */
+    public synchronized void rotate(LocalDate today) {
+        current = bucket(today);
+    }
+
+    /**
+     * 指定した日の内容を取得する(ない場合、またはDAYS日前の内容の場合は作り直す)
+     * @param day 日付
+     * @return 1日分の内容
+     */
+    private Bucket bucket(LocalDate day) {
+        int slot = (int) Math.floorMod(day.toEpochDay(), (long) DAYS);
+        Bucket b = buckets[slot];
+        if (b == null || !b.day.equals(day)) {
+            b = new Bucket(day, width);
+            buckets[slot] = b;
+        }
+        return b;
+    }
+
+    /**
+     * 直近DAYS日分で、点数(または閲覧数)が高い日報を取得する
+     * @param n 件数
+     * @param byViews true: 閲覧数の順 false: 点数の順
+     * @return 日報のリスト(点数の高い順)
+     */
+    public List<ReportTrendView> top(int n, boolean byViews) {
+        List<Bucket> window = window();
+
+        //候補を集める(表示内容は新しい日のものを使う)
+        Map<Integer, Label> found = new LinkedHashMap<>();
+        for (Bucket b : window) {
+            Top t = b.top;
+            for (int i = 0; i < t.ids.length; i++) {
+                if (found.get(t.ids[i]) == null) {
+                    found.put(t.ids[i], t.labels[i]);
+                }
+            }
+        }
+
+        List<ReportTrendView> trends = new ArrayList<>(found.size());
+        for (Map.Entry<Integer, Label> e : found.entrySet()) {
+            int id = e.getKey();
+            int views = 0;
+            int likes = 0;
+            for (Bucket b : window) {
+                views += b.views.estimate(id);
+                likes += b.likes.estimate(id);
+            }
+            Label label = e.getValue();
+            trends.add(label == null
+                    ? new ReportTrendView(id, null, null, null, views, likes)
+                    : new ReportTrendView(id, label.title, label.employeeName, label.reportDate, views, likes));
+        }
+
+        Comparator<ReportTrendView> order = byViews
+                ? Comparator.comparingInt(ReportTrendView::getViews)
+                : Comparator.comparingInt(t -> t.getViews() + LIKE_WEIGHT * t.getLikes());
+        trends.sort(order.thenComparingInt(ReportTrendView::getReportId).reversed());
+        return trends.size() > n ? new ArrayList<>(trends.subList(0, n)) : trends;
+    }
+
+    /**
+     * 直近DAYS日分の内容を新しい日の順に取得する
+     * @return 内容のリスト
+     */
+    private synchronized List<Bucket> window() {
+        LocalDate today = current.day;
+        List<Bucket> window = new ArrayList<>(DAYS);
+        for (int i = 0; i < DAYS; i++) {
+            LocalDate day = today.minusDays(i);
+            Bucket b = buckets[(int) Math.floorMod(day.toEpochDay(), (long) DAYS)];
+            if (b != null && b.day.equals(day)) {
+                window.add(b);
+            }
+        }
+        return window;
+    }
+
+    /**
+     * 直近DAYS日分の内容を、日ごとに保存する形式(圧縮したバイト列)に変換する
+     * @return 日付→保存する形式の内容
+     */
+    public Map<LocalDate, byte[]> snapshot() {
+        Map<LocalDate, byte[]> data = new LinkedHashMap<>();
+        for (Bucket b : window()) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes, deflater))) {
+                Top t = b.top;
+                out.writeInt(FORMAT);
+                out.writeInt(b.views.getWidth());
+                out.writeInt(t.ids.length);
+                for (int i = 0; i < t.ids.length; i++) {
+                    out.writeInt(t.ids[i]);
+                    Label label = t.labels[i];
+                    out.writeBoolean(label != null);
+                    if (label != null) {
+                        out.writeUTF(label.title);
+                        out.writeUTF(label.employeeName);
+                        out.writeLong(label.reportDate.toEpochDay());
+                    }
+                }
+                b.views.writeTo(out);
+                b.likes.writeTo(out);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            } finally {
+                deflater.end();
+            }
+            data.put(b.day, bytes.toByteArray());
+        }
+        return data;
+    }
+
+    /**
+     * snapshotで変換した1日分の内容を読み込み、その日の内容に加える
+     * (直近DAYS日分ではない日、または形式・列の数が異なる内容は読み込まない)
+     * @param day 日付
+     * @param data 保存する形式の内容
+     * @return true: 読み込んだ false: 読み込まなかった
+     * @throws IOException 内容が壊れている場合
+     */
+    public boolean restore(LocalDate day, byte[] data) throws IOException {
+        Bucket b;
+        synchronized (this) {
+            LocalDate today = current.day;
+            if (day.isAfter(today) || !day.isAfter(today.minusDays(DAYS))) {
+                return false;
+            }
+            b = bucket(day);
+        }
+
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(data)))) {
+            if (in.readInt() != FORMAT || in.readInt() != b.views.getWidth()) {
+                return false;
+            }
+            int n = in.readInt();
+            int[] ids = new int[n];
+            Label[] labels = new Label[n];
+            for (int i = 0; i < n; i++) {
+                ids[i] = in.readInt();
+                if (in.readBoolean()) {
+                    labels[i] = new Label(in.readUTF(), in.readUTF(), LocalDate.ofEpochDay(in.readLong()));
+                }
+            }
+            b.views.addFrom(in);
+            b.likes.addFrom(in);
+
+            //読み込んだ候補は、加えた後の点数で候補に加える
+            for (int i = 0; i < n; i++) {
+                offer(b, ids[i], b.score(ids[i]), labels[i]);
+            }
+        }
+        return true;
+    }
+
+}
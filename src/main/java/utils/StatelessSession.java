@@ -0,0 +1,225 @@
+package utils;
+
+import java.security.SecureRandom;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.Locale;
+
+import javax.servlet.ServletContext;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import actions.views.EmployeeView;
+import constants.PropertyConst;
+
+/**
+ * サーバー側にセッションを持たないログイン方式(ステートレスモード)の処理を行うクラス
+ * ・ログイン状態は、従業員id・権限・氏名・有効期限に署名したCookieで保持する
+ * ・CSRF対策トークンは、ログイン中の従業員(未ログインの場合はCookieに設定した乱数)と有効期限に署名したものを使う
+ * application.properties の session.mode=stateless で有効になる(未設定の場合は従来どおりHttpSessionを使う)
+ */
+public class StatelessSession {
+
+    /**
+     * session.mode の値(ステートレスモード)
+     */
+    public static final String MODE_STATELESS = "stateless";
+
+    //ログインの有効期限の初期値(秒)
+    private static final long DEFAULT_TTL = 8 * 60 * 60;
+    //CSRF対策トークンの有効期限(秒)
+    private static final long CSRF_TTL = 2 * 60 * 60;
+
+    //ペイロードの種類
+    private static final String TYPE_LOGIN = "e";
+    private static final String TYPE_CSRF = "c";
+    private static final String SEPARATOR = "|";
+
+    //削除するCookieの有効期限
+    private static final String EXPIRED = "Thu, 01 Jan 1970 00:00:00 GMT";
+    private static final DateTimeFormatter EXPIRES_FORMAT =
+            DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US);
+
+    private final boolean enabled;
+    private final TokenSigner signer;
+    private final long ttl;
+    private final SecureRandom random = new SecureRandom();
+
+    private StatelessSession(boolean enabled, TokenSigner signer, long ttl) {
+        this.enabled = enabled;
+        this.signer = signer;
+        this.ttl = ttl;
+    }
+
+    /**
+     * アプリケーションスコープの設定値から作成する
+     * @param context サーブレットコンテキスト
+     * @return StatelessSessionのインスタンス
+     */
+    public static StatelessSession create(ServletContext context) {
+        String mode = (String) context.getAttribute(PropertyConst.SESSION_MODE.getValue());
+        if (!MODE_STATELESS.equals(mode)) {
+            return new StatelessSession(false, null, DEFAULT_TTL);
+        }
+
+        String keys = (String) context.getAttribute(PropertyConst.SESSION_TOKEN_KEYS.getValue());
+        String ttl = (String) context.getAttribute(PropertyConst.SESSION_TOKEN_TTL.getValue());
+        return new StatelessSession(
+                true,
+                new TokenSigner(keys),
+                ttl == null ? DEFAULT_TTL : Long.parseLong(ttl.trim()));
+    }
+
+    /**
+     * ステートレスモードかどうか
+     * @return true: ステートレスモード false: HttpSessionを使う
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * ログインの有効期限(秒)
+     * @return 有効期限
+     */
+    public long getTtl() {
+        return ttl;
+    }
+
+    /**
+     * ログインした従業員のトークンを作成する
+     * @param ev ログインした従業員
+     * @param now 現在時刻(エポック秒)
+     * @return トークン
+     */
+    public String issueLogin(EmployeeView ev, long now) {
+        return signer.sign(TYPE_LOGIN + SEPARATOR + ev.getId()
+                + SEPARATOR + ev.getAdminFlag()
+                + SEPARATOR + (now + ttl)
+                + SEPARATOR + ev.getName());
+    }
+
+    /**
+     * トークンを検証し、ログイン中の従業員を返却する
+     * @param token トークン
+     * @param now 現在時刻(エポック秒)
+     * @return ログイン中の従業員(id・氏名・管理者フラグのみ設定) トークンが不正・期限切れの場合null
+     */
+    public EmployeeView readLogin(String token, long now) {
+        String payload = signer.verify(token);
+        if (payload == null) {
+            return null;
+        }
+        String[] parts = payload.split("\\" + SEPARATOR, 5);
+        if (parts.length != 5 || !TYPE_LOGIN.equals(parts[0])) {
+            return null;
+        }
+        try {
+            if (Long.parseLong(parts[3]) <= now) {
+                return null;
+            }
+            EmployeeView ev = new EmployeeView();
+            ev.setId(Integer.valueOf(parts[1]));
+            ev.setAdminFlag(Integer.valueOf(parts[2]));
+            ev.setName(parts[4]);
+            return ev;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * CSRF対策トークンを作成する
+     * @param subject トークンを紐づける対象(従業員id、または未ログイン時の乱数)
+     * @param now 現在時刻(エポック秒)
+     * @return トークン
+     */
+    public String issueCsrf(String subject, long now) {
+        return signer.sign(TYPE_CSRF + SEPARATOR + (now + CSRF_TTL) + SEPARATOR + subject);
+    }
+
+    /**
+     * CSRF対策トークンを検証する
+     * @param token トークン
+     * @param subject トークンを紐づけた対象
+     * @param now 現在時刻(エポック秒)
+     * @return true: 有効 false: 不正・期限切れ
+     */
+    public boolean verifyCsrf(String token, String subject, long now) {
+        if (subject == null) {
+            return false;
+        }
+        String payload = signer.verify(token);
+        if (payload == null) {
+            return false;
+        }
+        String[] parts = payload.split("\\" + SEPARATOR, 3);
+        try {
+            return parts.length == 3
+                    && TYPE_CSRF.equals(parts[0])
+                    && Long.parseLong(parts[1]) > now
+                    && subject.equals(parts[2]);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 未ログイン時のCSRF対策トークンに紐づける乱数を作成する
+     * @return 乱数(Base64URL)
+     */
+    public String newNonce() {
+        byte[] bytes = new byte[16];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * リクエストから指定した名前のCookieの値を取得する
+     * @param request リクエスト
+     * @param name Cookie名
+     * @return Cookieの値 ない場合null
+     */
+    public static String getCookie(HttpServletRequest request, String name) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie c : cookies) {
+                if (name.equals(c.getName())) {
+                    return c.getValue();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Cookieを設定する(HttpOnly、SameSite=Lax、HTTPSの場合はSecure)
+     * @param request リクエスト
+     * @param response レスポンス
+     * @param name Cookie名
+     * @param value 値(Cookieに使える文字のみ) nullの場合は削除する
+     * @param maxAge 有効期限(秒) -1の場合はブラウザを閉じるまで
+     */
+    public static void setCookie(HttpServletRequest request, HttpServletResponse response,
+            String name, String value, long maxAge) {
+        String path = request.getContextPath().isEmpty() ? "/" : request.getContextPath();
+        StringBuilder sb = new StringBuilder(name).append('=').append(value == null ? "" : value)
+                .append("; Path=").append(path);
+        //Max-Ageに対応していないクライアント向けにExpiresも付ける
+        if (value == null) {
+            sb.append("; Max-Age=0; Expires=").append(EXPIRED);
+        } else if (maxAge >= 0) {
+            sb.append("; Max-Age=").append(maxAge).append("; Expires=")
+                    .append(EXPIRES_FORMAT.format(ZonedDateTime.now(ZoneOffset.UTC).plusSeconds(maxAge)));
+        }
+        sb.append("; HttpOnly; SameSite=Lax");
+        if (request.isSecure()) {
+            sb.append("; Secure");
+        }
+        response.addHeader("Set-Cookie", sb.toString());
+    }
+
+}
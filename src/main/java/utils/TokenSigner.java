@@ -0,0 +1,123 @@
+package utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * HMAC-SHA256で文字列に署名・検証を行うクラス
+ * トークンの形式は「鍵ID.ペイロード(Base64URL).署名(Base64URL)」
+ * 鍵は複数登録でき、署名には先頭の鍵を使い、検証は登録されているすべての鍵で行う(鍵のローテーション用)
+ */
+public class TokenSigner {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    //鍵の最小長(バイト)
+    private static final int MIN_KEY_LENGTH = 32;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    /**
+     * 鍵ID→鍵
+     */
+    private final Map<String, SecretKeySpec> keys = new LinkedHashMap<>();
+
+    /**
+     * 署名に使用する鍵のID
+     */
+    private final String activeKeyId;
+
+    /**
+     * 鍵ごとのMacインスタンス(Macはスレッドセーフではないためスレッドごとに持つ)
+     */
+    private final ThreadLocal<Map<String, Mac>> macs = ThreadLocal.withInitial(LinkedHashMap::new);
+
+    /**
+     * コンストラクタ
+     * @param keySpec 「鍵ID:鍵(Base64)」をカンマ区切りで並べた文字列 先頭の鍵で署名する
+     */
+    public TokenSigner(String keySpec) {
+        if (keySpec == null || keySpec.trim().isEmpty()) {
+            throw new IllegalArgumentException("no signing key is configured");
+        }
+        for (String entry : keySpec.split(",")) {
+            int colon = entry.indexOf(':');
+            if (colon <= 0) {
+                throw new IllegalArgumentException("signing key must be written as <id>:<base64 key>");
+            }
+            String id = entry.substring(0, colon).trim();
+            byte[] key = Base64.getDecoder().decode(entry.substring(colon + 1).trim());
+            if (key.length < MIN_KEY_LENGTH || id.contains(".")) {
+                throw new IllegalArgumentException("signing key '" + id + "' is invalid");
+            }
+            keys.put(id, new SecretKeySpec(key, ALGORITHM));
+        }
+        this.activeKeyId = keys.keySet().iterator().next();
+    }
+
+    /**
+     * ペイロードに署名したトークンを作成する
+     * @param payload ペイロード
+     * @return トークン
+     */
+    public String sign(String payload) {
+        String body = activeKeyId + "." + ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        return body + "." + ENCODER.encodeToString(mac(activeKeyId, body));
+    }
+
+    /**
+     * トークンの署名を検証し、ペイロードを返却する
+     * @param token トークン
+     * @return ペイロード 署名が不正な場合null
+     */
+    public String verify(String token) {
+        if (token == null) {
+            return null;
+        }
+        int first = token.indexOf('.');
+        int last = token.lastIndexOf('.');
+        if (first <= 0 || last == first) {
+            return null;
+        }
+        String keyId = token.substring(0, first);
+        if (!keys.containsKey(keyId)) {
+            return null;
+        }
+        String body = token.substring(0, last);
+        try {
+            byte[] expected = mac(keyId, body);
+            byte[] actual = DECODER.decode(token.substring(last + 1));
+            if (!MessageDigest.isEqual(expected, actual)) {
+                return null;
+            }
+            return new String(DECODER.decode(token.substring(first + 1, last)), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            //Base64として不正
+            return null;
+        }
+    }
+
+    private byte[] mac(String keyId, String body) {
+        Map<String, Mac> byKey = macs.get();
+        Mac mac = byKey.get(keyId);
+        if (mac == null) {
+            try {
+                mac = Mac.getInstance(ALGORITHM);
+                mac.init(keys.get(keyId));
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+            byKey.put(keyId, mac);
+        }
+        return mac.doFinal(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
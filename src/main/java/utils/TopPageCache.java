@@ -0,0 +1,255 @@
+package utils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import actions.views.ReportView;
+
+/**
+ * トップページ(1ページ目)に表示する従業員ごとの日報一覧と件数を保持するキャッシュ
+ * ・従業員が日報を登録・更新したときに、その従業員のエントリを削除する(invalidate)
+ * ・件数の上限を超えた場合は、最後に参照されてから最も時間が経ったものから削除する(LRU)
+ * ・一定時間参照されなかったエントリは削除する
+ * ・表示する期間(最近の期間の開始日)が作成したときと変わったエントリは使わない(日付が変わった後、期間外になった日報を表示しない)
+ * ・サーバー(JVM)ごとのキャッシュのため、複数台構成ではサーバーごとに作成される
+ */
+public class TopPageCache implements TopPageCacheMXBean {
+
+    /**
+     * キャッシュする内容(一覧に表示しない本文は保持しない)
+     */
+    public static final class Page {
+
+        private final List<ReportView> reports;
+        private final long count;
+        private final LocalDate since;
+
+        /**
+         * コンストラクタ
+         * @param reports 日報の一覧
+         * @param count 日報の件数
+         * @param since 一覧・件数を取得した期間の開始日
+         */
+        public Page(List<ReportView> reports, long count, LocalDate since) {
+            List<ReportView> summaries = new ArrayList<>(reports.size());
+            for (ReportView rv : reports) {
+                summaries.add(new ReportView(rv.getId(), rv.getEmployee(), rv.getReportDate(),
+                        rv.getTitle(), null, rv.getCreatedAt(), rv.getUpdatedAt(), rv.getVersion()));
+            }
+            this.reports = Collections.unmodifiableList(summaries);
+            this.count = count;
+            this.since = since;
+        }
+
+        /**
+         * @return 日報の一覧(本文を除く)
+         */
+        public List<ReportView> getReports() {
+            return reports;
+        }
+
+        /**
+         * @return 日報の件数
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return 一覧・件数を取得した期間の開始日
+         */
+        public LocalDate getSince() {
+            return since;
+        }
+    }
+
+    private static final class Entry {
+        private final Page page;
+        private long accessed;
+
+        private Entry(Page page, long accessed) {
+            this.page = page;
+            this.accessed = accessed;
+        }
+    }
+
+    private final int maxEntries;
+    private final long idleNanos;
+
+    /**
+     * 従業員id→内容(参照順 最初が最も古い)
+     */
+    private final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * invalidate・clearのたびに増やす値(generation()で返す世代)
+     */
+    private long generation;
+
+    /**
+     * 従業員id→最後にinvalidateしたときの世代
+     * DBから取得している間にその従業員がinvalidateされた場合、取得した内容は古い可能性があるため登録しない
+     * (他の従業員のinvalidateは影響しない 日報を登録・更新したことがある従業員の分だけ保持する)
+     */
+    private final Map<Integer, Long> invalidated = new HashMap<>();
+
+    /**
+     * 最後にclearしたときの世代(それより前に取得を始めた内容は登録しない)
+     */
+    private long cleared;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long invalidations;
+
+    /**
+     * コンストラクタ
+     * @param maxEntries 保持する件数の上限
+     * @param idleSeconds 参照されなくなってから削除するまでの時間(秒)
+     */
+    public TopPageCache(int maxEntries, long idleSeconds) {
+        this.maxEntries = maxEntries;
+        this.idleNanos = TimeUnit.SECONDS.toNanos(idleSeconds);
+    }
+
+    /**
+     * 従業員のトップページの内容を取得する
+     * @param employeeId 従業員id
+     * @param since 表示する期間の開始日(作成したときと異なる場合は使わない)
+     * @return 内容 キャッシュにない場合null
+     */
+    public synchronized Page get(int employeeId, LocalDate since) {
+        long now = System.nanoTime();
+        Entry entry = entries.get(employeeId);
+        if (entry != null && (now - entry.accessed > idleNanos || !entry.page.getSince().equals(since))) {
+            entries.remove(employeeId);
+            expirations++;
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        entry.accessed = now;
+        hits++;
+        return entry.page;
+    }
+
+    /**
+     * DBから取得する前に呼び出し、putの引数に渡す値を取得する
+     * @return 現在の世代
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * 従業員のトップページの内容を登録する
+     * generation()を呼び出してから登録までの間に、その従業員がinvalidateされた(またはclearされた)場合は登録しない
+     * @param employeeId 従業員id
+     * @param page 内容
+     * @param generation DBから取得する前にgeneration()で取得した値
+     */
+    public synchronized void put(int employeeId, Page page, long generation) {
+        if (generation < cleared || generation < invalidated.getOrDefault(employeeId, 0L) || maxEntries <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        entries.put(employeeId, new Entry(page, now));
+
+        //参照されなくなったもの、上限を超えた分を古いものから削除する
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry eldest = it.next();
+            if (now - eldest.accessed > idleNanos) {
+                it.remove();
+                expirations++;
+            } else if (entries.size() > maxEntries) {
+                it.remove();
+                evictions++;
+            } else {
+                break;
+            }
+        }
+    }
+
+    /**
+     * 従業員のトップページの内容を削除する(日報の登録・更新後に呼び出す)
+     * @param employeeId 従業員id
+     */
+    public synchronized void invalidate(int employeeId) {
+        invalidated.put(employeeId, ++generation);
+        if (entries.remove(employeeId) != null) {
+            invalidations++;
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        cleared = ++generation;
+        invalidated.clear();
+        entries.clear();
+    }
+
+    @Override
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    @Override
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    @Override
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized long getExpirations() {
+        return expirations;
+    }
+
+    @Override
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+
+    @Override
+    public synchronized double getHitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public synchronized int getEntries() {
+        return entries.size();
+    }
+
+    @Override
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    @Override
+    public long getIdleSeconds() {
+        return TimeUnit.NANOSECONDS.toSeconds(idleNanos);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("entries=%d/%d, hits=%d, misses=%d, evictions=%d, expirations=%d, invalidations=%d",
+                entries.size(), maxEntries, hits, misses, evictions, expirations, invalidations);
+    }
+
+}
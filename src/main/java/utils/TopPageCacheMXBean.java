@@ -0,0 +1,57 @@
+package utils;
+
+/**
+ * TopPageCacheの統計情報(JMXで参照する)
+ */
+public interface TopPageCacheMXBean {
+
+    /**
+     * @return キャッシュから返した回数
+     */
+    long getHits();
+
+    /**
+     * @return キャッシュになかった回数
+     */
+    long getMisses();
+
+    /**
+     * @return 件数の上限を超えたため削除した件数
+     */
+    long getEvictions();
+
+    /**
+     * @return 一定時間参照されなかった、または表示する期間が変わったため削除した件数
+     */
+    long getExpirations();
+
+    /**
+     * @return 日報の登録・更新により削除した件数
+     */
+    long getInvalidations();
+
+    /**
+     * @return ヒット率(0～1 まだ参照がない場合は0)
+     */
+    double getHitRatio();
+
+    /**
+     * @return 保持している件数
+     */
+    int getEntries();
+
+    /**
+     * @return 件数の上限
+     */
+    int getMaxEntries();
+
+    /**
+     * @return 参照されなくなってから削除するまでの時間(秒)
+     */
+    long getIdleSeconds();
+
+    /**
+     * 全件削除する
+     */
+    void clear();
+}
@@ -0,0 +1,129 @@
+package listeners;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletContext;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+import constants.PropertyConst;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import utils.DBUtil;
+
+/**
+ * 仮想スレッドモードの準備を行うリスナー(virtual-threadsプロファイルでビルドした場合のみ含まれる)
+ * システムプロパティ drs.virtual.enabled=true の場合に
+ * ・リクエストを処理する仮想スレッドのExecutorと、DBを使う処理の同時実行数を制限するSemaphoreをアプリケーションスコープに設定する
+ * ・仮想スレッドがキャリアスレッドに固定された(synchronized内でのI/O待ち等)ことをJFRで検知し、ログに出力する
+ *   drs.virtual.pinned.threshold.ms  ログに出力する固定時間の下限(ミリ秒)
+ */
+@WebListener
+public class VirtualThreadListener implements ServletContextListener {
+
+    private static final String PROP_PINNED_THRESHOLD = "drs.virtual.pinned.threshold.ms";
+
+    //ログに出力する固定時間の下限の初期値(ミリ秒 JFRの既定値と同じ)
+    private static final long DEFAULT_PINNED_THRESHOLD = 20;
+
+    //ログに出力するスタックトレースの行数(先頭のJDK内部の行は除く)
+    private static final int STACK_DEPTH = 12;
+
+    //JFRのイベント名
+    private static final String EVENT_PINNED = "jdk.VirtualThreadPinned";
+
+    private ExecutorService executor;
+    private RecordingStream pinned;
+
+    public VirtualThreadListener() {
+    }
+
+    /**
+     * Webアプリケーションの起動時に実行する処理
+     */
+    public void contextInitialized(ServletContextEvent sce) {
+        if (!DBUtil.isVirtualThreadsEnabled()) {
+            return;
+        }
+        ServletContext context = sce.getServletContext();
+
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("drs-request-", 0).factory());
+        context.setAttribute(PropertyConst.REQUEST_EXECUTOR.getValue(), executor);
+        context.setAttribute(PropertyConst.DB_GATE.getValue(), new Semaphore(DBUtil.getMaxConcurrency(), true));
+
+        long threshold = Long.getLong(PROP_PINNED_THRESHOLD, DEFAULT_PINNED_THRESHOLD);
+        pinned = new RecordingStream();
+        pinned.enable(EVENT_PINNED).withThreshold(Duration.ofMillis(threshold)).withStackTrace();
+        pinned.onEvent(EVENT_PINNED, e -> context.log(describe(e)));
+        pinned.startAsync();
+
+        context.log(String.format("virtual thread mode: db max concurrency=%d, pinned threshold=%dms",
+                DBUtil.getMaxConcurrency(), threshold));
+    }
+
+    /**
+     * Webアプリケーションのシャットダウン時に実行する処理
+     */
+    public void contextDestroyed(ServletContextEvent sce) {
+        if (pinned != null) {
+            pinned.close();
+        }
+        if (executor != null) {
+            //処理中のリクエストを待ってから停止する
+            executor.shutdown();
+            try {
+                executor.awaitTermination(DBUtil.getAcquireTimeout(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            //HikariCPのスレッドを停止する
+            DBUtil.close();
+        }
+    }
+
+    /**
+     * 固定のイベントをログ出力用の文字列にする
+     * @param e JFRのイベント
+     * @return 固定されていた時間、スレッド名と、固定の原因となった箇所のスタックトレース
+     * (先頭はI/O待ち等のJDK内部の処理になるため、それを呼び出したアプリ・ライブラリの行から出力する)
+     */
+    private static String describe(RecordedEvent e) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("virtual thread pinned for ").append(e.getDuration().toMillis()).append("ms");
+        if (e.getThread() != null) {
+            sb.append(" (").append(e.getThread().getJavaName()).append(')');
+        }
+        if (e.getStackTrace() != null) {
+            List<RecordedFrame> frames = e.getStackTrace().getFrames();
+            int start = 0;
+            while (start < frames.size() - 1 && isJdkFrame(frames.get(start))) {
+                start++;
+            }
+            for (int i = start; i < frames.size() && i < start + STACK_DEPTH; i++) {
+                RecordedFrame f = frames.get(i);
+                sb.append("\n\tat ").append(f.getMethod().getType().getName())
+                        .append('.').append(f.getMethod().getName())
+                        .append(':').append(f.getLineNumber());
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * JDK内部のクラスの行かどうか
+     * @param f スタックトレースの行
+     * @return true: JDK内部 false: アプリ・ライブラリ
+     */
+    private static boolean isJdkFrame(RecordedFrame f) {
+        String type = f.getMethod().getType().getName();
+        return type.startsWith("java.") || type.startsWith("jdk.") || type.startsWith("sun.");
+    }
+
+}
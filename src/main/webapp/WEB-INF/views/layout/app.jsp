@@ -1,4 +1,4 @@
-<%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
+<%@ page language="java" session="false" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
 <%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core"%>
 <%@ page import="constants.ForwardConst" %>
 <%@ page import="constants.AttributeConst" %>
@@ -17,18 +17,14 @@
     <head>
         <meta charset="UTF-8">
                 <title><c:out value="日報管理システム" /></title> <%-- なんでc:out？？？ --%>
-        <link rel="stylesheet" href="<c:url value='/css/reset.css' />">
-        <link rel="stylesheet" href="<c:url value='/css/style.css' />">
+        <link rel="stylesheet" href="<c:url value='${assets["/css/reset.css"]}' />">
+        <link rel="stylesheet" href="<c:url value='${assets["/css/style.css"]}' />">
         <link href="https://use.fontawesome.com/releases/v6.5.0/css/all.css" rel="stylesheet">
 
 
 <script src="https://ajax.googleapis.com/ajax/libs/jquery/3.7.1/jquery.min.js"></script>
 <script src="https://cdnjs.cloudflare.com/ajax/libs/colresizable/1.6.0/colResizable-1.6.min.js"></script>
-<script>
-  $(function(){
-    $("table").colResizable();
-  });
-</script>
+<script src="<c:url value='${assets["/js/jsc.js"]}' />"></script>
 
     </head>
     <body>
@@ -36,16 +32,16 @@
             <div id="header">
                 <div id="header_menu">
                     <h1><a href="<c:url value='?action=${actTop}&command=${commIdx}' />">日報管理システム</a></h1>&nbsp;&nbsp;&nbsp;
-                    <c:if test="${sessionScope.login_employee != null}">
-                        <c:if test="${sessionScope.login_employee.adminFlag == AttributeConst.ROLE_ADMIN.getIntegerValue()}">
+                    <c:if test="${login_employee != null}">
+                        <c:if test="${login_employee.adminFlag == AttributeConst.ROLE_ADMIN.getIntegerValue()}">
                             <a href="<c:url value='?action=${actEmp}&command=${commIdx}' />">従業員管理</a>&nbsp;
                         </c:if>
                         <a href="<c:url value='?action=${actRep}&command=${commIdx}' />">日報管理</a>&nbsp;
                     </c:if>
                 </div>
-                <c:if test="${sessionScope.login_employee != null}">
+                <c:if test="${login_employee != null}">
                     <div id="employee_name">
-                        <c:out value="${sessionScope.login_employee.name}" />
+                        <c:out value="${login_employee.name}" />
                         &nbsp;さん&nbsp;&nbsp;&nbsp;
                         <a href="<c:url value='?action=${actAuth}&command=${commOut}' />">ログアウト</a>
                     </div>
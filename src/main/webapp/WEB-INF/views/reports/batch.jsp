@@ -0,0 +1,57 @@
+<%@ page language="java" session="false" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
+<%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core" %>
+<%@ taglib prefix="fmt" uri="http://java.sun.com/jsp/jstl/fmt" %>
+<%@ page import="constants.ForwardConst" %>
+<%@ page import="constants.AttributeConst" %>
+
+<%-- ページスコープ --%>
+<c:set var="action" value="${ForwardConst.ACT_REP.getValue()}"/>
+<c:set var="commIdx" value="${ForwardConst.CMD_INDEX.getValue()}" />
+<c:set var="commBatchCrt" value="${ForwardConst.CMD_BATCH_CREATE.getValue()}" />
+
+<c:import url="/WEB-INF/views/layout/app.jsp">
+    <c:param name="content">
+        <h2>日報　まとめて登録</h2>
+
+        <c:if test="${errors != null}">
+            <div id="flush_error">
+                入力内容にエラーがあります。各日報のエラーを確認してください(1件も登録されていません)。
+            </div>
+        </c:if>
+        <p>タイトルと内容が空欄の日報は登録しません。</p>
+
+        <form method="post" action="<c:url value='?action=${action}&command=${commBatchCrt}' />">
+            <c:forEach var="report" items="${reports}" varStatus="status">
+                <fieldset class="batch_report">
+                    <legend>${status.count}件目</legend>
+                    <c:if test="${not empty errors[status.index]}">
+                        <div class="batch_error">
+                            <c:forEach var="error" items="${errors[status.index]}">
+                                ・<c:out value="${error}" /><br />
+                            </c:forEach>
+                        </div>
+                    </c:if>
+                    <fmt:parseDate value="${report.reportDate}" pattern="yyyy-MM-dd" var="reportDay" type="date" />
+                    <label>日付</label><br />
+                    <input type="date" name="${AttributeConst.REP_DATE.getValue()}" value="<fmt:formatDate value='${reportDay}' pattern='yyyy-MM-dd' />" />
+                    <br /><br />
+
+                    <label>タイトル</label><br />
+                    <input type="text" name="${AttributeConst.REP_TITLE.getValue()}" value="<c:out value='${report.title}' />" />
+                    <br /><br />
+
+                    <label>内容</label><br />
+                    <textarea name="${AttributeConst.REP_CONTENT.getValue()}" rows="5" cols="50"><c:out value="${report.content}" /></textarea>
+                </fieldset>
+            </c:forEach>
+            <br />
+            <label>氏名</label><br />
+            <c:out value="${login_employee.name}" />
+            <br /><br />
+            <input type="hidden" name="${AttributeConst.TOKEN.getValue()}" value="${_token}" />
+            <button type="submit">まとめて投稿</button>
+        </form>
+
+        <p><a href="<c:url value='?action=${action}&command=${commIdx}' />">一覧に戻る</a></p>
+    </c:param>
+</c:import>
\ No newline at end of file
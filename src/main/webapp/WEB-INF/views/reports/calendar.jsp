@@ -0,0 +1,65 @@
+<%@ page language="java" session="false" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
+<%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core"%>
+<%@ page import="constants.ForwardConst" %>
+
+<c:set var="actRep" value="${ForwardConst.ACT_REP.getValue()}" />
+<c:set var="actTop" value="${ForwardConst.ACT_TOP.getValue()}" />
+<c:set var="commIdx" value="${ForwardConst.CMD_INDEX.getValue()}" />
+<c:set var="commShow" value="${ForwardConst.CMD_SHOW.getValue()}" />
+<c:set var="commCal" value="${ForwardConst.CMD_CALENDAR.getValue()}" />
+
+<%-- 他の従業員のカレンダーを表示している場合は、前月・翌月のリンクにも従業員のidを付ける --%>
+<c:set var="empParam" value="${calendar.employee.id == login_employee.id ? '' : '&id=' += calendar.employee.id}" />
+
+<c:import url="/WEB-INF/views/layout/app.jsp">
+    <c:param name="content">
+
+        <h2><c:out value="${calendar.employee.name}" />　日報カレンダー</h2>
+
+        <div id="calendar_nav">
+            <a href="<c:url value='?action=${actRep}&command=${commCal}&month=${calendar.month.minusMonths(1)}${empParam}' />">&lt;&nbsp;前月</a>
+            &nbsp;<c:out value="${calendar.month.year}" />年<c:out value="${calendar.month.monthValue}" />月&nbsp;
+            <a href="<c:url value='?action=${actRep}&command=${commCal}&month=${calendar.month.plusMonths(1)}${empParam}' />">翌月&nbsp;&gt;</a>
+        </div>
+
+        <%-- 日報がある日は日報へのリンクといいねの件数を表示する(日曜日から始める) --%>
+        <table id="report_calendar">
+            <tbody>
+                <tr>
+                    <th>日</th><th>月</th><th>火</th><th>水</th><th>木</th><th>金</th><th>土</th>
+                </tr>
+                <c:forEach var="w" begin="0" end="${calendar.weeks - 1}">
+                    <tr>
+                        <c:forEach var="d" begin="0" end="6">
+                            <c:set var="day" value="${w * 7 + d - calendar.leadingDays + 1}" />
+                            <c:choose>
+                                <c:when test="${day < 1 || day > calendar.days}">
+                                    <td class="calendar_blank"></td>
+                                </c:when>
+                                <c:otherwise>
+                                    <td class="calendar_day">
+                                        <div class="calendar_date"><c:out value="${day}" /></div>
+                                        <c:if test="${calendar.first(day + 1) > calendar.first(day)}">
+                                            <c:forEach var="k" begin="${calendar.first(day)}" end="${calendar.first(day + 1) - 1}">
+                                                <div class="calendar_report">
+                                                    <a href="<c:url value='?action=${actRep}&command=${commShow}&id=${calendar.reportIds[k]}' />">日報</a>
+                                                    <i class="fa-regular fa-star"></i>&nbsp;<c:out value="${calendar.likeCounts[k]}" />
+                                                </div>
+                                            </c:forEach>
+                                        </c:if>
+                                    </td>
+                                </c:otherwise>
+                            </c:choose>
+                        </c:forEach>
+                    </tr>
+                </c:forEach>
+            </tbody>
+        </table>
+
+        <p>（日報 ${calendar.reportCount} 件／いいね ${calendar.likeTotal} 件）</p>
+
+        <p>
+            <a href="<c:url value='?action=${actTop}&command=${commIdx}' />">トップページに戻る</a>
+        </p>
+    </c:param>
+</c:import>
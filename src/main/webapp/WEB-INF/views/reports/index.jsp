@@ -1,13 +1,18 @@
-<%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
+<%@ page language="java" session="false" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
 <%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core" %>
 <%@ taglib prefix="fmt" uri="http://java.sun.com/jsp/jstl/fmt" %>
+<%@ taglib prefix="drs" uri="/WEB-INF/tlds/drs.tld" %>
 <%@ page import="constants.ForwardConst" %>
+<%@ page import="constants.AttributeConst" %>
 
 <%-- ページスコープ --%>
 <c:set var="actRep" value="${ForwardConst.ACT_REP.getValue()}" />
 <c:set var="commIdx" value="${ForwardConst.CMD_INDEX.getValue()}" />
 <c:set var="commShow" value="${ForwardConst.CMD_SHOW.getValue()}" />
 <c:set var="commNew" value="${ForwardConst.CMD_NEW.getValue()}" />
+<c:set var="commBatchNew" value="${ForwardConst.CMD_BATCH_NEW.getValue()}" />
+<c:set var="commExport" value="${ForwardConst.CMD_EXPORT.getValue()}" />
+<c:set var="commTrending" value="${ForwardConst.CMD_TRENDING.getValue()}" />
 
 <c:import url="/WEB-INF/views/layout/app.jsp">
     <c:param name="content">
@@ -17,6 +22,37 @@
             </div>
         </c:if>
         <h2>日報　一覧</h2>
+        <%-- 日報の登録・更新があった場合に表示する(js/report_events.js) --%>
+        <div id="report_events" data-url="<c:url value='/api/events' />">
+            新しい日報の登録・更新があります。<a href="<c:url value='?action=${actRep}&command=${commIdx}' />">最新の一覧を表示</a>
+        </div>
+        <%-- 日付の範囲・作成した従業員の社員番号で絞り込む(未入力の条件は指定しない) --%>
+        <div id="report_filter">
+        <form method="GET" action="<c:url value='/' />">
+        <input type="hidden" name="action" value="${actRep}" />
+        <input type="hidden" name="command" value="${commIdx}" />
+        <input type="date" name="${AttributeConst.REP_FILTER_FROM.getValue()}" value="${date_from}" />&nbsp;〜&nbsp;
+        <input type="date" name="${AttributeConst.REP_FILTER_TO.getValue()}" value="${date_to}" />&nbsp;
+        <input type="text" name="${AttributeConst.REP_FILTER_EMP_CODE.getValue()}" value="<c:out value='${employee_code}' />" placeholder="社員番号" />&nbsp;
+        <button type="submit">絞り込み</button>
+        </form>
+        </div>
+        <%-- 最近の期間の日報と、それより前の日報(以前の日報)を切り替えて表示する --%>
+        <p id="report_period">
+            <c:choose>
+                <c:when test="${filtered}">
+                    条件に該当する日報を表示しています。<a href="<c:url value='?action=${actRep}&command=${commIdx}' />">絞り込みを解除</a>
+                </c:when>
+                <c:when test="${older}">
+                    <c:out value="${recentSince}" />より前の日報を表示しています。<a href="<c:url value='?action=${actRep}&command=${commIdx}' />">最近の日報を表示</a>
+                </c:when>
+                <c:otherwise>
+                    <c:out value="${recentSince}" />以降の日報を表示しています。<a href="<c:url value='?action=${actRep}&command=${commIdx}&older=1' />">以前の日報を表示</a>
+                </c:otherwise>
+            </c:choose>
+        </p>
+        <%-- 一覧部分は全従業員で同じ内容のため、描画結果をキャッシュする(ReportAction.index) --%>
+        <drs:cache key="${fragment_key}" cached="${fragment}">
         <table id="report_list">
             <tbody>
                 <tr>
@@ -46,12 +82,26 @@
                         <c:out value="${i}" />&nbsp;
                     </c:when>
                 <c:otherwise>
-                    <a href="<c:url value='?action=${actRep}&command=${commIdx}&page=${i}' />"><c:out value="${i}" /></a>&nbsp;
+                    <c:url var="pageUrl" value="">
+                        <c:param name="action" value="${actRep}" />
+                        <c:param name="command" value="${commIdx}" />
+                        <c:param name="page" value="${i}" />
+                        <c:if test="${older}"><c:param name="older" value="1" /></c:if>
+                        <c:if test="${date_from != null}"><c:param name="${AttributeConst.REP_FILTER_FROM.getValue()}" value="${date_from}" /></c:if>
+                        <c:if test="${date_to != null}"><c:param name="${AttributeConst.REP_FILTER_TO.getValue()}" value="${date_to}" /></c:if>
+                        <c:if test="${employee_code != null}"><c:param name="${AttributeConst.REP_FILTER_EMP_CODE.getValue()}" value="${employee_code}" /></c:if>
+                    </c:url>
+                    <a href="${pageUrl}"><c:out value="${i}" /></a>&nbsp;
                 </c:otherwise>
               </c:choose>
             </c:forEach>
         </div>
+        </drs:cache>
         <p><a href="<c:url value='?action=${actRep}&command=${commNew}' />">新規日報の登録</a></p>
+        <p><a href="<c:url value='?action=${actRep}&command=${commBatchNew}' />">複数日の日報をまとめて登録</a></p>
+        <p><a href="<c:url value='?action=${actRep}&command=${commExport}' />">全日報をCSVでダウンロード</a></p>
+        <p><a href="<c:url value='?action=${actRep}&command=${commTrending}' />">今週の注目の日報を見る</a></p>
+        <script src="<c:url value='${assets["/js/report_events.js"]}' />"></script>
 
     </c:param>
 </c:import>
\ No newline at end of file
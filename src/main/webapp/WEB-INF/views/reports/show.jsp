@@ -1,4 +1,4 @@
-<%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
+<%@ page language="java" session="false" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
 <%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core"%>
 <%@ taglib prefix="fmt" uri="http://java.sun.com/jsp/jstl/fmt"%>
 <%@ page import="constants.ForwardConst" %>
@@ -43,7 +43,7 @@
             </tbody>
         </table>
 
-        <c:if test="${sessionScope.login_employee.id == report.employee.id}">
+        <c:if test="${login_employee.id == report.employee.id}">
             <i class="fa-regular fa-star fa-lg"></i>&nbsp;<c:out value="${likes_count}" />
 
          <p>
@@ -51,7 +51,7 @@
          </p>
          </c:if>
                 <div id="like_icon">
-         <c:if test="${sessionScope.login_employee.id != report.employee.id && like_check == true}">
+         <c:if test="${login_employee.id != report.employee.id && like_check == true}">
                  <form method="post" name="form1" action="<c:url value='?action=${actRep}&command=${commLikeD}' />">
                          <input type="hidden" name="${AttributeConst.REP_ID.getValue()}" value="${report.id}" />
                          <input type="hidden" name="${AttributeConst.TOKEN.getValue()}" value="${_token}" />
@@ -60,7 +60,7 @@
          </c:if>
          </div>
                 <div id="like_icon2">
-         <c:if test="${sessionScope.login_employee.id != report.employee.id && like_check == false}">
+         <c:if test="${login_employee.id != report.employee.id && like_check == false}">
                  <form method="post" name="form1" action="<c:url value='?action=${actRep}&command=${commLikeC}' />">
                          <input type="hidden" name="${AttributeConst.REP_ID.getValue()}" value="${report.id}" />
                          <input type="hidden" name="${AttributeConst.TOKEN.getValue()}" value="${_token}" />
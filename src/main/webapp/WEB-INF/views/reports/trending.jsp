@@ -0,0 +1,48 @@
+<%@ page language="java" session="false" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
+<%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core"%>
+<%@ page import="constants.ForwardConst" %>
+
+<c:set var="actRep" value="${ForwardConst.ACT_REP.getValue()}" />
+<c:set var="commIdx" value="${ForwardConst.CMD_INDEX.getValue()}" />
+<c:set var="commShow" value="${ForwardConst.CMD_SHOW.getValue()}" />
+
+<c:import url="/WEB-INF/views/layout/app.jsp">
+    <c:param name="content">
+
+        <h2>今週の注目の日報</h2>
+        <p>直近1週間の閲覧数・いいねの件数です（おおよその値）。</p>
+
+        <%-- 注目の日報(閲覧数 + いいねの件数 × 5 の順)とよく見られた日報(閲覧数の順)を同じ形式で表示する --%>
+        <c:forEach var="section" items="${['trending', 'most_viewed']}">
+            <h3>${section == 'trending' ? '注目の日報' : 'よく見られた日報'}</h3>
+            <table class="report_trends">
+                <tbody>
+                    <tr>
+                        <th class="trend_rank">順位</th>
+                        <th class="trend_name">氏名</th>
+                        <th class="trend_date">日付</th>
+                        <th class="trend_title">タイトル</th>
+                        <th class="trend_count">閲覧数</th>
+                        <th class="trend_count">いいね</th>
+                    </tr>
+                    <c:forEach var="trend" items="${requestScope[section]}" varStatus="status">
+                        <tr class="row${status.count % 2}">
+                            <td class="trend_rank"><c:out value="${status.count}" /></td>
+                            <td class="trend_name"><c:out value="${trend.employeeName}" /></td>
+                            <td class="trend_date"><c:out value="${trend.reportDate}" /></td>
+                            <td class="trend_title">
+                                <a href="<c:url value='?action=${actRep}&command=${commShow}&id=${trend.reportId}' />"><c:out value="${trend.title}" default="（日報）" /></a>
+                            </td>
+                            <td class="trend_count"><c:out value="${trend.views}" /></td>
+                            <td class="trend_count"><c:out value="${trend.likes}" /></td>
+                        </tr>
+                    </c:forEach>
+                </tbody>
+            </table>
+        </c:forEach>
+
+        <p>
+            <a href="<c:url value='?action=${actRep}&command=${commIdx}' />">一覧に戻る</a>
+        </p>
+    </c:param>
+</c:import>
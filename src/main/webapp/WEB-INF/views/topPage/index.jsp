@@ -1,4 +1,4 @@
-<%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
+<%@ page language="java" session="false" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
 <%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core" %>
 <%@ taglib prefix="fmt" uri="http://java.sun.com/jsp/jstl/fmt" %>
 <%@ page import="constants.ForwardConst" %>
@@ -21,6 +21,17 @@
         </c:if>
         <h2>日報管理システムへようこそ</h2>
         <h3>【自分の日報　一覧】</h3>
+        <%-- 最近の期間の日報と、それより前の日報(以前の日報)を切り替えて表示する --%>
+        <p id="report_period">
+            <c:choose>
+                <c:when test="${older}">
+                    <c:out value="${recentSince}" />より前の日報を表示しています。<a href="<c:url value='?action=${actTop}&command=${commIdx}' />">最近の日報を表示</a>
+                </c:when>
+                <c:otherwise>
+                    <c:out value="${recentSince}" />以降の日報を表示しています。<a href="<c:url value='?action=${actTop}&command=${commIdx}&older=1' />">以前の日報を表示</a>
+                </c:otherwise>
+            </c:choose>
+        </p>
         <table id="report_list">
             <tbody>
                 <tr>
@@ -48,11 +59,12 @@
                         <c:out value="${i}" />&nbsp;
                     </c:when>
                     <c:otherwise>
-                        <a href="<c:url value='?action=${actTop}&command=${commIdx}&page=${i}' />"><c:out value="${i}" /></a>&nbsp;
+                        <a href="<c:url value='?action=${actTop}&command=${commIdx}&page=${i}${older ? "&older=1" : ""}' />"><c:out value="${i}" /></a>&nbsp;
                     </c:otherwise>
                 </c:choose>
             </c:forEach>
         </div>
         <p><a href="<c:url value='?action=${actRep}&command=${commNew}' />">新規日報の登録</a></p>
+        <p><a href="<c:url value='?action=${actRep}&command=${ForwardConst.CMD_CALENDAR.getValue()}' />">自分の日報カレンダー</a></p>
     </c:param>
 </c:import>
\ No newline at end of file
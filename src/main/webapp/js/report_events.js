@@ -0,0 +1,22 @@
+/**
+ * 日報一覧: 日報の登録・更新をサーバーからのイベント(Server-Sent Events)で受け取り、
+ * 再読み込みの案内を表示する(画面を定期的に再読み込みしなくてよいようにする)
+ */
+
+  (function(){
+      var notice = document.getElementById("report_events");
+      if (!notice || !window.EventSource) {
+          return;
+      }
+      var source = new EventSource(notice.getAttribute("data-url"));
+      var show = function(){
+          notice.style.display = "block";
+      };
+      source.addEventListener("created", show);
+      source.addEventListener("updated", show);
+
+      //画面を離れるときは接続を閉じる
+      window.addEventListener("pagehide", function(){
+          source.close();
+      });
+  })();
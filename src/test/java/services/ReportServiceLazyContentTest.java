@@ -0,0 +1,182 @@
+package services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.engine.spi.PersistentAttributeInterceptable;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import actions.views.ReportView;
+import constants.JpaConst;
+import models.Employee;
+import models.Report;
+import models.ReportContent;
+import utils.DBUtil;
+
+/**
+ * 日報の一覧の取得で内容(LOB)を読み込まないこと、1件の取得では内容を参照したときに読み込むことを確認する
+ * (H2のインメモリDBに対して発行したSQLを記録して確認する 内容の遅延読み込みはエンハンス済みのクラスでのみ有効なため、エンハンスされていることも確認する)
+ */
+public class ReportServiceLazyContentTest {
+
+    //日報の内容のカラムを参照するSQL
+    private static final Pattern CONTENT_COLUMN = Pattern.compile("\\." + JpaConst.REP_COL_CONTENT + "\\b");
+
+    private static final String CONTENT_TEXT = "内容\n2行目";
+
+    private static int employeeId;
+    private static String employeeCode;
+    private static int reportId;
+
+    /**
+     * 発行したSQLを記録するStatementInspector
+     */
+    public static class SqlCapture implements StatementInspector {
+
+        private static final List<String> SQLS = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            synchronized (SQLS) {
+                SQLS.add(sql);
+            }
+            return sql;
+        }
+
+        static void clear() {
+            synchronized (SQLS) {
+                SQLS.clear();
+            }
+        }
+
+        static List<String> get() {
+            synchronized (SQLS) {
+                return new ArrayList<>(SQLS);
+            }
+        }
+    }
+
+    @BeforeAll
+    public static void setUpDatabase() {
+        System.setProperty("drs.jpa.javax.persistence.jdbc.driver", "org.h2.Driver");
+        System.setProperty("drs.jpa.javax.persistence.jdbc.url", "jdbc:h2:mem:lazy_content;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        System.setProperty("drs.jpa.javax.persistence.jdbc.user", "sa");
+        System.setProperty("drs.jpa.javax.persistence.jdbc.password", "");
+        System.setProperty("drs.jpa.hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        System.setProperty("drs.jpa.hibernate.show_sql", "false");
+        System.setProperty("drs.jpa.hibernate.session_factory.statement_inspector", SqlCapture.class.getName());
+
+        EntityManager em = DBUtil.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            LocalDateTime now = LocalDateTime.now();
+            Employee e = new Employee(null, "T000001", "テスト", "pass", JpaConst.ROLE_GENERAL, now, now,
+                    JpaConst.EMP_DEL_FALSE, null);
+            em.persist(e);
+            Report last = null;
+            for (int i = 0; i < 3; i++) {
+                last = new Report(null, e, LocalDate.now().minusDays(i), "タイトル" + i,
+                        ReportContent.ofText(CONTENT_TEXT), now, now, null);
+                em.persist(last);
+            }
+            em.getTransaction().commit();
+            employeeId = e.getId();
+            employeeCode = e.getCode();
+            reportId = last.getId();
+        } finally {
+            em.close();
+        }
+    }
+
+    @BeforeEach
+    public void clearSql() {
+        SqlCapture.clear();
+    }
+
+    @Test
+    public void reportIsEnhanced() {
+        assertTrue(PersistentAttributeInterceptable.class.isAssignableFrom(Report.class),
+                "models.Report is not enhanced (hibernate-enhance-maven-plugin was not applied)");
+    }
+
+    @Test
+    public void getAllPerPageDoesNotSelectContent() {
+        List<ReportView> all;
+        List<ReportView> byCode;
+        try (ReportService service = new ReportService()) {
+            all = service.getAllPerPage(null, null, null, 1);
+            byCode = service.getAllPerPage(employeeCode, null, null, 1);
+        }
+        assertEquals(3, all.size());
+        assertEquals(3, byCode.size());
+        all.forEach(rv -> assertNull(rv.getContent()));
+        assertNoContentSelected();
+    }
+
+    @Test
+    public void getMinePerPageDoesNotSelectContent() {
+        List<ReportView> mine;
+        try (ReportService service = new ReportService()) {
+            mine = service.getMinePerPage(employeeId, null, null, 1);
+        }
+        assertEquals(3, mine.size());
+        mine.forEach(rv -> assertNull(rv.getContent()));
+        assertNoContentSelected();
+    }
+
+    @Test
+    public void forEachBeforeWithoutContentDoesNotSelectContent() {
+        List<ReportView> views = new ArrayList<>();
+        try (ReportService service = new ReportService()) {
+            service.forEachBefore(null, Integer.MAX_VALUE, 10, false, views::add);
+            service.forEachBefore(employeeId, Integer.MAX_VALUE, 10, false, views::add);
+        }
+        assertEquals(6, views.size());
+        views.forEach(rv -> assertNull(rv.getContent()));
+        assertNoContentSelected();
+    }
+
+    @Test
+    public void findOneLoadsContentLazily() {
+        ReportView rv;
+        try (ReportService service = new ReportService()) {
+            rv = service.findOne(reportId);
+        }
+        assertEquals(CONTENT_TEXT, rv.getContent());
+
+        List<String> selects = selects();
+        assertTrue(selects.size() >= 2, "content was not loaded by a separate select: " + selects);
+        assertFalse(CONTENT_COLUMN.matcher(selects.get(0)).find(), "find selected content: " + selects.get(0));
+        assertTrue(selects.stream().skip(1).anyMatch(sql -> CONTENT_COLUMN.matcher(sql).find()),
+                "content was not selected on access: " + selects);
+    }
+
+    private static void assertNoContentSelected() {
+        List<String> selects = selects();
+        assertFalse(selects.isEmpty());
+        for (String sql : selects) {
+            assertFalse(CONTENT_COLUMN.matcher(sql).find(), "selected content: " + sql);
+        }
+    }
+
+    private static List<String> selects() {
+        return SqlCapture.get().stream()
+                .filter(sql -> sql.trim().toLowerCase().startsWith("select"))
+                .collect(Collectors.toList());
+    }
+
+}